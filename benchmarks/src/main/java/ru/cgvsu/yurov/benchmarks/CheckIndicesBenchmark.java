@@ -0,0 +1,45 @@
+package ru.cgvsu.yurov.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.Polygon;
+import ru.cgvsu.yurov.objreader.ObjReader;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Проверка индексов всех полигонов модели, как в конце ObjReader.readModel, но через Polygon.checkIndices
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class CheckIndicesBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int faces;
+
+    @Param({MeshGenerator.VERTEX, MeshGenerator.VERTEX_TEXTURE_NORMAL})
+    public String format;
+
+    private Model model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        model = ObjReader.read(MeshGenerator.generate(faces, format));
+    }
+
+    @Benchmark
+    public void checkIndices(Blackhole blackhole) {
+        int verticesSize = model.getVerticesSize();
+        int textureVerticesSize = model.getTextureVerticesSize();
+        int normalsSize = model.getNormalsSize();
+        List<Polygon> polygons = model.getPolygons();
+        for (int i = 0; i < polygons.size(); i++) {
+            Polygon polygon = polygons.get(i);
+            polygon.checkIndices(verticesSize, textureVerticesSize, normalsSize);
+            blackhole.consume(polygon);
+        }
+    }
+}
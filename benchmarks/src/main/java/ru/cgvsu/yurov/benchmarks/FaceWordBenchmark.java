@@ -0,0 +1,38 @@
+package ru.cgvsu.yurov.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.cgvsu.yurov.objreader.FaceWord;
+
+import java.util.concurrent.TimeUnit;
+
+// Разбор отдельных слов полигона в каждом из форматов
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FaceWordBenchmark {
+    private static final int WORDS_COUNT = 1024;
+
+    @Param({MeshGenerator.VERTEX, MeshGenerator.VERTEX_TEXTURE,
+            MeshGenerator.VERTEX_NORMAL, MeshGenerator.VERTEX_TEXTURE_NORMAL})
+    public String format;
+
+    private String[] words;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        words = new String[WORDS_COUNT];
+        for (int i = 0; i < WORDS_COUNT; i++) {
+            words[i] = MeshGenerator.word(i * 7919 + 1, format);
+        }
+    }
+
+    @Benchmark
+    public FaceWord parse() {
+        next = (next + 1) & (WORDS_COUNT - 1);
+        return FaceWord.parse(words[next], 1);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.cgvsu.yurov.benchmarks;
+
+// Генерирует OBJ текст сетки-ленты из треугольников: вершины лежат в два ряда, каждый треугольник использует
+// соседние вершины. На каждую вершину приходится одна текстурная вершина и одна нормаль, если они нужны формату
+public final class MeshGenerator {
+    public static final String VERTEX = "v";
+    public static final String VERTEX_TEXTURE = "v/vt";
+    public static final String VERTEX_NORMAL = "v//vn";
+    public static final String VERTEX_TEXTURE_NORMAL = "v/vt/vn";
+
+    private MeshGenerator() {}
+
+    public static String generate(int facesCount, String format) {
+        boolean hasTexture = format.equals(VERTEX_TEXTURE) || format.equals(VERTEX_TEXTURE_NORMAL);
+        boolean hasNormals = format.equals(VERTEX_NORMAL) || format.equals(VERTEX_TEXTURE_NORMAL);
+        int verticesCount = facesCount + 2;
+
+        StringBuilder sb = new StringBuilder(facesCount * (hasTexture || hasNormals ? 90 : 60));
+        for (int i = 0; i < verticesCount; i++) {
+            float x = (i >> 1) * 0.125F;
+            float y = (i & 1) * 1.5F;
+            sb.append("v ").append(x).append(' ').append(y).append(' ').append(-0.25F * (i % 7)).append('\n');
+            if (hasTexture) {
+                sb.append("vt ").append((i % 1000) / 1000F).append(' ').append(i & 1).append('\n');
+            }
+            if (hasNormals) {
+                sb.append("vn 0 0.7071 0.7071\n");
+            }
+        }
+        for (int i = 0; i < facesCount; i++) {
+            sb.append('f');
+            for (int j = 1; j <= 3; j++) {
+                sb.append(' ');
+                appendWord(sb, i + j, hasTexture, hasNormals);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static String word(int index, String format) {
+        StringBuilder sb = new StringBuilder();
+        appendWord(sb, index,
+                format.equals(VERTEX_TEXTURE) || format.equals(VERTEX_TEXTURE_NORMAL),
+                format.equals(VERTEX_NORMAL) || format.equals(VERTEX_TEXTURE_NORMAL));
+        return sb.toString();
+    }
+
+    private static void appendWord(StringBuilder sb, int index, boolean hasTexture, boolean hasNormals) {
+        sb.append(index);
+        if (hasTexture) {
+            sb.append('/').append(index);
+            if (hasNormals) {
+                sb.append('/').append(index);
+            }
+        } else if (hasNormals) {
+            sb.append("//").append(index);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.cgvsu.yurov.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.objreader.ObjReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Чтение целого файла из строки и с диска. Кроме ops/s выводится счетчик megabytes - скорость в МБ/с
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class ObjReaderBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int faces;
+
+    @Param({MeshGenerator.VERTEX, MeshGenerator.VERTEX_TEXTURE,
+            MeshGenerator.VERTEX_NORMAL, MeshGenerator.VERTEX_TEXTURE_NORMAL})
+    public String format;
+
+    private String content;
+    private File file;
+    private long contentSize;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        content = MeshGenerator.generate(faces, format);
+        contentSize = content.getBytes(StandardCharsets.UTF_8).length;
+        Path path = Files.createTempFile("benchmark", ".obj");
+        Files.writeString(path, content);
+        file = path.toFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+        content = null;
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public double megabytes;
+    }
+
+    @Benchmark
+    public Model readString(Bytes bytes) {
+        bytes.megabytes += contentSize / 1e6;
+        return ObjReader.read(content);
+    }
+
+    @Benchmark
+    public Model readFile(Bytes bytes) {
+        bytes.megabytes += contentSize / 1e6;
+        return ObjReader.read(file);
+    }
+}
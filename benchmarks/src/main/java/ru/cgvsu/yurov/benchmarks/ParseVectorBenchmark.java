@@ -0,0 +1,43 @@
+package ru.cgvsu.yurov.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.cgvsu.yurov.math.Vector3f;
+import ru.cgvsu.yurov.objreader.ObjReader;
+
+import java.util.concurrent.TimeUnit;
+
+// Разбор координат вершины из слов строки. parseVector3f защищенный, поэтому вызывается через наследника ObjReader
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseVectorBenchmark {
+    private static final int LINES_COUNT = 1024;
+
+    private final VectorParser parser = new VectorParser();
+    private String[][] lines;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lines = new String[LINES_COUNT][];
+        for (int i = 0; i < LINES_COUNT; i++) {
+            lines[i] = new String[]{
+                    Float.toString(i * 0.37F), Float.toString(-i * 1.5F), Float.toString(i / 3F)};
+        }
+    }
+
+    @Benchmark
+    public Vector3f parseVector3f() {
+        next = (next + 1) & (LINES_COUNT - 1);
+        return parser.parse(lines[next]);
+    }
+
+    private static class VectorParser extends ObjReader {
+        Vector3f parse(String[] words) {
+            return parseVector3f(words);
+        }
+    }
+}
@@ -24,4 +24,16 @@ public class Vector3f {
     }
 
     float x, y, z;
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getZ() {
+        return z;
+    }
 }
@@ -0,0 +1,82 @@
+package ru.cgvsu.yurov.mesh;
+
+import java.util.Arrays;
+
+// Хеш-таблица с открытой адресацией из троек int в int. Ключи и значения лежат в массивах int,
+// поэтому на элемент не создаются ни объекты ключей, ни упакованные Integer
+final class IntTripleMap {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    IntTripleMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity * 3];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+    }
+
+    // Возвращает значение для ключа (a, b, c), если он уже есть, иначе добавляет его со значением value
+    // и возвращает value. Значения должны быть неотрицательными
+    int putIfAbsent(int a, int b, int c, int value) {
+        int slot = hash(a, b, c) & mask;
+        while (values[slot] != EMPTY) {
+            int key = slot * 3;
+            if (keys[key] == a && keys[key + 1] == b && keys[key + 2] == c) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int key = slot * 3;
+        keys[key] = a;
+        keys[key + 1] = b;
+        keys[key + 2] = c;
+        values[slot] = value;
+        if (++size * 2 > values.length) {
+            rehash();
+        }
+        return value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldValues.length * 2);
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] == EMPTY) {
+                continue;
+            }
+            int a = oldKeys[slot * 3];
+            int b = oldKeys[slot * 3 + 1];
+            int c = oldKeys[slot * 3 + 2];
+            int newSlot = hash(a, b, c) & mask;
+            while (values[newSlot] != EMPTY) {
+                newSlot = (newSlot + 1) & mask;
+            }
+            keys[newSlot * 3] = a;
+            keys[newSlot * 3 + 1] = b;
+            keys[newSlot * 3 + 2] = c;
+            values[newSlot] = oldValues[slot];
+        }
+    }
+
+    private static int hash(int a, int b, int c) {
+        long h = a * 0x9E3779B97F4A7C15L + b;
+        h = h * 0xC2B2AE3D27D4EB4FL + c;
+        h *= 0x165667B19E3779F9L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,83 @@
+package ru.cgvsu.yurov.mesh;
+
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.Submesh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Собирает треугольники модели в пакеты по материалам подсеток, чтобы рендерер рисовал каждый материал одним
+// вызовом, а не каждую подсетку или группу отдельно. Перестановка устойчивая: внутри пакета треугольники идут
+// в исходном порядке. Работает за два линейных прохода (подсчет и раскладка), без сортировки
+public final class MaterialBatcher {
+    private MaterialBatcher() {}
+
+    public static MaterialBatches batch(Model model) {
+        Triangulation triangulation = Triangulator.triangulate(model);
+        return batch(model, triangulation, triangulation.getIndices());
+    }
+
+    // indices - по три индекса на треугольник triangulation, например Triangulation.getIndices()
+    // или WeldedMesh.getIndices() для той же разбивки
+    public static MaterialBatches batch(Model model, Triangulation triangulation, int[] indices) {
+        int trianglesSize = triangulation.getTrianglesSize();
+        if (indices.length != trianglesSize * 3) {
+            throw new IllegalArgumentException(
+                    "Indices size " + indices.length + " does not match " + trianglesSize + " triangles.");
+        }
+
+        // Пакет 0 - полигоны без материала, затем материалы в порядке первого использования
+        List<String> materials = model.getMaterials();
+        Map<String, Integer> materialBatches = new HashMap<>();
+        for (int i = 0; i < materials.size(); i++) {
+            materialBatches.put(materials.get(i), i + 1);
+        }
+        List<Submesh> submeshes = model.getSubmeshes();
+
+        // Треугольники и подсетки идут по возрастанию номеров полигонов, поэтому пакет находится одним проходом
+        int[] polygons = triangulation.getPolygons();
+        int[] triangleBatches = new int[trianglesSize];
+        int[] counts = new int[materials.size() + 1];
+        int submesh = 0;
+        for (int triangle = 0; triangle < trianglesSize; triangle++) {
+            int polygon = polygons[triangle];
+            while (submesh < submeshes.size() && submeshes.get(submesh).getEnd() <= polygon) {
+                submesh++;
+            }
+            int batch = 0;
+            if (submesh < submeshes.size() && submeshes.get(submesh).getStart() <= polygon) {
+                batch = materialBatches.get(submeshes.get(submesh).getMaterial());
+            }
+            triangleBatches[triangle] = batch;
+            counts[batch]++;
+        }
+
+        int[] offsets = new int[counts.length + 1];
+        for (int batch = 0; batch < counts.length; batch++) {
+            offsets[batch + 1] = offsets[batch] + counts[batch] * 3;
+        }
+        int[] positions = offsets.clone();
+        int[] batchedIndices = new int[indices.length];
+        for (int triangle = 0; triangle < trianglesSize; triangle++) {
+            int position = positions[triangleBatches[triangle]];
+            System.arraycopy(indices, triangle * 3, batchedIndices, position, 3);
+            positions[triangleBatches[triangle]] = position + 3;
+        }
+
+        // Пустые пакеты (например, материал подсеток из одних вырожденных полигонов) не возвращаются
+        List<String> batchMaterials = new ArrayList<>();
+        int[] starts = new int[counts.length + 1];
+        for (int batch = 0; batch < counts.length; batch++) {
+            if (counts[batch] > 0) {
+                starts[batchMaterials.size()] = offsets[batch];
+                batchMaterials.add(batch == 0 ? null : materials.get(batch - 1));
+            }
+        }
+        starts[batchMaterials.size()] = indices.length;
+        return new MaterialBatches(batchMaterials, Arrays.copyOf(starts, batchMaterials.size() + 1),
+                batchedIndices);
+    }
+}
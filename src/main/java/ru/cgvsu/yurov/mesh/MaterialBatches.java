@@ -0,0 +1,41 @@
+package ru.cgvsu.yurov.mesh;
+
+import java.util.Collections;
+import java.util.List;
+
+// Треугольники, переставленные так, что треугольники одного материала идут подряд: материал i рисуется одним
+// вызовом по indices[getStart(i)..getStart(i) + getSize(i)). Материал null - полигоны без строки "usemtl"
+public class MaterialBatches {
+    private final List<String> materials;
+    private final int[] starts;
+    private final int[] indices;
+
+    MaterialBatches(List<String> materials, int[] starts, int[] indices) {
+        this.materials = materials;
+        this.starts = starts;
+        this.indices = indices;
+    }
+
+    // Материалы непустых пакетов: сначала null, если есть полигоны без материала, затем в порядке первого использования
+    public List<String> getMaterials() {
+        return Collections.unmodifiableList(materials);
+    }
+
+    public int getBatchesSize() {
+        return materials.size();
+    }
+
+    // Начало пакета в indices
+    public int getStart(int batchIndex) {
+        return starts[batchIndex];
+    }
+
+    // Число индексов пакета, по три на треугольник
+    public int getSize(int batchIndex) {
+        return starts[batchIndex + 1] - starts[batchIndex];
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+}
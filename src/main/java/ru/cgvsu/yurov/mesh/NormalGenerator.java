@@ -0,0 +1,202 @@
+package ru.cgvsu.yurov.mesh;
+
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.PolygonStore;
+
+import java.nio.FloatBuffer;
+import java.util.stream.IntStream;
+
+// Сглаженные нормали для полигонов модели, у которых нет нормалей (слова "v" и "v/vt").
+// Нормаль вершины - сумма нормалей соседних полигонов, длина нормали полигона равна его удвоенной площади, поэтому
+// большие полигоны весят больше. Если задан угол излома, соседние полигоны вершины делятся на группы по углу
+// между ними, нормаль угла полигона - сумма нормалей его группы, и у одной вершины может получиться несколько нормалей.
+// Суммы собираются по списку соседних полигонов каждой вершины: каждый поток пишет только в свои вершины,
+// поэтому параллельный расчет обходится без блокировок и без копий массивов сумм на каждый поток
+public final class NormalGenerator {
+    private static final int RANGE_SIZE = 1 << 13;
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private NormalGenerator() {}
+
+    // Возвращает число добавленных в модель нормалей
+    public static int generate(Model model) {
+        return generate(model, 180);
+    }
+
+    public static int generate(Model model, float creaseAngleDegrees) {
+        PolygonStore polygons = model.getPolygonStore();
+        int polygonsSize = polygons.size();
+        int verticesSize = model.getVerticesSize();
+        int[] offsets = polygons.getOffsets();
+        int[] vertexIndices = polygons.getVertexIndices();
+        float[] positions = Triangulator.getPositions(model);
+        boolean isParallel = polygonsSize >= PARALLEL_THRESHOLD;
+
+        boolean[] isTarget = new boolean[polygonsSize];
+        boolean hasTargets = false;
+        for (int i = 0; i < polygonsSize; i++) {
+            isTarget[i] = !polygons.hasNormals(i);
+            hasTargets |= isTarget[i];
+        }
+        if (!hasTargets) {
+            return 0;
+        }
+
+        float[] polygonNormals = new float[polygonsSize * 3];
+        forEachRange(polygonsSize, isParallel, (from, to) -> {
+            for (int polygon = from; polygon < to; polygon++) {
+                if (isTarget[polygon]) {
+                    computePolygonNormal(positions, vertexIndices, offsets[polygon], offsets[polygon + 1],
+                            polygonNormals, polygon * 3);
+                }
+            }
+        });
+
+        // Соседние полигоны каждой вершины в формате CSR: incidentCorners[vertexOffsets[v]..vertexOffsets[v + 1]]
+        int[] vertexOffsets = new int[verticesSize + 1];
+        for (int polygon = 0; polygon < polygonsSize; polygon++) {
+            if (isTarget[polygon]) {
+                for (int corner = offsets[polygon]; corner < offsets[polygon + 1]; corner++) {
+                    vertexOffsets[vertexIndices[corner] + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < verticesSize; i++) {
+            vertexOffsets[i + 1] += vertexOffsets[i];
+        }
+        int incidencesSize = vertexOffsets[verticesSize];
+        int[] incidentCorners = new int[incidencesSize];
+        int[] incidentPolygons = new int[incidencesSize];
+        int[] fill = new int[verticesSize];
+        for (int polygon = 0; polygon < polygonsSize; polygon++) {
+            if (isTarget[polygon]) {
+                for (int corner = offsets[polygon]; corner < offsets[polygon + 1]; corner++) {
+                    int vertex = vertexIndices[corner];
+                    int position = vertexOffsets[vertex] + fill[vertex]++;
+                    incidentCorners[position] = corner;
+                    incidentPolygons[position] = polygon;
+                }
+            }
+        }
+
+        // Соседние полигоны каждой вершины за один проход делятся на группы излома: полигон попадает в первую группу,
+        // от суммарной нормали которой отклоняется не больше чем на угол излома, иначе начинает новую группу.
+        // Суммы групп вершины лежат в clusterNormals на местах ее первых углов, localIndices - номер группы угла.
+        // Проход стоит O(k * c) для вершины с k полигонами и c группами: у гладкой вершины с тысячами полигонов
+        // (центр веера, полюс сферы) группа одна. Квадратичным он становится только у вершины, где почти все
+        // соседние полигоны попарно расходятся больше чем на угол излома
+        float cosCrease = (float) Math.cos(Math.toRadians(creaseAngleDegrees));
+        boolean isSmooth = creaseAngleDegrees >= 180;
+        float[] clusterNormals = new float[incidencesSize * 3];
+        int[] localIndices = new int[incidencesSize];
+        int[] normalOffsets = new int[verticesSize + 1];
+        forEachRange(verticesSize, isParallel, (from, to) -> {
+            for (int vertex = from; vertex < to; vertex++) {
+                int start = vertexOffsets[vertex];
+                int end = vertexOffsets[vertex + 1];
+                int clustersCount = 0;
+                for (int i = start; i < end; i++) {
+                    int polygon = incidentPolygons[i] * 3;
+                    int cluster = 0;
+                    while (cluster < clustersCount && !isSmooth
+                            && cos(clusterNormals, (start + cluster) * 3, polygonNormals, polygon) < cosCrease) {
+                        cluster++;
+                    }
+                    if (cluster == clustersCount) {
+                        clustersCount++;
+                    }
+                    int offset = (start + cluster) * 3;
+                    clusterNormals[offset] += polygonNormals[polygon];
+                    clusterNormals[offset + 1] += polygonNormals[polygon + 1];
+                    clusterNormals[offset + 2] += polygonNormals[polygon + 2];
+                    localIndices[i] = cluster;
+                }
+                for (int cluster = 0; cluster < clustersCount; cluster++) {
+                    normalize(clusterNormals, (start + cluster) * 3);
+                }
+                normalOffsets[vertex + 1] = clustersCount;
+            }
+        });
+        for (int i = 0; i < verticesSize; i++) {
+            normalOffsets[i + 1] += normalOffsets[i];
+        }
+
+        int normalsSize = normalOffsets[verticesSize];
+        int normalsBefore = model.getNormalsSize();
+        float[] normals = new float[normalsSize * 3];
+        int[] normalIndices = polygons.ensureNormalIndices();
+        forEachRange(verticesSize, isParallel, (from, to) -> {
+            for (int vertex = from; vertex < to; vertex++) {
+                int start = vertexOffsets[vertex];
+                for (int cluster = 0; cluster < normalOffsets[vertex + 1] - normalOffsets[vertex]; cluster++) {
+                    System.arraycopy(clusterNormals, (start + cluster) * 3,
+                            normals, (normalOffsets[vertex] + cluster) * 3, 3);
+                }
+                for (int i = start; i < vertexOffsets[vertex + 1]; i++) {
+                    normalIndices[incidentCorners[i]] = normalsBefore + normalOffsets[vertex] + localIndices[i];
+                }
+            }
+        });
+
+        model.addNormals(FloatBuffer.wrap(normals));
+        for (int polygon = 0; polygon < polygonsSize; polygon++) {
+            if (isTarget[polygon]) {
+                polygons.setHasNormals(polygon);
+            }
+        }
+        return normalsSize;
+    }
+
+    // Нормаль по формуле Ньюэлла без нормализации: ее длина равна удвоенной площади полигона
+    private static void computePolygonNormal(float[] positions, int[] vertexIndices, int start, int end,
+                                             float[] normals, int offset) {
+        float x = 0;
+        float y = 0;
+        float z = 0;
+        for (int i = start; i < end; i++) {
+            int current = vertexIndices[i] * 3;
+            int next = vertexIndices[i + 1 < end ? i + 1 : start] * 3;
+            x += (positions[current + 1] - positions[next + 1]) * (positions[current + 2] + positions[next + 2]);
+            y += (positions[current + 2] - positions[next + 2]) * (positions[current] + positions[next]);
+            z += (positions[current] - positions[next]) * (positions[current + 1] + positions[next + 1]);
+        }
+        normals[offset] = x;
+        normals[offset + 1] = y;
+        normals[offset + 2] = z;
+    }
+
+    private static float cos(float[] normals, int a, float[] otherNormals, int b) {
+        float dot = normals[a] * otherNormals[b] + normals[a + 1] * otherNormals[b + 1]
+                + normals[a + 2] * otherNormals[b + 2];
+        float lengths = (float) Math.sqrt(length2(normals, a) * length2(otherNormals, b));
+        // Вырожденный полигон без площади ничего не добавляет к сумме, поэтому его можно считать соседним
+        return lengths == 0 ? 1 : dot / lengths;
+    }
+
+    private static float length2(float[] normals, int offset) {
+        return normals[offset] * normals[offset] + normals[offset + 1] * normals[offset + 1]
+                + normals[offset + 2] * normals[offset + 2];
+    }
+
+    private static void normalize(float[] normals, int offset) {
+        float length = (float) Math.sqrt(length2(normals, offset));
+        if (length > 0) {
+            normals[offset] /= length;
+            normals[offset + 1] /= length;
+            normals[offset + 2] /= length;
+        }
+    }
+
+    private static void forEachRange(int size, boolean isParallel, RangeAction action) {
+        int rangesCount = (size + RANGE_SIZE - 1) / RANGE_SIZE;
+        IntStream ranges = IntStream.range(0, rangesCount);
+        if (isParallel) {
+            ranges = ranges.parallel();
+        }
+        ranges.forEach(range -> action.run(range * RANGE_SIZE, Math.min(size, (range + 1) * RANGE_SIZE)));
+    }
+
+    private interface RangeAction {
+        void run(int from, int to);
+    }
+}
@@ -0,0 +1,516 @@
+package ru.cgvsu.yurov.mesh;
+
+import ru.cgvsu.yurov.model.BoundingBox;
+import ru.cgvsu.yurov.model.IntArrayList;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.PolygonStore;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+// Иерархия ограничивающих параллелепипедов (BVH) над полигонами модели, чтобы запросы луча и параллелепипеда
+// проверяли не все полигоны, а O(log n) узлов.
+// Узлы хранятся в плоских массивах: nodeBounds - 6 чисел на узел (min x y z, max x y z), у листа
+// nodeCounts > 0 и его полигоны - polygonOrder[nodeStarts..nodeStarts + nodeCounts), у внутреннего узла
+// nodeCounts == 0, а дети - узлы nodeStarts и nodeStarts + 1. Корень - узел 0.
+// Разбиение выбирается по эвристике площади поверхности (SAH) по корзинам центров полигонов. Поддеревья
+// строятся задачами ForkJoinPool: каждое поддерево переставляет только свой участок polygonOrder, а номера узлов
+// выдаются счетчиком парами, поэтому задачи не пересекаются
+public class PolygonBvh {
+    private static final int BINS_COUNT = 16;
+    private static final int MAX_LEAF_SIZE = 4;
+    private static final int FORK_THRESHOLD = 1 << 12;
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+    // Стоимость обхода узла относительно проверки одного полигона
+    private static final float TRAVERSAL_COST = 1;
+
+    private final Model model;
+    private final float[] positions;
+    private final int[] polygonOrder;
+    private final float[] nodeBounds;
+    private final int[] nodeStarts;
+    private final int[] nodeCounts;
+    private final int nodesSize;
+
+    private PolygonBvh(Model model, float[] positions, int[] polygonOrder,
+                       float[] nodeBounds, int[] nodeStarts, int[] nodeCounts, int nodesSize) {
+        this.model = model;
+        this.positions = positions;
+        this.polygonOrder = polygonOrder;
+        this.nodeBounds = nodeBounds;
+        this.nodeStarts = nodeStarts;
+        this.nodeCounts = nodeCounts;
+        this.nodesSize = nodesSize;
+    }
+
+    public static PolygonBvh build(Model model) {
+        return build(model, ForkJoinPool.commonPool());
+    }
+
+    public static PolygonBvh build(Model model, ForkJoinPool pool) {
+        PolygonStore polygons = model.getPolygonStore();
+        int polygonsSize = polygons.size();
+        int[] offsets = polygons.getOffsets();
+        int[] vertexIndices = polygons.getVertexIndices();
+        float[] positions = Triangulator.getPositions(model);
+
+        // Параллелепипед и центр каждого полигона
+        float[] polygonBounds = new float[polygonsSize * 6];
+        float[] centers = new float[polygonsSize * 3];
+        IntStream range = IntStream.range(0, polygonsSize);
+        if (polygonsSize >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(polygon -> {
+            int offset = polygon * 6;
+            resetBounds(polygonBounds, offset);
+            for (int i = offsets[polygon]; i < offsets[polygon + 1]; i++) {
+                int vertex = vertexIndices[i] * 3;
+                includePoint(polygonBounds, offset, positions[vertex], positions[vertex + 1], positions[vertex + 2]);
+            }
+            for (int axis = 0; axis < 3; axis++) {
+                centers[polygon * 3 + axis] = (polygonBounds[offset + axis] + polygonBounds[offset + 3 + axis]) / 2;
+            }
+        });
+
+        int maxNodesSize = Math.max(1, 2 * polygonsSize - 1);
+        Builder builder = new Builder(polygonBounds, centers, new int[polygonsSize],
+                new float[maxNodesSize * 6], new int[maxNodesSize], new int[maxNodesSize]);
+        for (int i = 0; i < polygonsSize; i++) {
+            builder.polygonOrder[i] = i;
+        }
+        builder.nodesSize.set(1);
+        BuildTask root = new BuildTask(builder, 0, 0, polygonsSize);
+        if (polygonsSize >= PARALLEL_THRESHOLD) {
+            pool.invoke(root);
+        } else {
+            root.compute();
+        }
+
+        int nodesSize = builder.nodesSize.get();
+        return new PolygonBvh(model, positions, builder.polygonOrder,
+                Arrays.copyOf(builder.nodeBounds, nodesSize * 6), Arrays.copyOf(builder.nodeStarts, nodesSize),
+                Arrays.copyOf(builder.nodeCounts, nodesSize), nodesSize);
+    }
+
+    public int getNodesSize() {
+        return nodesSize;
+    }
+
+    public BoundingBox getBounds() {
+        return new BoundingBox(nodeBounds[0], nodeBounds[1], nodeBounds[2], nodeBounds[3], nodeBounds[4], nodeBounds[5]);
+    }
+
+    // Номера полигонов, параллелепипед которых пересекается с box, по возрастанию
+    public int[] queryBox(BoundingBox box) {
+        IntArrayList result = new IntArrayList();
+        if (polygonOrder.length == 0) {
+            return new int[0];
+        }
+        int[] stack = new int[64];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        PolygonStore polygons = model.getPolygonStore();
+        float[] polygonBounds = new float[6];
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            if (!overlaps(nodeBounds, node * 6, box)) {
+                continue;
+            }
+            if (nodeCounts[node] == 0) {
+                stack = push(stack, stackSize, nodeStarts[node], nodeStarts[node] + 1);
+                stackSize += 2;
+                continue;
+            }
+            for (int i = nodeStarts[node]; i < nodeStarts[node] + nodeCounts[node]; i++) {
+                if (polygonOverlaps(polygons, polygonOrder[i], box, polygonBounds)) {
+                    result.addInt(polygonOrder[i]);
+                }
+            }
+        }
+        int[] polygonIndices = result.toIntArray();
+        Arrays.sort(polygonIndices);
+        return polygonIndices;
+    }
+
+    // Номер ближайшего полигона, который пересекает луч origin + t * direction (t >= 0), или -1
+    public int intersectRay(float originX, float originY, float originZ,
+                            float directionX, float directionY, float directionZ) {
+        Ray ray = new Ray(originX, originY, originZ, directionX, directionY, directionZ);
+        if (polygonOrder.length == 0) {
+            return -1;
+        }
+        PolygonStore polygons = model.getPolygonStore();
+        int[] offsets = polygons.getOffsets();
+        int[] vertexIndices = polygons.getVertexIndices();
+        float bestDistance = Float.POSITIVE_INFINITY;
+        int bestPolygon = -1;
+
+        int[] stack = new int[64];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            if (ray.intersectBox(nodeBounds, node * 6) > bestDistance) {
+                continue;
+            }
+            if (nodeCounts[node] == 0) {
+                // Сначала обходится ближний ребенок, тогда дальний чаще отсекается по найденному расстоянию
+                int left = nodeStarts[node];
+                int right = left + 1;
+                if (ray.intersectBox(nodeBounds, left * 6) < ray.intersectBox(nodeBounds, right * 6)) {
+                    stack = push(stack, stackSize, right, left);
+                } else {
+                    stack = push(stack, stackSize, left, right);
+                }
+                stackSize += 2;
+                continue;
+            }
+            for (int i = nodeStarts[node]; i < nodeStarts[node] + nodeCounts[node]; i++) {
+                int polygon = polygonOrder[i];
+                float distance = ray.intersectPolygon(positions, vertexIndices, offsets[polygon], offsets[polygon + 1]);
+                if (distance < bestDistance || distance == bestDistance && polygon < bestPolygon) {
+                    bestDistance = distance;
+                    bestPolygon = polygon;
+                }
+            }
+        }
+        return bestPolygon;
+    }
+
+    private static int[] push(int[] stack, int stackSize, int first, int second) {
+        if (stackSize + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[stackSize] = first;
+        stack[stackSize + 1] = second;
+        return stack;
+    }
+
+    private static boolean overlaps(float[] bounds, int offset, BoundingBox box) {
+        return bounds[offset] <= box.getMaxX() && bounds[offset + 3] >= box.getMinX()
+                && bounds[offset + 1] <= box.getMaxY() && bounds[offset + 4] >= box.getMinY()
+                && bounds[offset + 2] <= box.getMaxZ() && bounds[offset + 5] >= box.getMinZ();
+    }
+
+    private boolean polygonOverlaps(PolygonStore polygons, int polygon, BoundingBox box, float[] bounds) {
+        int[] offsets = polygons.getOffsets();
+        int[] vertexIndices = polygons.getVertexIndices();
+        resetBounds(bounds, 0);
+        for (int i = offsets[polygon]; i < offsets[polygon + 1]; i++) {
+            int vertex = vertexIndices[i] * 3;
+            includePoint(bounds, 0, positions[vertex], positions[vertex + 1], positions[vertex + 2]);
+        }
+        return overlaps(bounds, 0, box);
+    }
+
+    private static void resetBounds(float[] bounds, int offset) {
+        Arrays.fill(bounds, offset, offset + 3, Float.POSITIVE_INFINITY);
+        Arrays.fill(bounds, offset + 3, offset + 6, Float.NEGATIVE_INFINITY);
+    }
+
+    private static void includePoint(float[] bounds, int offset, float x, float y, float z) {
+        bounds[offset] = Math.min(bounds[offset], x);
+        bounds[offset + 1] = Math.min(bounds[offset + 1], y);
+        bounds[offset + 2] = Math.min(bounds[offset + 2], z);
+        bounds[offset + 3] = Math.max(bounds[offset + 3], x);
+        bounds[offset + 4] = Math.max(bounds[offset + 4], y);
+        bounds[offset + 5] = Math.max(bounds[offset + 5], z);
+    }
+
+    private static void includeBounds(float[] bounds, int offset, float[] other, int otherOffset) {
+        for (int axis = 0; axis < 3; axis++) {
+            bounds[offset + axis] = Math.min(bounds[offset + axis], other[otherOffset + axis]);
+            bounds[offset + 3 + axis] = Math.max(bounds[offset + 3 + axis], other[otherOffset + 3 + axis]);
+        }
+    }
+
+    private static float halfArea(float[] bounds, int offset) {
+        float x = bounds[offset + 3] - bounds[offset];
+        float y = bounds[offset + 4] - bounds[offset + 1];
+        float z = bounds[offset + 5] - bounds[offset + 2];
+        return x < 0 ? 0 : x * y + y * z + z * x;
+    }
+
+    private static class Builder {
+        private final float[] polygonBounds;
+        private final float[] centers;
+        private final int[] polygonOrder;
+        private final float[] nodeBounds;
+        private final int[] nodeStarts;
+        private final int[] nodeCounts;
+        private final AtomicInteger nodesSize = new AtomicInteger();
+
+        Builder(float[] polygonBounds, float[] centers, int[] polygonOrder,
+                float[] nodeBounds, int[] nodeStarts, int[] nodeCounts) {
+            this.polygonBounds = polygonBounds;
+            this.centers = centers;
+            this.polygonOrder = polygonOrder;
+            this.nodeBounds = nodeBounds;
+            this.nodeStarts = nodeStarts;
+            this.nodeCounts = nodeCounts;
+        }
+    }
+
+    private static class BuildTask extends RecursiveAction {
+        private final Builder builder;
+        private final int node;
+        private final int start;
+        private final int end;
+
+        BuildTask(Builder builder, int node, int start, int end) {
+            this.builder = builder;
+            this.node = node;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            float[] polygonBounds = builder.polygonBounds;
+            float[] centers = builder.centers;
+            int[] order = builder.polygonOrder;
+            int boundsOffset = node * 6;
+            float[] centerBounds = new float[6];
+            resetBounds(builder.nodeBounds, boundsOffset);
+            resetBounds(centerBounds, 0);
+            for (int i = start; i < end; i++) {
+                int polygon = order[i];
+                includeBounds(builder.nodeBounds, boundsOffset, polygonBounds, polygon * 6);
+                includePoint(centerBounds, 0, centers[polygon * 3], centers[polygon * 3 + 1], centers[polygon * 3 + 2]);
+            }
+
+            int count = end - start;
+            int axis = 0;
+            for (int i = 1; i < 3; i++) {
+                if (centerBounds[3 + i] - centerBounds[i] > centerBounds[3 + axis] - centerBounds[axis]) {
+                    axis = i;
+                }
+            }
+            float min = centerBounds[axis];
+            float extent = centerBounds[3 + axis] - min;
+            if (count <= MAX_LEAF_SIZE / 2 || !(extent > 0)) {
+                makeLeaf();
+                return;
+            }
+
+            // Корзины по центрам полигонов вдоль самой длинной оси
+            int[] binCounts = new int[BINS_COUNT];
+            float[] binBounds = new float[BINS_COUNT * 6];
+            for (int bin = 0; bin < BINS_COUNT; bin++) {
+                resetBounds(binBounds, bin * 6);
+            }
+            float scale = BINS_COUNT / extent;
+            for (int i = start; i < end; i++) {
+                int polygon = order[i];
+                int bin = getBin(centers[polygon * 3 + axis], min, scale);
+                binCounts[bin]++;
+                includeBounds(binBounds, bin * 6, polygonBounds, polygon * 6);
+            }
+
+            // Стоимость разбиения после корзины split: площади и числа полигонов слева и справа
+            float[] leftAreas = new float[BINS_COUNT - 1];
+            int[] leftCounts = new int[BINS_COUNT - 1];
+            float[] accumulated = new float[6];
+            resetBounds(accumulated, 0);
+            int accumulatedCount = 0;
+            for (int split = 0; split < BINS_COUNT - 1; split++) {
+                includeBounds(accumulated, 0, binBounds, split * 6);
+                accumulatedCount += binCounts[split];
+                leftAreas[split] = halfArea(accumulated, 0);
+                leftCounts[split] = accumulatedCount;
+            }
+            resetBounds(accumulated, 0);
+            float bestCost = Float.POSITIVE_INFINITY;
+            int bestSplit = -1;
+            for (int split = BINS_COUNT - 2; split >= 0; split--) {
+                includeBounds(accumulated, 0, binBounds, (split + 1) * 6);
+                int leftCount = leftCounts[split];
+                if (leftCount == 0 || leftCount == count) {
+                    continue;
+                }
+                float cost = leftAreas[split] * leftCount + halfArea(accumulated, 0) * (count - leftCount);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestSplit = split;
+                }
+            }
+
+            float leafCost = halfArea(builder.nodeBounds, boundsOffset) * count;
+            float splitCost = TRAVERSAL_COST * halfArea(builder.nodeBounds, boundsOffset) + bestCost;
+            if (bestSplit < 0 || count <= MAX_LEAF_SIZE && leafCost <= splitCost) {
+                makeLeaf();
+                return;
+            }
+
+            int middle = start;
+            for (int i = start; i < end; i++) {
+                int polygon = order[i];
+                if (getBin(centers[polygon * 3 + axis], min, scale) <= bestSplit) {
+                    order[i] = order[middle];
+                    order[middle++] = polygon;
+                }
+            }
+
+            int left = builder.nodesSize.getAndAdd(2);
+            builder.nodeStarts[node] = left;
+            builder.nodeCounts[node] = 0;
+            BuildTask leftTask = new BuildTask(builder, left, start, middle);
+            BuildTask rightTask = new BuildTask(builder, left + 1, middle, end);
+            if (count >= FORK_THRESHOLD && inForkJoinPool()) {
+                invokeAll(leftTask, rightTask);
+            } else {
+                leftTask.compute();
+                rightTask.compute();
+            }
+        }
+
+        private void makeLeaf() {
+            builder.nodeStarts[node] = start;
+            builder.nodeCounts[node] = end - start;
+        }
+
+        private static int getBin(float center, float min, float scale) {
+            return Math.min(BINS_COUNT - 1, (int) ((center - min) * scale));
+        }
+    }
+
+    // Луч с заранее посчитанными обратными компонентами направления для проверки параллелепипедов
+    private static class Ray {
+        private static final float EPSILON = 1e-12f;
+
+        private final float originX;
+        private final float originY;
+        private final float originZ;
+        private final float directionX;
+        private final float directionY;
+        private final float directionZ;
+        private final float inverseX;
+        private final float inverseY;
+        private final float inverseZ;
+
+        Ray(float originX, float originY, float originZ, float directionX, float directionY, float directionZ) {
+            this.originX = originX;
+            this.originY = originY;
+            this.originZ = originZ;
+            this.directionX = directionX;
+            this.directionY = directionY;
+            this.directionZ = directionZ;
+            this.inverseX = 1 / directionX;
+            this.inverseY = 1 / directionY;
+            this.inverseZ = 1 / directionZ;
+        }
+
+        // Расстояние (параметр t) до входа в параллелепипед или +бесконечность, если луч его не пересекает
+        float intersectBox(float[] bounds, int offset) {
+            float near = 0;
+            float far = Float.POSITIVE_INFINITY;
+            // NaN получается, когда луч параллелен грани и лежит в ее плоскости. Сравнения с NaN ложны,
+            // поэтому такая ось ничего не ограничивает
+            float nearX = (bounds[offset + 0] - originX) * inverseX;
+            float farX = (bounds[offset + 3] - originX) * inverseX;
+            if (nearX > farX) {
+                float t = nearX;
+                nearX = farX;
+                farX = t;
+            }
+            if (nearX > near) {
+                near = nearX;
+            }
+            if (farX < far) {
+                far = farX;
+            }
+            float nearY = (bounds[offset + 1] - originY) * inverseY;
+            float farY = (bounds[offset + 4] - originY) * inverseY;
+            if (nearY > farY) {
+                float t = nearY;
+                nearY = farY;
+                farY = t;
+            }
+            if (nearY > near) {
+                near = nearY;
+            }
+            if (farY < far) {
+                far = farY;
+            }
+            float nearZ = (bounds[offset + 2] - originZ) * inverseZ;
+            float farZ = (bounds[offset + 5] - originZ) * inverseZ;
+            if (nearZ > farZ) {
+                float t = nearZ;
+                nearZ = farZ;
+                farZ = t;
+            }
+            if (nearZ > near) {
+                near = nearZ;
+            }
+            if (farZ < far) {
+                far = farZ;
+            }
+            return near <= far ? near : Float.POSITIVE_INFINITY;
+        }
+
+        // Пересечение с плоскостью полигона (нормаль Ньюэлла) и проверка, что точка внутри полигона, по числу
+        // пересечений проекции на координатную плоскость. Работает и для невыпуклых полигонов
+        float intersectPolygon(float[] positions, int[] vertexIndices, int start, int end) {
+            float normalX = 0;
+            float normalY = 0;
+            float normalZ = 0;
+            for (int i = start; i < end; i++) {
+                int current = vertexIndices[i] * 3;
+                int next = vertexIndices[i + 1 < end ? i + 1 : start] * 3;
+                normalX += (positions[current + 1] - positions[next + 1]) * (positions[current + 2] + positions[next + 2]);
+                normalY += (positions[current + 2] - positions[next + 2]) * (positions[current] + positions[next]);
+                normalZ += (positions[current] - positions[next]) * (positions[current + 1] + positions[next + 1]);
+            }
+            float denominator = normalX * directionX + normalY * directionY + normalZ * directionZ;
+            if (Math.abs(denominator) < EPSILON) {
+                return Float.POSITIVE_INFINITY;
+            }
+            int first = vertexIndices[start] * 3;
+            float t = (normalX * (positions[first] - originX) + normalY * (positions[first + 1] - originY)
+                    + normalZ * (positions[first + 2] - originZ)) / denominator;
+            if (!(t >= 0)) {
+                return Float.POSITIVE_INFINITY;
+            }
+
+            // Проекция вдоль оси, по которой нормаль длиннее всего
+            int uAxis;
+            int vAxis;
+            if (Math.abs(normalX) >= Math.abs(normalY) && Math.abs(normalX) >= Math.abs(normalZ)) {
+                uAxis = 1;
+                vAxis = 2;
+            } else if (Math.abs(normalY) >= Math.abs(normalZ)) {
+                uAxis = 2;
+                vAxis = 0;
+            } else {
+                uAxis = 0;
+                vAxis = 1;
+            }
+            float u = getPointComponent(uAxis, t);
+            float v = getPointComponent(vAxis, t);
+            boolean isInside = false;
+            for (int i = start; i < end; i++) {
+                int current = vertexIndices[i] * 3;
+                int next = vertexIndices[i + 1 < end ? i + 1 : start] * 3;
+                float u1 = positions[current + uAxis];
+                float v1 = positions[current + vAxis];
+                float u2 = positions[next + uAxis];
+                float v2 = positions[next + vAxis];
+                if ((v1 > v) != (v2 > v) && u < u1 + (v - v1) * (u2 - u1) / (v2 - v1)) {
+                    isInside = !isInside;
+                }
+            }
+            return isInside ? t : Float.POSITIVE_INFINITY;
+        }
+
+        private float getPointComponent(int axis, float t) {
+            if (axis == 0) {
+                return originX + t * directionX;
+            }
+            return axis == 1 ? originY + t * directionY : originZ + t * directionZ;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package ru.cgvsu.yurov.mesh;
+
+import java.util.Arrays;
+
+// Разбиение одного многоугольника на треугольники. Выпуклый многоугольник разбивается веером из первой вершины,
+// невыпуклый - отсечением ушей в проекции на плоскость многоугольника.
+// Вспомогательные массивы переиспользуются, поэтому объект нельзя использовать из нескольких потоков одновременно
+final class PolygonTriangulator {
+    private static final float EPSILON = 1e-12F;
+
+    private float[] xs = new float[16];
+    private float[] ys = new float[16];
+    private int[] previous = new int[16];
+    private int[] next = new int[16];
+
+    // Записывает в out начиная с outOffset номера вершин многоугольника (от 0 до count - 1), по три на треугольник,
+    // всего count - 2 треугольника. Вершины многоугольника - vertexIndices[start, start + count),
+    // их координаты - positions (x y z подряд). Обход треугольников совпадает с обходом многоугольника
+    void triangulate(float[] positions, int verticesSize, int[] vertexIndices, int start, int count,
+                     int[] out, int outOffset) {
+        if (count > 3 && !isConvex(positions, verticesSize, vertexIndices, start, count)) {
+            if (clipEars(count, out, outOffset)) {
+                return;
+            }
+        }
+        fan(count, out, outOffset);
+    }
+
+    private static void fan(int count, int[] out, int outOffset) {
+        for (int i = 1; i < count - 1; i++) {
+            out[outOffset++] = 0;
+            out[outOffset++] = i;
+            out[outOffset++] = i + 1;
+        }
+    }
+
+    // Проверяет выпуклость и заодно проецирует многоугольник на плоскость (в xs, ys) для отсечения ушей.
+    // Многоугольник с неизвестными вершинами или нулевой площадью считается выпуклым: разбить его лучше веера нельзя
+    private boolean isConvex(float[] positions, int verticesSize, int[] vertexIndices, int start, int count) {
+        // Нормаль по формуле Ньюэлла, длина пропорциональна площади
+        float nx = 0;
+        float ny = 0;
+        float nz = 0;
+        for (int i = 0; i < count; i++) {
+            int current = vertexIndices[start + i];
+            int following = vertexIndices[start + (i + 1) % count];
+            if (current < 0 || current >= verticesSize || following < 0 || following >= verticesSize) {
+                return true;
+            }
+            float x0 = positions[current * 3];
+            float y0 = positions[current * 3 + 1];
+            float z0 = positions[current * 3 + 2];
+            float x1 = positions[following * 3];
+            float y1 = positions[following * 3 + 1];
+            float z1 = positions[following * 3 + 2];
+            nx += (y0 - y1) * (z0 + z1);
+            ny += (z0 - z1) * (x0 + x1);
+            nz += (x0 - x1) * (y0 + y1);
+        }
+
+        // Отбрасываем координату, по которой нормаль больше всего, и сохраняем обход против часовой стрелки
+        float ax = Math.abs(nx);
+        float ay = Math.abs(ny);
+        float az = Math.abs(nz);
+        if (ax + ay + az <= EPSILON) {
+            return true;
+        }
+        int uAxis;
+        int vAxis;
+        boolean flip;
+        if (az >= ax && az >= ay) {
+            uAxis = 0;
+            vAxis = 1;
+            flip = nz < 0;
+        } else if (ax >= ay) {
+            uAxis = 1;
+            vAxis = 2;
+            flip = nx < 0;
+        } else {
+            uAxis = 2;
+            vAxis = 0;
+            flip = ny < 0;
+        }
+
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            int vertex = vertexIndices[start + i];
+            xs[i] = positions[vertex * 3 + uAxis];
+            ys[i] = flip ? -positions[vertex * 3 + vAxis] : positions[vertex * 3 + vAxis];
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (cross(i == 0 ? count - 1 : i - 1, i, i == count - 1 ? 0 : i + 1) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean clipEars(int count, int[] out, int outOffset) {
+        for (int i = 0; i < count; i++) {
+            previous[i] = i == 0 ? count - 1 : i - 1;
+            next[i] = i == count - 1 ? 0 : i + 1;
+        }
+
+        int remaining = count;
+        int current = 0;
+        int attempts = 0;
+        while (remaining > 3) {
+            int a = previous[current];
+            int c = next[current];
+            if (isEar(a, current, c)) {
+                out[outOffset++] = a;
+                out[outOffset++] = current;
+                out[outOffset++] = c;
+                next[a] = c;
+                previous[c] = a;
+                remaining--;
+                attempts = 0;
+                current = c;
+            } else if (++attempts > remaining) {
+                // Ушей нет - многоугольник самопересекающийся; остаток разбивается веером
+                int first = current;
+                for (int j = next[first]; next[j] != first; j = next[j]) {
+                    out[outOffset++] = first;
+                    out[outOffset++] = j;
+                    out[outOffset++] = next[j];
+                }
+                return true;
+            } else {
+                current = c;
+            }
+        }
+        out[outOffset++] = previous[current];
+        out[outOffset++] = current;
+        out[outOffset] = next[current];
+        return true;
+    }
+
+    private boolean isEar(int a, int b, int c) {
+        if (cross(a, b, c) <= 0) {
+            return false;
+        }
+        for (int p = next[c]; p != a; p = next[p]) {
+            if (isInTriangle(p, a, b, c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isInTriangle(int p, int a, int b, int c) {
+        // Вершина, совпадающая с вершиной треугольника, ухо не портит
+        if (xs[p] == xs[a] && ys[p] == ys[a] || xs[p] == xs[b] && ys[p] == ys[b] || xs[p] == xs[c] && ys[p] == ys[c]) {
+            return false;
+        }
+        return cross(a, b, p) >= 0 && cross(b, c, p) >= 0 && cross(c, a, p) >= 0;
+    }
+
+    private float cross(int a, int b, int c) {
+        return (xs[b] - xs[a]) * (ys[c] - ys[a]) - (ys[b] - ys[a]) * (xs[c] - xs[a]);
+    }
+
+    private void ensureCapacity(int count) {
+        if (count > xs.length) {
+            int capacity = Math.max(count, xs.length * 2);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.cgvsu.yurov.mesh;
+
+import ru.cgvsu.yurov.objreader.ObjLocator;
+import ru.cgvsu.yurov.objreader.ObjVisitor;
+
+import java.util.Arrays;
+
+// Обработчик событий парсера, который разбивает полигоны на треугольники прямо во время чтения и передает
+// дальше только треугольники. Остальные события передаются без изменений. Разбиение такое же, как у Triangulator,
+// но полигон, вершины которого в файле идут после него, разбивается веером: его координаты еще неизвестны
+public class TriangulatingVisitor implements ObjVisitor {
+    private final ObjVisitor delegate;
+    private final PolygonTriangulator triangulator = new PolygonTriangulator();
+
+    private float[] positions = new float[3 * 64];
+    private int verticesSize = 0;
+
+    private int[] triangleCorners = new int[3 * 16];
+    private final int[] vertexIndices = new int[3];
+    private final int[] textureVertexIndices = new int[3];
+    private final int[] normalIndices = new int[3];
+
+    public TriangulatingVisitor(ObjVisitor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void setLocator(ObjLocator locator) {
+        delegate.setLocator(locator);
+    }
+
+    @Override
+    public void vertex(float x, float y, float z) {
+        if (verticesSize * 3 == positions.length) {
+            positions = Arrays.copyOf(positions, positions.length * 2);
+        }
+        positions[verticesSize * 3] = x;
+        positions[verticesSize * 3 + 1] = y;
+        positions[verticesSize * 3 + 2] = z;
+        verticesSize++;
+        delegate.vertex(x, y, z);
+    }
+
+    @Override
+    public void texture(float u, float v) {
+        delegate.texture(u, v);
+    }
+
+    @Override
+    public void normal(float x, float y, float z) {
+        delegate.normal(x, y, z);
+    }
+
+    @Override
+    public void face(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int count) {
+        if (count <= 3) {
+            delegate.face(vertexIndices, textureVertexIndices, normalIndices, count);
+            return;
+        }
+
+        int trianglesSize = count - 2;
+        if (triangleCorners.length < trianglesSize * 3) {
+            triangleCorners = new int[trianglesSize * 3];
+        }
+        triangulator.triangulate(positions, verticesSize, vertexIndices, 0, count, triangleCorners, 0);
+        for (int triangle = 0; triangle < trianglesSize; triangle++) {
+            for (int i = 0; i < 3; i++) {
+                int corner = triangleCorners[triangle * 3 + i];
+                this.vertexIndices[i] = vertexIndices[corner];
+                if (textureVertexIndices != null) {
+                    this.textureVertexIndices[i] = textureVertexIndices[corner];
+                }
+                if (normalIndices != null) {
+                    this.normalIndices[i] = normalIndices[corner];
+                }
+            }
+            delegate.face(this.vertexIndices,
+                    textureVertexIndices == null ? null : this.textureVertexIndices,
+                    normalIndices == null ? null : this.normalIndices, 3);
+        }
+    }
+
+    @Override
+    public void group(String name) {
+        delegate.group(name);
+    }
+
+    @Override
+    public void object(String name) {
+        delegate.object(name);
+    }
+
+    @Override
+    public void useMaterial(String name) {
+        delegate.useMaterial(name);
+    }
+
+    @Override
+    public void materialLibrary(String fileName) {
+        delegate.materialLibrary(fileName);
+    }
+
+    @Override
+    public void smoothingGroup(int group) {
+        delegate.smoothingGroup(group);
+    }
+
+    @Override
+    public void end() {
+        delegate.end();
+    }
+}
@@ -0,0 +1,34 @@
+package ru.cgvsu.yurov.mesh;
+
+// Результат разбиения полигонов модели на треугольники. Для каждого треугольника t:
+// indices[3t..3t+2] - индексы вершин модели (обход как у исходного полигона),
+// corners[3t..3t+2] - номера этих углов в массивах индексов PolygonStore, по ним можно найти индексы
+//     текстурных вершин и нормалей,
+// polygons[t] - номер исходного полигона
+public class Triangulation {
+    private final int[] indices;
+    private final int[] corners;
+    private final int[] polygons;
+
+    Triangulation(int[] indices, int[] corners, int[] polygons) {
+        this.indices = indices;
+        this.corners = corners;
+        this.polygons = polygons;
+    }
+
+    public int getTrianglesSize() {
+        return polygons.length;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int[] getCorners() {
+        return corners;
+    }
+
+    public int[] getPolygons() {
+        return polygons;
+    }
+}
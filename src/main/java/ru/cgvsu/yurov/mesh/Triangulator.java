@@ -0,0 +1,73 @@
+package ru.cgvsu.yurov.mesh;
+
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.PolygonStore;
+
+import java.nio.FloatBuffer;
+import java.util.stream.IntStream;
+
+// Разбиение всех полигонов модели на треугольники. Полигон из n вершин дает n - 2 треугольника, поэтому место
+// каждого полигона в результате известно заранее, и большие модели разбиваются диапазонами полигонов параллельно
+public final class Triangulator {
+    private static final int RANGE_SIZE = 1 << 13;
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private Triangulator() {}
+
+    public static Triangulation triangulate(Model model) {
+        PolygonStore polygons = model.getPolygonStore();
+        int polygonsSize = polygons.size();
+        int[] offsets = polygons.getOffsets();
+        int[] vertexIndices = polygons.getVertexIndices();
+
+        int[] triangleOffsets = new int[polygonsSize + 1];
+        for (int i = 0; i < polygonsSize; i++) {
+            triangleOffsets[i + 1] = triangleOffsets[i] + Math.max(0, offsets[i + 1] - offsets[i] - 2);
+        }
+        int trianglesSize = triangleOffsets[polygonsSize];
+        int[] indices = new int[trianglesSize * 3];
+        int[] corners = new int[trianglesSize * 3];
+        int[] trianglePolygons = new int[trianglesSize];
+
+        float[] positions = getPositions(model);
+        int verticesSize = model.getVerticesSize();
+        int rangesCount = (polygonsSize + RANGE_SIZE - 1) / RANGE_SIZE;
+        IntStream ranges = IntStream.range(0, rangesCount);
+        if (polygonsSize >= PARALLEL_THRESHOLD) {
+            ranges = ranges.parallel();
+        }
+        ranges.forEach(range -> {
+            PolygonTriangulator triangulator = new PolygonTriangulator();
+            int end = Math.min(polygonsSize, (range + 1) * RANGE_SIZE);
+            for (int polygon = range * RANGE_SIZE; polygon < end; polygon++) {
+                int start = offsets[polygon];
+                int count = offsets[polygon + 1] - start;
+                if (count < 3) {
+                    continue;
+                }
+                int firstTriangle = triangleOffsets[polygon];
+                int lastTriangle = triangleOffsets[polygon + 1];
+                triangulator.triangulate(positions, verticesSize, vertexIndices, start, count,
+                        corners, firstTriangle * 3);
+                for (int i = firstTriangle * 3; i < lastTriangle * 3; i++) {
+                    corners[i] += start;
+                    indices[i] = vertexIndices[corners[i]];
+                }
+                for (int i = firstTriangle; i < lastTriangle; i++) {
+                    trianglePolygons[i] = polygon;
+                }
+            }
+        });
+        return new Triangulation(indices, corners, trianglePolygons);
+    }
+
+    static float[] getPositions(Model model) {
+        FloatBuffer buffer = model.getVertexBuffer();
+        if (buffer.hasArray() && buffer.arrayOffset() == 0) {
+            return buffer.array();
+        }
+        float[] positions = new float[buffer.remaining()];
+        buffer.get(positions);
+        return positions;
+    }
+}
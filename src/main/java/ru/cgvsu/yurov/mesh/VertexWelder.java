@@ -0,0 +1,161 @@
+package ru.cgvsu.yurov.mesh;
+
+import ru.cgvsu.yurov.model.IntArrayList;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.PolygonStore;
+
+import java.nio.FloatBuffer;
+import java.util.stream.IntStream;
+
+// Сборка WeldedMesh из модели: полигоны разбиваются на треугольники, а одинаковые тройки (v, vt, vn) углов
+// становятся одной вершиной. Тройки ищутся в IntTripleMap.
+// При параллельной сборке треугольники делятся на части, в каждой части тройки собираются в свою таблицу,
+// затем уникальные тройки частей по порядку сливаются в общую таблицу. Вершины нумеруются в порядке первого
+// появления тройки, поэтому результат не зависит от того, была ли сборка параллельной
+public final class VertexWelder {
+    private static final int SHARD_SIZE = 1 << 16;
+    private static final int PARALLEL_THRESHOLD = 1 << 17;
+
+    private VertexWelder() {}
+
+    public static WeldedMesh weld(Model model) {
+        return weld(model, Triangulator.triangulate(model), true);
+    }
+
+    public static WeldedMesh weld(Model model, boolean isParallel) {
+        return weld(model, Triangulator.triangulate(model), isParallel);
+    }
+
+    public static WeldedMesh weld(Model model, Triangulation triangulation, boolean isParallel) {
+        PolygonStore polygons = model.getPolygonStore();
+        int[] vertexIndices = polygons.getVertexIndices();
+        int[] textureVertexIndices = polygons.getTextureVertexIndices();
+        int[] normalIndices = polygons.getNormalIndices();
+        boolean hasTexture = textureVertexIndices != null;
+        boolean hasNormals = normalIndices != null;
+
+        int[] corners = triangulation.getCorners();
+        int[] polygonOfTriangle = triangulation.getPolygons();
+        int shardsCount = Math.max(1, (corners.length + SHARD_SIZE - 1) / SHARD_SIZE);
+        Shard[] shards = new Shard[shardsCount];
+        int[] indices = new int[corners.length];
+
+        IntStream shardRange = IntStream.range(0, shardsCount);
+        if (isParallel && corners.length >= PARALLEL_THRESHOLD) {
+            shardRange = shardRange.parallel();
+        }
+        shardRange.forEach(shard -> {
+            int from = shard * SHARD_SIZE;
+            int to = Math.min(corners.length, from + SHARD_SIZE);
+            IntTripleMap map = new IntTripleMap(Math.min(to - from, 1 << 12));
+            IntArrayList uniqueCorners = new IntArrayList();
+            IntArrayList uniquePolygons = new IntArrayList();
+            for (int i = from; i < to; i++) {
+                int corner = corners[i];
+                int polygon = polygonOfTriangle[i / 3];
+                int index = map.putIfAbsent(vertexIndices[corner],
+                        getIndex(textureVertexIndices, corner, polygons.hasTexture(polygon)),
+                        getIndex(normalIndices, corner, polygons.hasNormals(polygon)),
+                        uniqueCorners.size());
+                if (index == uniqueCorners.size()) {
+                    uniqueCorners.addInt(corner);
+                    uniquePolygons.addInt(polygon);
+                }
+                indices[i] = index;
+            }
+            shards[shard] = new Shard(from, to, uniqueCorners.toIntArray(), uniquePolygons.toIntArray());
+        });
+
+        // Слияние частей: номера вершин части переводятся в общие. Полигон угла запомнен в части,
+        // поэтому искать его по смещениям не нужно
+        IntTripleMap map = new IntTripleMap(shards[0].uniqueCorners.length);
+        IntArrayList uniqueCorners = new IntArrayList();
+        IntArrayList uniquePolygons = new IntArrayList();
+        for (Shard shard : shards) {
+            shard.globalIndices = new int[shard.uniqueCorners.length];
+            for (int i = 0; i < shard.uniqueCorners.length; i++) {
+                int corner = shard.uniqueCorners[i];
+                int polygon = shard.uniquePolygons[i];
+                int index = map.putIfAbsent(vertexIndices[corner],
+                        getIndex(textureVertexIndices, corner, polygons.hasTexture(polygon)),
+                        getIndex(normalIndices, corner, polygons.hasNormals(polygon)),
+                        uniqueCorners.size());
+                if (index == uniqueCorners.size()) {
+                    uniqueCorners.addInt(corner);
+                    uniquePolygons.addInt(polygon);
+                }
+                shard.globalIndices[i] = index;
+            }
+        }
+        IntStream remapRange = IntStream.range(0, shardsCount);
+        if (isParallel && corners.length >= PARALLEL_THRESHOLD) {
+            remapRange = remapRange.parallel();
+        }
+        remapRange.forEach(i -> {
+            Shard shard = shards[i];
+            for (int j = shard.from; j < shard.to; j++) {
+                indices[j] = shard.globalIndices[indices[j]];
+            }
+        });
+
+        float[] vertices = interleave(model, polygons, uniqueCorners, uniquePolygons, hasTexture, hasNormals);
+        return new WeldedMesh(vertices, indices, hasTexture, hasNormals);
+    }
+
+    private static float[] interleave(Model model, PolygonStore polygons, IntArrayList uniqueCorners,
+                                      IntArrayList uniquePolygons, boolean hasTexture, boolean hasNormals) {
+        int stride = WeldedMesh.getStride(hasTexture, hasNormals);
+        FloatBuffer positions = model.getVertexBuffer();
+        FloatBuffer textureVertices = model.getTextureVertexBuffer();
+        FloatBuffer normals = model.getNormalBuffer();
+        int[] vertexIndices = polygons.getVertexIndices();
+        int[] textureVertexIndices = polygons.getTextureVertexIndices();
+        int[] normalIndices = polygons.getNormalIndices();
+
+        float[] vertices = new float[uniqueCorners.size() * stride];
+        for (int i = 0; i < uniqueCorners.size(); i++) {
+            int corner = uniqueCorners.getInt(i);
+            int polygon = uniquePolygons.getInt(i);
+            int offset = i * stride;
+            int vertex = vertexIndices[corner] * 3;
+            vertices[offset++] = positions.get(vertex);
+            vertices[offset++] = positions.get(vertex + 1);
+            vertices[offset++] = positions.get(vertex + 2);
+            if (hasTexture) {
+                if (polygons.hasTexture(polygon)) {
+                    int textureVertex = textureVertexIndices[corner] * 2;
+                    vertices[offset] = textureVertices.get(textureVertex);
+                    vertices[offset + 1] = textureVertices.get(textureVertex + 1);
+                }
+                offset += 2;
+            }
+            if (hasNormals && polygons.hasNormals(polygon)) {
+                int normal = normalIndices[corner] * 3;
+                vertices[offset] = normals.get(normal);
+                vertices[offset + 1] = normals.get(normal + 1);
+                vertices[offset + 2] = normals.get(normal + 2);
+            }
+        }
+        return vertices;
+    }
+
+    private static int getIndex(int[] indices, int corner, boolean isPresent) {
+        return isPresent ? indices[corner] : -1;
+    }
+
+    private static class Shard {
+        private final int from;
+        private final int to;
+        private final int[] uniqueCorners;
+        // Номер полигона каждого угла из uniqueCorners
+        private final int[] uniquePolygons;
+        private int[] globalIndices;
+
+        Shard(int from, int to, int[] uniqueCorners, int[] uniquePolygons) {
+            this.from = from;
+            this.to = to;
+            this.uniqueCorners = uniqueCorners;
+            this.uniquePolygons = uniquePolygons;
+        }
+    }
+}
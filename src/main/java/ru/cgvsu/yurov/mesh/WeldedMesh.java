@@ -0,0 +1,57 @@
+package ru.cgvsu.yurov.mesh;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Вершины, готовые для видеокарты: у каждой вершины один индекс, а ее атрибуты записаны подряд
+// (x y z, затем u v, если в модели есть текстуры, затем nx ny nz, если есть нормали).
+// indices - треугольники, по три индекса вершин на треугольник
+public class WeldedMesh {
+    private final float[] vertices;
+    private final int[] indices;
+    private final boolean hasTexture;
+    private final boolean hasNormals;
+
+    WeldedMesh(float[] vertices, int[] indices, boolean hasTexture, boolean hasNormals) {
+        this.vertices = vertices;
+        this.indices = indices;
+        this.hasTexture = hasTexture;
+        this.hasNormals = hasNormals;
+    }
+
+    static int getStride(boolean hasTexture, boolean hasNormals) {
+        return 3 + (hasTexture ? 2 : 0) + (hasNormals ? 3 : 0);
+    }
+
+    // Число float на вершину
+    public int getStride() {
+        return getStride(hasTexture, hasNormals);
+    }
+
+    public int getVerticesSize() {
+        return vertices.length / getStride();
+    }
+
+    public boolean hasTexture() {
+        return hasTexture;
+    }
+
+    public boolean hasNormals() {
+        return hasNormals;
+    }
+
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    // Копия вершин в прямом буфере с порядком байт платформы, который можно сразу передать в графическое API
+    public ByteBuffer toByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(vertices.length * Float.BYTES).order(ByteOrder.nativeOrder());
+        buffer.asFloatBuffer().put(vertices);
+        return buffer;
+    }
+}
@@ -0,0 +1,249 @@
+package ru.cgvsu.yurov.model;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Чтение модели, записанной BinaryModelWriter. Файл отображается в память окнами по WINDOW_SIZE байт,
+// и блоки чисел копируются в массивы модели целиком, без разбора текста
+public final class BinaryModelReader {
+    private static final int WINDOW_SIZE = 1 << 28;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+
+    private BinaryModelReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        map(0);
+    }
+
+    public static Model read(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new BinaryModelReader(channel).readModel(path);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    // Ключ исходного файла из заголовка или null, если файла нет или это не бинарный файл модели текущей версии
+    public static SourceFileKey readSourceKey(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < BinaryModelWriter.HEADER_SIZE) {
+                return null;
+            }
+            BinaryModelReader reader = new BinaryModelReader(channel);
+            if (reader.getInt() != BinaryModelWriter.MAGIC || reader.getInt() != BinaryModelWriter.VERSION) {
+                return null;
+            }
+            return reader.readSourceKey();
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    private SourceFileKey readSourceKey() {
+        return new SourceFileKey(getLong(), getLong(), getLong(), getInt());
+    }
+
+    private Model readModel(Path path) throws IOException {
+        if (fileSize < BinaryModelWriter.HEADER_SIZE || getInt() != BinaryModelWriter.MAGIC) {
+            throw new RuntimeException("Not a binary model file: " + path);
+        }
+        int version = getInt();
+        if (version != BinaryModelWriter.VERSION) {
+            throw new RuntimeException("Unsupported binary model file version " + version + ": " + path);
+        }
+        readSourceKey();
+
+        int verticesSize = getInt();
+        int textureVerticesSize = getInt();
+        int normalsSize = getInt();
+        int polygonsSize = getInt();
+        int indicesSize = getInt();
+        int componentFlags = getInt();
+        int groupsSize = getInt();
+        window.position(BinaryModelWriter.HEADER_SIZE);
+
+        Model model = new Model();
+        long vertexValues = (long) verticesSize * 3;
+        long textureValues = (long) textureVerticesSize * 2;
+        long normalValues = (long) normalsSize * 3;
+        long expectedSize = BinaryModelWriter.HEADER_SIZE
+                + (vertexValues + textureValues + normalValues) * Float.BYTES
+                + (2L * polygonsSize + 1) * Integer.BYTES + polygonsSize
+                + (long) indicesSize * Integer.BYTES * (1 + Integer.bitCount(componentFlags));
+        if (verticesSize < 0 || textureVerticesSize < 0 || normalsSize < 0 || polygonsSize < 0 || indicesSize < 0
+                || groupsSize < 0 || fileSize < expectedSize) {
+            throw new RuntimeException("Binary model file is corrupted: " + path);
+        }
+
+        readFloats(3, verticesSize, model::addVertices);
+        readFloats(2, textureVerticesSize, model::addTextureVertices);
+        readFloats(3, normalsSize, model::addNormals);
+
+        int[] offsets = readInts(polygonsSize + 1);
+        int[] lineIndices = readInts(polygonsSize);
+        int[] vertexIndices = readInts(indicesSize);
+        int[] textureVertexIndices = (componentFlags & BinaryModelWriter.HAS_TEXTURE_INDICES) != 0
+                ? readInts(indicesSize) : null;
+        int[] normalIndices = (componentFlags & BinaryModelWriter.HAS_NORMAL_INDICES) != 0
+                ? readInts(indicesSize) : null;
+        byte[] flags = readBytes(polygonsSize);
+        if (offsets[0] != 0 || offsets[polygonsSize] != indicesSize) {
+            throw new RuntimeException("Binary model file is corrupted: " + path);
+        }
+        model.getPolygonStore().load(polygonsSize, offsets, flags, lineIndices,
+                vertexIndices, textureVertexIndices, normalIndices);
+
+        for (int i = 0; i < groupsSize; i++) {
+            model.addGroup(readGroup(polygonsSize, path));
+        }
+        int objectsSize = getInt();
+        for (int i = 0; i < objectsSize; i++) {
+            model.addObject(readGroup(polygonsSize, path));
+        }
+
+        int submeshesSize = getInt();
+        int previousEnd = 0;
+        for (int i = 0; i < submeshesSize; i++) {
+            String material = readString();
+            int start = getInt();
+            int end = getInt();
+            if (start < previousEnd || end < start || end > polygonsSize) {
+                throw new RuntimeException("Binary model file is corrupted: " + path);
+            }
+            model.addSubmesh(material, start, end);
+            previousEnd = end;
+        }
+
+        int smoothingRunsSize = getInt();
+        int previousStart = 0;
+        for (int i = 0; i < smoothingRunsSize; i++) {
+            int start = getInt();
+            int group = getInt();
+            if (start < previousStart || start > polygonsSize) {
+                throw new RuntimeException("Binary model file is corrupted: " + path);
+            }
+            model.setSmoothingGroup(start, group);
+            previousStart = start;
+        }
+
+        int materialLibrariesSize = getInt();
+        for (int i = 0; i < materialLibrariesSize; i++) {
+            model.addMaterialLibrary(readString());
+        }
+        model.updateBounds();
+        return model;
+    }
+
+    private Group readGroup(int polygonsSize, Path path) throws IOException {
+        Group group = new Group(readString());
+        int rangesSize = getInt();
+        for (int j = 0; j < rangesSize; j++) {
+            int start = getInt();
+            int end = getInt();
+            if (start < 0 || end < start || end > polygonsSize) {
+                throw new RuntimeException("Binary model file is corrupted: " + path);
+            }
+            group.addRange(start, end);
+        }
+        return group;
+    }
+
+    private String readString() throws IOException {
+        return new String(readBytes(getInt()), StandardCharsets.UTF_8);
+    }
+
+    private interface FloatBlockConsumer {
+        void accept(FloatBuffer values);
+    }
+
+    // Передает вектора частями прямо из отображенного окна, каждая часть содержит целое число векторов
+    private void readFloats(int dimension, int count, FloatBlockConsumer consumer) throws IOException {
+        long remaining = (long) count * dimension;
+        while (remaining > 0) {
+            ensureRemaining(dimension * Float.BYTES);
+            int part = (int) Math.min(remaining, window.remaining() / Float.BYTES / dimension * dimension);
+            FloatBuffer values = window.asFloatBuffer().limit(part);
+            consumer.accept(values);
+            window.position(window.position() + part * Float.BYTES);
+            remaining -= part;
+        }
+    }
+
+    private int[] readInts(int count) throws IOException {
+        int[] values = new int[count];
+        int read = 0;
+        while (read < count) {
+            ensureRemaining(Integer.BYTES);
+            int part = Math.min(count - read, window.remaining() / Integer.BYTES);
+            window.asIntBuffer().get(values, read, part);
+            window.position(window.position() + part * Integer.BYTES);
+            read += part;
+        }
+        return values;
+    }
+
+    private byte[] readBytes(int count) throws IOException {
+        if (count < 0) {
+            throw new RuntimeException("Binary model file is corrupted.");
+        }
+        byte[] values = new byte[count];
+        int read = 0;
+        while (read < count) {
+            ensureRemaining(1);
+            int part = Math.min(count - read, window.remaining());
+            window.get(values, read, part);
+            read += part;
+        }
+        return values;
+    }
+
+    private int getInt() {
+        ensureRemainingUnchecked(Integer.BYTES);
+        return window.getInt();
+    }
+
+    private long getLong() {
+        ensureRemainingUnchecked(Long.BYTES);
+        return window.getLong();
+    }
+
+    private void ensureRemainingUnchecked(int bytes) {
+        try {
+            ensureRemaining(bytes);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    // Если в окне осталось меньше bytes байт, окно сдвигается на текущую позицию
+    private void ensureRemaining(int bytes) throws IOException {
+        if (window.remaining() >= bytes) {
+            return;
+        }
+        map(windowStart + window.position());
+        if (window.remaining() < bytes) {
+            throw new RuntimeException("Binary model file is truncated.");
+        }
+    }
+
+    private void map(long position) throws IOException {
+        long size = Math.min(WINDOW_SIZE, fileSize - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = position;
+    }
+}
@@ -0,0 +1,208 @@
+package ru.cgvsu.yurov.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Запись модели в бинарный формат, который BinaryModelReader читает без разбора текста.
+// Все числа записываются в порядке little-endian:
+// заголовок (HEADER_SIZE байт): MAGIC, VERSION, ключ исходного файла (size, lastModified, hash, flags),
+//     число вершин, текстурных вершин, нормалей, полигонов и индексов, флаги наличия массивов индексов, число групп;
+// блоки float: вершины (x y z), текстурные вершины (u v), нормали (x y z);
+// блоки int: смещения полигонов (polygons + 1), номера строк полигонов, индексы вершин,
+//     индексы текстурных вершин и нормалей (если есть);
+// блок byte: флаги полигонов;
+// таблица групп: для каждой группы длина имени в байтах, имя в UTF-8, число диапазонов полигонов и пары
+//     start, end номеров полигонов;
+// таблица объектов: число объектов и объекты в том же виде, что и группы;
+// подсетки: число подсеток и для каждой имя материала (длина и UTF-8), start, end;
+// группы сглаживания: число смен группы и пары start, group;
+// библиотеки материалов: число библиотек и имена файлов (длина и UTF-8)
+public final class BinaryModelWriter {
+    static final int MAGIC = 0x4D4A424F; // "OBJM"
+    static final int VERSION = 3;
+    static final int HEADER_SIZE = 64;
+    static final int HAS_TEXTURE_INDICES = 1;
+    static final int HAS_NORMAL_INDICES = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    private BinaryModelWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public static void write(Model model, Path path) {
+        write(model, path, SourceFileKey.NONE);
+    }
+
+    public static void write(Model model, Path path, SourceFileKey sourceKey) {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            new BinaryModelWriter(channel).writeModel(model, sourceKey);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    private void writeModel(Model model, SourceFileKey sourceKey) throws IOException {
+        PolygonStore polygons = model.getPolygonStore();
+        int polygonsSize = polygons.size();
+        int indicesSize = polygons.getIndicesSize();
+        int[] textureVertexIndices = polygons.getTextureVertexIndices();
+        int[] normalIndices = polygons.getNormalIndices();
+        List<Group> groups = model.getGroups();
+
+        int componentFlags = 0;
+        if (textureVertexIndices != null) {
+            componentFlags |= HAS_TEXTURE_INDICES;
+        }
+        if (normalIndices != null) {
+            componentFlags |= HAS_NORMAL_INDICES;
+        }
+
+        putInt(MAGIC);
+        putInt(VERSION);
+        putLong(sourceKey.getSize());
+        putLong(sourceKey.getLastModified());
+        putLong(sourceKey.getHash());
+        putInt(sourceKey.getFlags());
+        putInt(model.getVerticesSize());
+        putInt(model.getTextureVerticesSize());
+        putInt(model.getNormalsSize());
+        putInt(polygonsSize);
+        putInt(indicesSize);
+        putInt(componentFlags);
+        putInt(groups.size());
+        while (buffer.position() < HEADER_SIZE) {
+            buffer.put((byte) 0);
+        }
+
+        putFloats(model.getVertexBuffer());
+        putFloats(model.getTextureVertexBuffer());
+        putFloats(model.getNormalBuffer());
+
+        putInts(polygons.getOffsets(), polygonsSize + 1);
+        putInts(polygons.getLineIndices(), polygonsSize);
+        putInts(polygons.getVertexIndices(), indicesSize);
+        if (textureVertexIndices != null) {
+            putInts(textureVertexIndices, indicesSize);
+        }
+        if (normalIndices != null) {
+            putInts(normalIndices, indicesSize);
+        }
+        putBytes(polygons.getFlags(), polygonsSize);
+
+        putGroups(groups, polygons);
+
+        List<Group> objects = model.getObjects();
+        putInt(objects.size());
+        putGroups(objects, polygons);
+
+        List<Submesh> submeshes = model.getSubmeshes();
+        putInt(submeshes.size());
+        for (Submesh submesh : submeshes) {
+            putString(submesh.getMaterial());
+            putInt(submesh.getStart());
+            putInt(submesh.getEnd());
+        }
+
+        putInt(model.getSmoothingRunsSize());
+        for (int run = 0; run < model.getSmoothingRunsSize(); run++) {
+            putInt(model.getSmoothingRunStart(run));
+            putInt(model.getSmoothingRunGroup(run));
+        }
+
+        List<String> materialLibraries = model.getMaterialLibraries();
+        putInt(materialLibraries.size());
+        for (String fileName : materialLibraries) {
+            putString(fileName);
+        }
+        flush();
+    }
+
+    private void putGroups(List<Group> groups, PolygonStore polygons) throws IOException {
+        for (Group group : groups) {
+            putString(group.getName());
+            if (group.getStore() != polygons || group.getRangesSize() > 0
+                    && group.getRangeEnd(group.getRangesSize() - 1) > polygons.size()) {
+                throw new IllegalArgumentException("Group polygons must belong to the model.");
+            }
+            putInt(group.getRangesSize());
+            for (int range = 0; range < group.getRangesSize(); range++) {
+                putInt(group.getRangeStart(range));
+                putInt(group.getRangeEnd(range));
+            }
+        }
+    }
+
+    private void putString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        putBytes(bytes, bytes.length);
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    private void putLong(long value) throws IOException {
+        ensureRemaining(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    private void putFloats(FloatBuffer values) throws IOException {
+        while (values.hasRemaining()) {
+            ensureRemaining(Float.BYTES);
+            int count = Math.min(values.remaining(), buffer.remaining() / Float.BYTES);
+            FloatBuffer part = values.slice().limit(count);
+            buffer.asFloatBuffer().put(part);
+            buffer.position(buffer.position() + count * Float.BYTES);
+            values.position(values.position() + count);
+        }
+    }
+
+    private void putInts(int[] values, int count) throws IOException {
+        int written = 0;
+        while (written < count) {
+            ensureRemaining(Integer.BYTES);
+            int part = Math.min(count - written, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().put(values, written, part);
+            buffer.position(buffer.position() + part * Integer.BYTES);
+            written += part;
+        }
+    }
+
+    private void putBytes(byte[] values, int count) throws IOException {
+        int written = 0;
+        while (written < count) {
+            ensureRemaining(1);
+            int part = Math.min(count - written, buffer.remaining());
+            buffer.put(values, written, part);
+            written += part;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.cgvsu.yurov.model;
+
+// Ограничивающий параллелепипед, стороны которого параллельны осям координат.
+// Пустой параллелепипед (без единой точки) имеет min = +бесконечность и max = -бесконечность
+public class BoundingBox {
+    private float minX = Float.POSITIVE_INFINITY;
+    private float minY = Float.POSITIVE_INFINITY;
+    private float minZ = Float.POSITIVE_INFINITY;
+    private float maxX = Float.NEGATIVE_INFINITY;
+    private float maxY = Float.NEGATIVE_INFINITY;
+    private float maxZ = Float.NEGATIVE_INFINITY;
+
+    public BoundingBox() {
+    }
+
+    public BoundingBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    public BoundingBox(BoundingBox other) {
+        this(other.minX, other.minY, other.minZ, other.maxX, other.maxY, other.maxZ);
+    }
+
+    public void include(float x, float y, float z) {
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        minZ = Math.min(minZ, z);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+        maxZ = Math.max(maxZ, z);
+    }
+
+    public void include(BoundingBox other) {
+        minX = Math.min(minX, other.minX);
+        minY = Math.min(minY, other.minY);
+        minZ = Math.min(minZ, other.minZ);
+        maxX = Math.max(maxX, other.maxX);
+        maxY = Math.max(maxY, other.maxY);
+        maxZ = Math.max(maxZ, other.maxZ);
+    }
+
+    public boolean isEmpty() {
+        return minX > maxX || minY > maxY || minZ > maxZ;
+    }
+
+    public boolean contains(float x, float y, float z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    // Параллелепипеды, касающиеся гранью, пересекаются
+    public boolean intersects(BoundingBox other) {
+        return minX <= other.maxX && maxX >= other.minX && minY <= other.maxY && maxY >= other.minY
+                && minZ <= other.maxZ && maxZ >= other.minZ;
+    }
+
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMinZ() {
+        return minZ;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public float getMaxZ() {
+        return maxZ;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BoundingBox that = (BoundingBox) o;
+        return Float.compare(minX, that.minX) == 0 && Float.compare(minY, that.minY) == 0
+                && Float.compare(minZ, that.minZ) == 0 && Float.compare(maxX, that.maxX) == 0
+                && Float.compare(maxY, that.maxY) == 0 && Float.compare(maxZ, that.maxZ) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Float.hashCode(minX);
+        result = 31 * result + Float.hashCode(minY);
+        result = 31 * result + Float.hashCode(minZ);
+        result = 31 * result + Float.hashCode(maxX);
+        result = 31 * result + Float.hashCode(maxY);
+        result = 31 * result + Float.hashCode(maxZ);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox[(" + minX + ", " + minY + ", " + minZ + "), (" + maxX + ", " + maxY + ", " + maxZ + ")]";
+    }
+}
@@ -1,18 +1,73 @@
 package ru.cgvsu.yurov.model;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
+// Группа хранит не сами полигоны, а диапазоны их номеров [start, end) в PolygonStore модели. Полигоны одной строки
+// "g" идут в файле подряд, поэтому у прочитанной группы один диапазон, а смежные диапазоны склеиваются в один.
+// getPolygons() - представление над этими диапазонами, полигон создается только при чтении из списка
 public class Group {
+    private static final int[] EMPTY = new int[0];
+
     private final String name;
-    private final List<Polygon> polygons = new ArrayList<>();
+    private PolygonStore store = null;
+    // Пары start, end подряд и число полигонов до начала каждого диапазона
+    private int[] ranges = EMPTY;
+    private int[] polygonsBefore = EMPTY;
+    private int rangesSize;
+    private int polygonsSize;
+    private BoundingBox bounds = null;
+
+    private final List<Polygon> polygonsView = new PolygonListView();
 
     public Group(String name) {
         this.name = name;
     }
 
+    // Полигон должен быть полигоном модели (из Model.getPolygons()), отдельный полигон в группу добавить нельзя
     public void addPolygon(Polygon polygon) {
-        polygons.add(polygon);
+        if (polygon.getStore() == null) {
+            throw new IllegalArgumentException("Group polygons must belong to the model.");
+        }
+        setStore(polygon.getStore());
+        addRange(polygon.getStoreIndex(), polygon.getStoreIndex() + 1);
+    }
+
+    // Добавляет полигоны с номерами [startPolygon, endPolygon) модели, в которую добавлена группа
+    public void addRange(int startPolygon, int endPolygon) {
+        if (startPolygon < 0 || endPolygon < startPolygon) {
+            throw new IllegalArgumentException("Invalid polygon range: [" + startPolygon + ", " + endPolygon + ").");
+        }
+        if (startPolygon == endPolygon) {
+            return;
+        }
+        if (rangesSize > 0 && ranges[rangesSize * 2 - 1] == startPolygon) {
+            ranges[rangesSize * 2 - 1] = endPolygon;
+        } else {
+            if (rangesSize * 2 == ranges.length) {
+                ranges = Arrays.copyOf(ranges, Math.max(2, ranges.length * 2));
+                polygonsBefore = Arrays.copyOf(polygonsBefore, Math.max(1, polygonsBefore.length * 2));
+            }
+            ranges[rangesSize * 2] = startPolygon;
+            ranges[rangesSize * 2 + 1] = endPolygon;
+            polygonsBefore[rangesSize] = polygonsSize;
+            rangesSize++;
+        }
+        polygonsSize += endPolygon - startPolygon;
+    }
+
+    void setStore(PolygonStore store) {
+        if (this.store == null) {
+            this.store = store;
+        } else if (this.store != store) {
+            throw new IllegalArgumentException("Group polygons must belong to the model.");
+        }
+    }
+
+    PolygonStore getStore() {
+        return store;
     }
 
     public String getName() {
@@ -20,10 +75,63 @@ public class Group {
     }
 
     public List<Polygon> getPolygons() {
-        return polygons;
+        return polygonsView;
     }
 
     public int getPolygonsSize() {
-        return polygons.size();
+        return polygonsSize;
+    }
+
+    public int getRangesSize() {
+        return rangesSize;
+    }
+
+    public int getRangeStart(int rangeIndex) {
+        checkRangeIndex(rangeIndex);
+        return ranges[rangeIndex * 2];
+    }
+
+    public int getRangeEnd(int rangeIndex) {
+        checkRangeIndex(rangeIndex);
+        return ranges[rangeIndex * 2 + 1];
+    }
+
+    // Номер index-го полигона группы в модели: O(1) для группы из одного диапазона, иначе двоичный поиск по диапазонам
+    public int getPolygonIndex(int index) {
+        if (index < 0 || index >= polygonsSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + polygonsSize);
+        }
+        int range = rangesSize == 1 ? 0 : Arrays.binarySearch(polygonsBefore, 0, rangesSize, index);
+        if (range < 0) {
+            range = -range - 2;
+        }
+        return ranges[range * 2] + index - polygonsBefore[range];
+    }
+
+    // Параллелепипед вершин полигонов группы, посчитанный Model.updateBounds, или null, если он еще не считался
+    public BoundingBox getBounds() {
+        return bounds == null ? null : new BoundingBox(bounds);
+    }
+
+    void setBounds(BoundingBox bounds) {
+        this.bounds = bounds;
+    }
+
+    private void checkRangeIndex(int rangeIndex) {
+        if (rangeIndex < 0 || rangeIndex >= rangesSize) {
+            throw new IndexOutOfBoundsException("Index: " + rangeIndex + ", Size: " + rangesSize);
+        }
+    }
+
+    private class PolygonListView extends AbstractList<Polygon> implements RandomAccess {
+        @Override
+        public Polygon get(int index) {
+            return new Polygon(store, getPolygonIndex(index));
+        }
+
+        @Override
+        public int size() {
+            return polygonsSize;
+        }
     }
 }
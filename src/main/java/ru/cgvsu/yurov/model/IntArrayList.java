@@ -0,0 +1,82 @@
+package ru.cgvsu.yurov.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+// Список индексов, хранящий значения в массиве int без упаковки в Integer.
+// Упаковка происходит только при чтении через методы интерфейса List
+public class IntArrayList extends AbstractList<Integer> implements RandomAccess {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] values;
+    private int size;
+
+    public IntArrayList() {
+        values = EMPTY;
+    }
+
+    public IntArrayList(int[] values, int size) {
+        this.values = Arrays.copyOf(values, size);
+        this.size = size;
+    }
+
+    public int getInt(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void addInt(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size * 2));
+        }
+        values[size++] = value;
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public Integer set(int index, Integer value) {
+        checkIndex(index);
+        int previous = values[index];
+        values[index] = value;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Integer value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        addInt(value);
+        System.arraycopy(values, index, values, index + 1, size - index - 1);
+        values[index] = value;
+    }
+
+    @Override
+    public Integer remove(int index) {
+        checkIndex(index);
+        int previous = values[index];
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
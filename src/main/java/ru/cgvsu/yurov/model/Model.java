@@ -3,15 +3,27 @@ package ru.cgvsu.yurov.model;
 import ru.cgvsu.yurov.math.Vector2f;
 import ru.cgvsu.yurov.math.Vector3f;
 
+import java.nio.FloatBuffer;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
 
 public class Model {
 
-    private List<Vector3f> vertices = new ArrayList<>();
-    private List<Vector2f> textureVertices = new ArrayList<>();
-    private List<Vector3f> normals = new ArrayList<>();
-    private List<Polygon> polygons = new ArrayList<>();
+    // Координаты хранятся упакованными в массивы float, по 12 байт на вершину и нормаль и 8 байт на текстурную
+    // вершину. Списки Vector3f и Vector2f из getVertices(), getTextureVertices() и getNormals() - это
+    // представления поверх этих массивов: объекты векторов создаются только при чтении
+    private final PackedFloatList vertices = new PackedFloatList(3);
+    private final PackedFloatList textureVertices = new PackedFloatList(2);
+    private final PackedFloatList normals = new PackedFloatList(3);
+    private final PolygonStore polygons = new PolygonStore();
 
 
 
@@ -20,30 +32,242 @@ public class Model {
 
 
 
+    private static final long GROUP_SIZE = 96;
+    private static final long SUBMESH_SIZE = 24;
+    private static final int PARALLEL_BOUNDS_THRESHOLD = 1 << 15;
+
     private List<Group> groups = new ArrayList<>();
+    private final Map<String, List<Group>> groupsByName = new HashMap<>();
+
+    // Объекты (строки "o") хранятся так же, как группы. Подсетки идут в порядке номеров полигонов и не пересекаются,
+    // полигоны до первой строки "usemtl" не входят ни в одну подсетку
+    private final List<Group> objects = new ArrayList<>();
+    private final List<Submesh> submeshes = new ArrayList<>();
+    private final Map<String, List<Submesh>> submeshesByMaterial = new LinkedHashMap<>();
+    private final List<String> materialLibraries = new ArrayList<>();
+
+    // Группы сглаживания (строки "s") - номер первого полигона и номер группы для каждой смены группы.
+    // Полигоны до первой смены не сглаживаются (группа 0)
+    private int[] smoothingStarts = new int[0];
+    private int[] smoothingGroups = new int[0];
+    private int smoothingRunsSize = 0;
+
+    // Параллелепипед первых boundedVerticesSize вершин. Вершины из addVertex учитываются сразу при чтении файла,
+    // остальные (добавленные буфером или через список) - при следующем вызове getBounds
+    private BoundingBox bounds = new BoundingBox();
+    private int boundedVerticesSize = 0;
+    private int boundedChangesCount = 0;
+
+    private final List<Vector3f> verticesView = new Vector3fListView(vertices);
+    private final List<Vector2f> textureVerticesView = new Vector2fListView(textureVertices);
+    private final List<Vector3f> normalsView = new Vector3fListView(normals);
+    private final List<Polygon> polygonsView = new PolygonListView(polygons);
 
     public void addVertex(Vector3f vertex) {
-        vertices.add(vertex);
+        addVertex(vertex.getX(), vertex.getY(), vertex.getZ());
+    }
+
+    public void addVertex(float x, float y, float z) {
+        if (boundedVerticesSize == vertices.size()) {
+            bounds.include(x, y, z);
+            boundedVerticesSize++;
+        }
+        vertices.add(x, y, z);
     }
 
     public void addTextureVertex(Vector2f textureVertex) {
-        textureVertices.add(textureVertex);
+        textureVertices.add(textureVertex.getX(), textureVertex.getY());
+    }
+
+    public void addTextureVertex(float u, float v) {
+        textureVertices.add(u, v);
     }
 
     public void addNormal(Vector3f normal) {
-        normals.add(normal);
+        normals.add(normal.getX(), normal.getY(), normal.getZ());
+    }
+
+    public void addNormal(float x, float y, float z) {
+        normals.add(x, y, z);
+    }
+
+    // Добавляют сразу много векторов из буфера, в котором координаты записаны подряд (x y z x y z ...)
+    public void addVertices(FloatBuffer coordinates) {
+        vertices.addAll(coordinates);
+    }
+
+    public void addTextureVertices(FloatBuffer coordinates) {
+        textureVertices.addAll(coordinates);
+    }
+
+    public void addNormals(FloatBuffer coordinates) {
+        normals.addAll(coordinates);
     }
 
+    // Индексы полигона копируются в хранилище модели, сам объект polygon в модели не сохраняется
     public void addPolygon(Polygon polygon) {
         polygons.add(polygon);
     }
 
+    // textureVertexIndices и normalIndices могут быть null, если у полигона нет этих компонент
+    public void addPolygon(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int size, int lineIndex) {
+        polygons.add(vertexIndices, textureVertexIndices, normalIndices, size, lineIndex);
+    }
+
+    // Добавляет вершины, текстурные вершины, нормали и полигоны другой модели. Индексы полигонов не сдвигаются,
+    // поэтому так можно склеивать части одного OBJ файла. Группы other не переносятся
+    public void addAll(Model other) {
+        if (boundedVerticesSize == vertices.size()) {
+            bounds.include(other.getBounds());
+            boundedVerticesSize += other.vertices.size();
+        }
+        vertices.addAll(other.vertices);
+        textureVertices.addAll(other.textureVertices);
+        normals.addAll(other.normals);
+        polygons.addAll(other.polygons);
+    }
+
+    // Диапазоны группы - номера полигонов этой модели
     public void addGroup(Group group) {
+        group.setStore(polygons);
         groups.add(group);
+        groupsByName.computeIfAbsent(group.getName(), name -> new ArrayList<>(1)).add(group);
+    }
+
+    // Диапазоны объекта - номера полигонов этой модели
+    public void addObject(Group object) {
+        object.setStore(polygons);
+        objects.add(object);
+    }
+
+    // Полигоны [start, end) рисуются материалом material. Подсетки нужно добавлять по порядку номеров полигонов,
+    // подсетка, которая продолжает предыдущую с тем же материалом, склеивается с ней
+    public void addSubmesh(String material, int start, int end) {
+        Submesh last = submeshes.isEmpty() ? null : submeshes.get(submeshes.size() - 1);
+        if (last != null && start < last.getEnd()) {
+            throw new IllegalArgumentException("Submeshes must be added in polygon order.");
+        }
+        if (start == end) {
+            return;
+        }
+        if (last != null && last.getEnd() == start && last.getMaterial().equals(material)) {
+            last.setEnd(end);
+            return;
+        }
+        Submesh submesh = new Submesh(material, start, end);
+        submeshes.add(submesh);
+        submeshesByMaterial.computeIfAbsent(material, name -> new ArrayList<>(1)).add(submesh);
+    }
+
+    public void addMaterialLibrary(String fileName) {
+        if (!materialLibraries.contains(fileName)) {
+            materialLibraries.add(fileName);
+        }
+    }
+
+    // С полигона start и до следующей смены полигоны входят в группу сглаживания group, 0 - без сглаживания
+    public void setSmoothingGroup(int start, int group) {
+        int last = smoothingRunsSize - 1;
+        if (last >= 0 && start < smoothingStarts[last]) {
+            throw new IllegalArgumentException("Smoothing groups must be set in polygon order.");
+        }
+        if (last >= 0 && start == smoothingStarts[last]) {
+            smoothingRunsSize--;
+        }
+        // Явная смена на 0 в начале сохраняется: при склейке частей файла она отменяет группу предыдущей части
+        if (smoothingRunsSize > 0 && smoothingGroups[smoothingRunsSize - 1] == group) {
+            return;
+        }
+        if (smoothingRunsSize == smoothingStarts.length) {
+            smoothingStarts = Arrays.copyOf(smoothingStarts, Math.max(4, smoothingRunsSize * 2));
+            smoothingGroups = Arrays.copyOf(smoothingGroups, Math.max(4, smoothingRunsSize * 2));
+        }
+        smoothingStarts[smoothingRunsSize] = start;
+        smoothingGroups[smoothingRunsSize] = group;
+        smoothingRunsSize++;
+    }
+
+    public int getSmoothingGroup(int polygonIndex) {
+        int run = Arrays.binarySearch(smoothingStarts, 0, smoothingRunsSize, polygonIndex);
+        if (run < 0) {
+            run = -run - 2;
+        }
+        return run < 0 ? 0 : smoothingGroups[run];
+    }
+
+    public int getSmoothingRunsSize() {
+        return smoothingRunsSize;
+    }
+
+    public int getSmoothingRunStart(int runIndex) {
+        checkSmoothingRunIndex(runIndex);
+        return smoothingStarts[runIndex];
+    }
+
+    public int getSmoothingRunGroup(int runIndex) {
+        checkSmoothingRunIndex(runIndex);
+        return smoothingGroups[runIndex];
+    }
+
+    private void checkSmoothingRunIndex(int runIndex) {
+        if (runIndex < 0 || runIndex >= smoothingRunsSize) {
+            throw new IndexOutOfBoundsException("Index: " + runIndex + ", Size: " + smoothingRunsSize);
+        }
+    }
+
+    public BoundingBox getBounds() {
+        if (boundedChangesCount != vertices.getChangesCount()) {
+            bounds = new BoundingBox();
+            boundedVerticesSize = 0;
+            boundedChangesCount = vertices.getChangesCount();
+        }
+        for (int i = boundedVerticesSize; i < vertices.size(); i++) {
+            bounds.include(vertices.get(i, 0), vertices.get(i, 1), vertices.get(i, 2));
+        }
+        boundedVerticesSize = vertices.size();
+        return new BoundingBox(bounds);
+    }
+
+    // Досчитывает параллелепипед модели и считает параллелепипеды групп и объектов по вершинам их полигонов.
+    // Читатели вызывают его в конце чтения, когда индексы полигонов уже проверены
+    public void updateBounds() {
+        getBounds();
+        List<Group> bounded = new ArrayList<>(groups.size() + objects.size());
+        bounded.addAll(groups);
+        bounded.addAll(objects);
+        long groupedPolygons = 0;
+        for (Group group : bounded) {
+            groupedPolygons += group.getPolygonsSize();
+        }
+        Stream<Group> stream = groupedPolygons >= PARALLEL_BOUNDS_THRESHOLD
+                ? bounded.parallelStream() : bounded.stream();
+        stream.forEach(group -> group.setBounds(computeBounds(group)));
+    }
+
+    private BoundingBox computeBounds(Group group) {
+        BoundingBox groupBounds = new BoundingBox();
+        float[] values = vertices.getValues();
+        int[] vertexIndices = polygons.getVertexIndices();
+        for (int range = 0; range < group.getRangesSize(); range++) {
+            int start = polygons.getPolygonStart(group.getRangeStart(range));
+            int end = polygons.getPolygonEnd(group.getRangeEnd(range) - 1);
+            for (int i = start; i < end; i++) {
+                int vertex = vertexIndices[i];
+                if (vertex < 0 || vertex >= vertices.size()) {
+                    throw new IndexOutOfBoundsException("Index: " + vertex + ", Size: " + vertices.size());
+                }
+                groupBounds.include(values[vertex * 3], values[vertex * 3 + 1], values[vertex * 3 + 2]);
+            }
+        }
+        return groupBounds;
     }
 
     public Polygon getFirstPolygon() {
-        return polygons.get(0);
+        return polygonsView.get(0);
+    }
+
+    public PolygonStore getPolygonStore() {
+        return polygons;
     }
 
 
@@ -63,23 +287,254 @@ public class Model {
         return polygons.size();
     }
 
+    public float getVertexX(int index) {
+        return vertices.get(index, 0);
+    }
+
+    public float getVertexY(int index) {
+        return vertices.get(index, 1);
+    }
+
+    public float getVertexZ(int index) {
+        return vertices.get(index, 2);
+    }
+
+    public float getTextureVertexU(int index) {
+        return textureVertices.get(index, 0);
+    }
+
+    public float getTextureVertexV(int index) {
+        return textureVertices.get(index, 1);
+    }
+
+    public float getNormalX(int index) {
+        return normals.get(index, 0);
+    }
+
+    public float getNormalY(int index) {
+        return normals.get(index, 1);
+    }
+
+    public float getNormalZ(int index) {
+        return normals.get(index, 2);
+    }
+
+    // Буферы смотрят прямо в массивы модели (x y z подряд для каждой вершины), без копирования.
+    // После добавления новых вершин буфер нужно получить заново
+    public FloatBuffer getVertexBuffer() {
+        return vertices.asBuffer();
+    }
+
+    public FloatBuffer getTextureVertexBuffer() {
+        return textureVertices.asBuffer();
+    }
+
+    public FloatBuffer getNormalBuffer() {
+        return normals.asBuffer();
+    }
+
+    // Примерный объем памяти модели в байтах: массивы координат и полигонов с запасом емкости, группы, объекты
+    // и подсетки. Группа - это объект с именем и диапазонами номеров полигонов, по 12 байт на диапазон
+    public long getEstimatedSize() {
+        long size = vertices.getEstimatedSize() + textureVertices.getEstimatedSize() + normals.getEstimatedSize()
+                + polygons.getEstimatedSize() + 8L * smoothingStarts.length;
+        for (Group group : groups) {
+            size += GROUP_SIZE + 2L * group.getName().length() + 12L * group.getRangesSize();
+        }
+        for (Group object : objects) {
+            size += GROUP_SIZE + 2L * object.getName().length() + 12L * object.getRangesSize();
+        }
+        size += SUBMESH_SIZE * submeshes.size();
+        return size;
+    }
+
+    // Заранее выделяет память под указанное число элементов, чтобы массивы не копировались при росте
+    public void ensureCapacity(int verticesCapacity, int textureVerticesCapacity, int normalsCapacity,
+                               int polygonsCapacity, int polygonIndicesCapacity) {
+        vertices.ensureCapacity(verticesCapacity);
+        textureVertices.ensureCapacity(textureVerticesCapacity);
+        normals.ensureCapacity(normalsCapacity);
+        polygons.ensureCapacity(polygonsCapacity, polygonIndicesCapacity);
+    }
+
+    // Убирает запас емкости, оставшийся в массивах после чтения модели
+    public void trimToSize() {
+        vertices.trimToSize();
+        textureVertices.trimToSize();
+        normals.trimToSize();
+        polygons.trimToSize();
+    }
+
     public List<Vector3f> getVertices() {
-        return vertices;
+        return verticesView;
     }
 
     public List<Vector2f> getTextureVertices() {
-        return textureVertices;
+        return textureVerticesView;
     }
 
     public List<Vector3f> getNormals() {
-        return normals;
+        return normalsView;
     }
 
+    // Полигоны создаются при чтении из списка как представления над PolygonStore
     public List<Polygon> getPolygons() {
-        return polygons;
+        return polygonsView;
     }
 
+    // Группы в порядке добавления. Добавлять группы нужно через addGroup
     public List<Group> getGroups() {
-        return groups;
+        return Collections.unmodifiableList(groups);
+    }
+
+    // Все группы с таким именем (строка "g" с одним именем может встретиться в файле несколько раз)
+    public List<Group> getGroups(String name) {
+        List<Group> namedGroups = groupsByName.get(name);
+        return namedGroups == null ? List.of() : Collections.unmodifiableList(namedGroups);
+    }
+
+    // Одна группа со всеми диапазонами групп с таким именем или null, если таких групп нет
+    public Group getGroup(String name) {
+        List<Group> namedGroups = groupsByName.get(name);
+        if (namedGroups == null) {
+            return null;
+        }
+        if (namedGroups.size() == 1) {
+            return namedGroups.get(0);
+        }
+        Group group = new Group(name);
+        group.setStore(polygons);
+        BoundingBox groupBounds = new BoundingBox();
+        for (Group namedGroup : namedGroups) {
+            for (int range = 0; range < namedGroup.getRangesSize(); range++) {
+                group.addRange(namedGroup.getRangeStart(range), namedGroup.getRangeEnd(range));
+            }
+            BoundingBox namedGroupBounds = namedGroup.getBounds();
+            if (namedGroupBounds == null) {
+                groupBounds = null;
+            } else if (groupBounds != null) {
+                groupBounds.include(namedGroupBounds);
+            }
+        }
+        group.setBounds(groupBounds);
+        return group;
+    }
+
+    // Объекты в порядке добавления. Добавлять объекты нужно через addObject
+    public List<Group> getObjects() {
+        return Collections.unmodifiableList(objects);
+    }
+
+    // Подсетки в порядке номеров полигонов
+    public List<Submesh> getSubmeshes() {
+        return Collections.unmodifiableList(submeshes);
+    }
+
+    // Подсетки одного материала: все его полигоны рисуются одним вызовом на каждую подсетку
+    public List<Submesh> getSubmeshes(String material) {
+        List<Submesh> materialSubmeshes = submeshesByMaterial.get(material);
+        return materialSubmeshes == null ? List.of() : Collections.unmodifiableList(materialSubmeshes);
+    }
+
+    // Имена материалов в порядке первого использования
+    public List<String> getMaterials() {
+        return List.copyOf(submeshesByMaterial.keySet());
+    }
+
+    // Имена файлов из строк "mtllib" как они записаны в файле, без повторов
+    public List<String> getMaterialLibraries() {
+        return Collections.unmodifiableList(materialLibraries);
+    }
+
+    private static class Vector3fListView extends AbstractList<Vector3f> implements RandomAccess {
+        private final PackedFloatList values;
+
+        Vector3fListView(PackedFloatList values) {
+            this.values = values;
+        }
+
+        @Override
+        public Vector3f get(int index) {
+            return new Vector3f(values.get(index, 0), values.get(index, 1), values.get(index, 2));
+        }
+
+        @Override
+        public Vector3f set(int index, Vector3f vector) {
+            Vector3f previous = get(index);
+            values.set(index, 0, vector.getX());
+            values.set(index, 1, vector.getY());
+            values.set(index, 2, vector.getZ());
+            return previous;
+        }
+
+        @Override
+        public boolean add(Vector3f vector) {
+            values.add(vector.getX(), vector.getY(), vector.getZ());
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+    }
+
+    private static class Vector2fListView extends AbstractList<Vector2f> implements RandomAccess {
+        private final PackedFloatList values;
+
+        Vector2fListView(PackedFloatList values) {
+            this.values = values;
+        }
+
+        @Override
+        public Vector2f get(int index) {
+            return new Vector2f(values.get(index, 0), values.get(index, 1));
+        }
+
+        @Override
+        public Vector2f set(int index, Vector2f vector) {
+            Vector2f previous = get(index);
+            values.set(index, 0, vector.getX());
+            values.set(index, 1, vector.getY());
+            return previous;
+        }
+
+        @Override
+        public boolean add(Vector2f vector) {
+            values.add(vector.getX(), vector.getY());
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+    }
+
+    private static class PolygonListView extends AbstractList<Polygon> implements RandomAccess {
+        private final PolygonStore polygons;
+
+        PolygonListView(PolygonStore polygons) {
+            this.polygons = polygons;
+        }
+
+        @Override
+        public Polygon get(int index) {
+            if (index < 0 || index >= polygons.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + polygons.size());
+            }
+            return new Polygon(polygons, index);
+        }
+
+        @Override
+        public boolean add(Polygon polygon) {
+            polygons.add(polygon);
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return polygons.size();
+        }
     }
 }
@@ -0,0 +1,111 @@
+package ru.cgvsu.yurov.model;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+// Векторы фиксированной размерности, записанные подряд в один массив float: x0 y0 z0 x1 y1 z1 ...
+// Каждый вектор занимает ровно dimension * 4 байт, без заголовка объекта и ссылки в списке
+final class PackedFloatList {
+    private static final float[] EMPTY = new float[0];
+
+    private final int dimension;
+    private float[] values = EMPTY;
+    private int size;
+    // Число вызовов set, по нему видно, что ранее добавленные векторы изменились
+    private int changesCount;
+
+    PackedFloatList(int dimension) {
+        this.dimension = dimension;
+    }
+
+    void add(float x, float y) {
+        grow(size + 1);
+        int offset = size * dimension;
+        values[offset] = x;
+        values[offset + 1] = y;
+        size++;
+    }
+
+    void add(float x, float y, float z) {
+        grow(size + 1);
+        int offset = size * dimension;
+        values[offset] = x;
+        values[offset + 1] = y;
+        values[offset + 2] = z;
+        size++;
+    }
+
+    void addAll(PackedFloatList other) {
+        grow(size + other.size);
+        System.arraycopy(other.values, 0, values, size * dimension, other.size * dimension);
+        size += other.size;
+    }
+
+    // Добавляет все оставшиеся в buffer значения, их число должно делиться на dimension
+    void addAll(FloatBuffer buffer) {
+        int count = buffer.remaining() / dimension;
+        if (count * dimension != buffer.remaining()) {
+            throw new IllegalArgumentException(
+                    "Buffer size " + buffer.remaining() + " is not a multiple of " + dimension + ".");
+        }
+        grow(size + count);
+        buffer.get(values, size * dimension, count * dimension);
+        size += count;
+    }
+
+    float get(int index, int component) {
+        checkIndex(index);
+        return values[index * dimension + component];
+    }
+
+    void set(int index, int component, float value) {
+        checkIndex(index);
+        values[index * dimension + component] = value;
+        changesCount++;
+    }
+
+    int getChangesCount() {
+        return changesCount;
+    }
+
+    // Емкость становится ровно capacity векторов, без запаса
+    void ensureCapacity(int capacity) {
+        if (capacity * dimension > values.length) {
+            values = Arrays.copyOf(values, capacity * dimension);
+        }
+    }
+
+    private void grow(int capacity) {
+        if (capacity * dimension > values.length) {
+            ensureCapacity(Math.max(capacity, Math.max(4, size + (size >> 1))));
+        }
+    }
+
+    void trimToSize() {
+        if (values.length != size * dimension) {
+            values = Arrays.copyOf(values, size * dimension);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getEstimatedSize() {
+        return 16L + (long) values.length * Float.BYTES;
+    }
+
+    float[] getValues() {
+        return values;
+    }
+
+    FloatBuffer asBuffer() {
+        return FloatBuffer.wrap(values, 0, size * dimension).slice();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
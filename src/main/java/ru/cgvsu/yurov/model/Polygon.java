@@ -2,7 +2,6 @@ package ru.cgvsu.yurov.model;
 
 import ru.cgvsu.yurov.objreader.exceptions.FaceWordIndexException;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -12,9 +11,9 @@ public class Polygon {
     private List<Integer> normalIndices;
 
     public Polygon() {
-        vertexIndices = new ArrayList<>();
-        textureVertexIndices = new ArrayList<>();
-        normalIndices = new ArrayList<>();
+        vertexIndices = new IntArrayList();
+        textureVertexIndices = new IntArrayList();
+        normalIndices = new IntArrayList();
     }
 
     public List<Integer> getVertexIndices() {
@@ -22,6 +21,7 @@ public class Polygon {
     }
 
     public void setVertexIndices(List<Integer> vertexIndices) {
+        checkDetached();
         this.vertexIndices = vertexIndices;
     }
 
@@ -30,6 +30,7 @@ public class Polygon {
     }
 
     public void setTextureVertexIndices(List<Integer> textureVertexIndices) {
+        checkDetached();
         this.textureVertexIndices = textureVertexIndices;
     }
 
@@ -38,6 +39,7 @@ public class Polygon {
     }
 
     public void setNormalIndices(List<Integer> normalIndices) {
+        checkDetached();
         this.normalIndices = normalIndices;
     }
 
@@ -50,11 +52,47 @@ public class Polygon {
 
     private int lineIndex;
 
+    // Полигоны, полученные из модели, - легковесные представления полигона из PolygonStore.
+    // Отдельные индексы можно менять через списки, но заменить списки целиком нельзя
+    private PolygonStore store = null;
+    private int storeIndex;
+
+    Polygon(PolygonStore store, int storeIndex) {
+        this.store = store;
+        this.storeIndex = storeIndex;
+        vertexIndices = store.getIndicesView(storeIndex, PolygonStore.VERTEX);
+        textureVertexIndices = store.getIndicesView(storeIndex, PolygonStore.TEXTURE_VERTEX);
+        normalIndices = store.getIndicesView(storeIndex, PolygonStore.NORMAL);
+    }
+
+    // Хранилище, представлением которого является полигон, или null для отдельного полигона
+    PolygonStore getStore() {
+        return store;
+    }
+
+    int getStoreIndex() {
+        return storeIndex;
+    }
+
+    private void checkDetached() {
+        if (store != null) {
+            throw new UnsupportedOperationException("Index lists of a model polygon can not be replaced.");
+        }
+    }
+
     public boolean hasTexture() {
+        if (store != null) {
+            return store.hasTexture(storeIndex);
+        }
         return !textureVertexIndices.isEmpty();
     }
 
     public void checkIndices(int verticesSize, int textureVerticesSize, int normalsSize) {
+        if (store != null) {
+            store.checkIndices(storeIndex, verticesSize, textureVerticesSize, normalsSize);
+            return;
+        }
+
         for (int i = 0; i < vertexIndices.size(); i++) {
             int vertexIndex = vertexIndices.get(i);
             if (vertexIndex >= verticesSize || vertexIndex < 0) {
@@ -93,10 +131,17 @@ public class Polygon {
     }
 
     public int getLineIndex() {
+        if (store != null) {
+            return store.getLineIndex(storeIndex);
+        }
         return lineIndex;
     }
 
     public void setLineIndex(int lineIndex) {
+        if (store != null) {
+            store.setLineIndex(storeIndex, lineIndex);
+            return;
+        }
         this.lineIndex = lineIndex;
     }
 }
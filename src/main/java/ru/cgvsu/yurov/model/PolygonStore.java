@@ -0,0 +1,458 @@
+package ru.cgvsu.yurov.model;
+
+import ru.cgvsu.yurov.objreader.exceptions.FaceWordIndexException;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+// Полигоны модели в сжатом построчном формате (CSR): индексы всех полигонов лежат подряд в общих массивах int,
+// а offsets[i]..offsets[i + 1] - диапазон углов i-го полигона.
+// Массивы текстурных индексов и нормалей выровнены с массивом вершинных индексов и создаются только тогда,
+// когда в модели появляется первый полигон с текстурами или нормалями. Есть ли они у конкретного полигона,
+// хранится во флагах
+public class PolygonStore {
+    static final int VERTEX = 0;
+    static final int TEXTURE_VERTEX = 1;
+    static final int NORMAL = 2;
+
+    private static final byte HAS_TEXTURE = 1;
+    private static final byte HAS_NORMALS = 2;
+
+    private static final int PARALLEL_CHECK_THRESHOLD = 1 << 14;
+
+    private int size;
+    private int[] offsets = new int[1];
+    private byte[] flags = new byte[0];
+    private int[] lineIndices = new int[0];
+
+    private int indicesSize;
+    private int[] vertexIndices = new int[0];
+    private int[] textureVertexIndices = null;
+    private int[] normalIndices = null;
+
+    // textureVertexIndices и normalIndices могут быть null, если у полигона нет этих компонент
+    public void add(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int polygonSize, int lineIndex) {
+        grow(size + 1, indicesSize + polygonSize);
+
+        byte polygonFlags = 0;
+        System.arraycopy(vertexIndices, 0, this.vertexIndices, indicesSize, polygonSize);
+        if (textureVertexIndices != null) {
+            if (this.textureVertexIndices == null) {
+                this.textureVertexIndices = new int[this.vertexIndices.length];
+            }
+            System.arraycopy(textureVertexIndices, 0, this.textureVertexIndices, indicesSize, polygonSize);
+            polygonFlags |= HAS_TEXTURE;
+        }
+        if (normalIndices != null) {
+            if (this.normalIndices == null) {
+                this.normalIndices = new int[this.vertexIndices.length];
+            }
+            System.arraycopy(normalIndices, 0, this.normalIndices, indicesSize, polygonSize);
+            polygonFlags |= HAS_NORMALS;
+        }
+
+        flags[size] = polygonFlags;
+        lineIndices[size] = lineIndex;
+        indicesSize += polygonSize;
+        size++;
+        offsets[size] = indicesSize;
+    }
+
+    public void add(Polygon polygon) {
+        int[] vertices = toArray(polygon.getVertexIndices());
+        int[] textureVertices = toArray(polygon.getTextureVertexIndices());
+        int[] normals = toArray(polygon.getNormalIndices());
+        if (textureVertices.length != 0 && textureVertices.length != vertices.length
+                || normals.length != 0 && normals.length != vertices.length) {
+            throw new IllegalArgumentException("Polygon index lists must have the same size.");
+        }
+
+        add(vertices,
+                textureVertices.length == 0 ? null : textureVertices,
+                normals.length == 0 ? null : normals,
+                vertices.length, polygon.getLineIndex());
+    }
+
+    // Добавляет все полигоны other. Индексы копируются как есть, без сдвига
+    public void addAll(PolygonStore other) {
+        grow(size + other.size, indicesSize + other.indicesSize);
+        if (other.textureVertexIndices != null && textureVertexIndices == null) {
+            textureVertexIndices = new int[vertexIndices.length];
+        }
+        if (other.normalIndices != null && normalIndices == null) {
+            normalIndices = new int[vertexIndices.length];
+        }
+
+        System.arraycopy(other.vertexIndices, 0, vertexIndices, indicesSize, other.indicesSize);
+        if (other.textureVertexIndices != null) {
+            System.arraycopy(other.textureVertexIndices, 0, textureVertexIndices, indicesSize, other.indicesSize);
+        }
+        if (other.normalIndices != null) {
+            System.arraycopy(other.normalIndices, 0, normalIndices, indicesSize, other.indicesSize);
+        }
+        System.arraycopy(other.flags, 0, flags, size, other.size);
+        System.arraycopy(other.lineIndices, 0, lineIndices, size, other.size);
+        for (int i = 1; i <= other.size; i++) {
+            offsets[size + i] = indicesSize + other.offsets[i];
+        }
+
+        size += other.size;
+        indicesSize += other.indicesSize;
+    }
+
+    // Заменяет содержимое пустого хранилища готовыми массивами без копирования.
+    // offsets содержит size + 1 элементов, textureVertexIndices и normalIndices могут быть null
+    void load(int size, int[] offsets, byte[] flags, int[] lineIndices,
+              int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices) {
+        if (this.size != 0) {
+            throw new IllegalStateException("Polygon store is not empty.");
+        }
+        this.size = size;
+        this.offsets = offsets;
+        this.flags = flags;
+        this.lineIndices = lineIndices;
+        this.indicesSize = offsets[size];
+        this.vertexIndices = vertexIndices;
+        this.textureVertexIndices = textureVertexIndices;
+        this.normalIndices = normalIndices;
+    }
+
+    byte[] getFlags() {
+        return flags;
+    }
+
+    int[] getLineIndices() {
+        return lineIndices;
+    }
+
+    private static int[] toArray(List<Integer> indices) {
+        if (indices instanceof IntArrayList) {
+            return ((IntArrayList) indices).toIntArray();
+        }
+        int[] result = new int[indices.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = indices.get(i);
+        }
+        return result;
+    }
+
+    // Емкость становится ровно polygonsCapacity полигонов и indicesCapacity индексов, без запаса
+    public void ensureCapacity(int polygonsCapacity, int indicesCapacity) {
+        if (polygonsCapacity > flags.length) {
+            flags = Arrays.copyOf(flags, polygonsCapacity);
+            lineIndices = Arrays.copyOf(lineIndices, polygonsCapacity);
+            offsets = Arrays.copyOf(offsets, polygonsCapacity + 1);
+        }
+        if (indicesCapacity > vertexIndices.length) {
+            vertexIndices = Arrays.copyOf(vertexIndices, indicesCapacity);
+            if (textureVertexIndices != null) {
+                textureVertexIndices = Arrays.copyOf(textureVertexIndices, indicesCapacity);
+            }
+            if (normalIndices != null) {
+                normalIndices = Arrays.copyOf(normalIndices, indicesCapacity);
+            }
+        }
+    }
+
+    private void grow(int polygonsCapacity, int indicesCapacity) {
+        if (polygonsCapacity > flags.length) {
+            polygonsCapacity = Math.max(polygonsCapacity, Math.max(4, flags.length + (flags.length >> 1)));
+        }
+        if (indicesCapacity > vertexIndices.length) {
+            indicesCapacity = Math.max(indicesCapacity, Math.max(8, vertexIndices.length + (vertexIndices.length >> 1)));
+        }
+        ensureCapacity(polygonsCapacity, indicesCapacity);
+    }
+
+    public void trimToSize() {
+        flags = Arrays.copyOf(flags, size);
+        lineIndices = Arrays.copyOf(lineIndices, size);
+        offsets = Arrays.copyOf(offsets, size + 1);
+        vertexIndices = Arrays.copyOf(vertexIndices, indicesSize);
+        if (textureVertexIndices != null) {
+            textureVertexIndices = Arrays.copyOf(textureVertexIndices, indicesSize);
+        }
+        if (normalIndices != null) {
+            normalIndices = Arrays.copyOf(normalIndices, indicesSize);
+        }
+    }
+
+    // Память, занятая массивами хранилища, включая запас емкости
+    public long getEstimatedSize() {
+        long size = 6 * 16L + (long) offsets.length * Integer.BYTES + flags.length
+                + (long) lineIndices.length * Integer.BYTES + (long) vertexIndices.length * Integer.BYTES;
+        if (textureVertexIndices != null) {
+            size += (long) textureVertexIndices.length * Integer.BYTES;
+        }
+        if (normalIndices != null) {
+            size += (long) normalIndices.length * Integer.BYTES;
+        }
+        return size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getIndicesSize() {
+        return indicesSize;
+    }
+
+    public int getPolygonStart(int polygonIndex) {
+        checkIndex(polygonIndex);
+        return offsets[polygonIndex];
+    }
+
+    public int getPolygonEnd(int polygonIndex) {
+        checkIndex(polygonIndex);
+        return offsets[polygonIndex + 1];
+    }
+
+    public int getPolygonSize(int polygonIndex) {
+        checkIndex(polygonIndex);
+        return offsets[polygonIndex + 1] - offsets[polygonIndex];
+    }
+
+    public boolean hasTexture(int polygonIndex) {
+        checkIndex(polygonIndex);
+        return (flags[polygonIndex] & HAS_TEXTURE) != 0;
+    }
+
+    public boolean hasNormals(int polygonIndex) {
+        checkIndex(polygonIndex);
+        return (flags[polygonIndex] & HAS_NORMALS) != 0;
+    }
+
+    // Отмечает, что у полигона есть нормали. Их индексы записываются в массив ensureNormalIndices()
+    public void setHasNormals(int polygonIndex) {
+        checkIndex(polygonIndex);
+        flags[polygonIndex] |= HAS_NORMALS;
+    }
+
+    public int getLineIndex(int polygonIndex) {
+        checkIndex(polygonIndex);
+        return lineIndices[polygonIndex];
+    }
+
+    public void setLineIndex(int polygonIndex, int lineIndex) {
+        checkIndex(polygonIndex);
+        lineIndices[polygonIndex] = lineIndex;
+    }
+
+    // Массивы возвращаются без копирования. Значимы первые size() + 1 смещений и первые getIndicesSize() индексов;
+    // текстурные индексы и нормали значимы только у полигонов, для которых hasTexture и hasNormals
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getVertexIndices() {
+        return vertexIndices;
+    }
+
+    public int[] getTextureVertexIndices() {
+        return textureVertexIndices;
+    }
+
+    public int[] getNormalIndices() {
+        return normalIndices;
+    }
+
+    // Массив индексов нормалей, который создается, если в модели еще не было нормалей
+    public int[] ensureNormalIndices() {
+        if (normalIndices == null) {
+            normalIndices = new int[vertexIndices.length];
+        }
+        return normalIndices;
+    }
+
+    public void checkIndices(int verticesSize, int textureVerticesSize, int normalsSize) {
+        for (int i = 0; i < size; i++) {
+            checkIndices(i, verticesSize, textureVerticesSize, normalsSize);
+        }
+    }
+
+    // То же, что checkIndices, но большие хранилища проверяются частями параллельно.
+    // Исключение выбрасывается для первого по порядку неверного полигона, как и при последовательной проверке
+    public void checkIndicesParallel(int verticesSize, int textureVerticesSize, int normalsSize) {
+        int invalidPolygon = findFirstInvalid(size, i -> i, verticesSize, textureVerticesSize, normalsSize);
+        if (invalidPolygon >= 0) {
+            checkIndices(invalidPolygon, verticesSize, textureVerticesSize, normalsSize);
+        }
+    }
+
+    // Проверяет только полигоны с номерами из первых count элементов polygonIndices, номера идут по возрастанию
+    public void checkIndicesParallel(int[] polygonIndices, int count,
+                                     int verticesSize, int textureVerticesSize, int normalsSize) {
+        int invalidPolygon = findFirstInvalid(count, i -> polygonIndices[i],
+                verticesSize, textureVerticesSize, normalsSize);
+        if (invalidPolygon >= 0) {
+            checkIndices(invalidPolygon, verticesSize, textureVerticesSize, normalsSize);
+        }
+    }
+
+    private int findFirstInvalid(int count, IntUnaryOperator polygonAt,
+                                 int verticesSize, int textureVerticesSize, int normalsSize) {
+        IntStream positions = IntStream.range(0, count);
+        if (count >= PARALLEL_CHECK_THRESHOLD) {
+            positions = positions.parallel();
+        }
+        return positions
+                .map(polygonAt)
+                .filter(polygon -> !isValid(polygon, verticesSize, textureVerticesSize, normalsSize))
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private boolean isValid(int polygonIndex, int verticesSize, int textureVerticesSize, int normalsSize) {
+        int start = offsets[polygonIndex];
+        int end = offsets[polygonIndex + 1];
+        byte polygonFlags = flags[polygonIndex];
+        return isValid(vertexIndices, start, end, verticesSize)
+                && ((polygonFlags & HAS_TEXTURE) == 0 || isValid(textureVertexIndices, start, end, textureVerticesSize))
+                && ((polygonFlags & HAS_NORMALS) == 0 || isValid(normalIndices, start, end, normalsSize));
+    }
+
+    private static boolean isValid(int[] indices, int start, int end, int elementsSize) {
+        for (int i = start; i < end; i++) {
+            int index = indices[i];
+            if (index >= elementsSize || index < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Получает ошибку индекса: тип элемента ("vertex", "texture vertex", "normal"), строку полигона и номер слова с 1
+    public interface IndexErrorHandler {
+        void invalidIndex(String type, int lineIndex, int wordIndex);
+    }
+
+    // Сообщает handler о первом неверном индексе каждого неверного полигона, по порядку полигонов.
+    // Исключения не создаются. Возвращает число неверных полигонов
+    public int reportInvalidIndices(int verticesSize, int textureVerticesSize, int normalsSize,
+                                    IndexErrorHandler handler) {
+        IntStream polygons = IntStream.range(0, size);
+        if (size >= PARALLEL_CHECK_THRESHOLD) {
+            polygons = polygons.parallel();
+        }
+        int[] invalidPolygons = polygons
+                .filter(polygon -> !isValid(polygon, verticesSize, textureVerticesSize, normalsSize))
+                .toArray();
+        for (int polygon : invalidPolygons) {
+            reportInvalidIndex(polygon, verticesSize, textureVerticesSize, normalsSize, handler);
+        }
+        return invalidPolygons.length;
+    }
+
+    public void checkIndices(int polygonIndex, int verticesSize, int textureVerticesSize, int normalsSize) {
+        reportInvalidIndex(polygonIndex, verticesSize, textureVerticesSize, normalsSize,
+                (type, lineIndex, wordIndex) -> {
+                    throw new FaceWordIndexException(type, lineIndex, wordIndex);
+                });
+    }
+
+    private void reportInvalidIndex(int polygonIndex, int verticesSize, int textureVerticesSize, int normalsSize,
+                                    IndexErrorHandler handler) {
+        int start = offsets[polygonIndex];
+        int end = offsets[polygonIndex + 1];
+        int lineIndex = lineIndices[polygonIndex];
+
+        int wordIndex = findInvalidIndex(vertexIndices, start, end, verticesSize);
+        if (wordIndex > 0) {
+            handler.invalidIndex("vertex", lineIndex, wordIndex);
+            return;
+        }
+        if ((flags[polygonIndex] & HAS_TEXTURE) != 0) {
+            wordIndex = findInvalidIndex(textureVertexIndices, start, end, textureVerticesSize);
+            if (wordIndex > 0) {
+                handler.invalidIndex("texture vertex", lineIndex, wordIndex);
+                return;
+            }
+        }
+        if ((flags[polygonIndex] & HAS_NORMALS) != 0) {
+            wordIndex = findInvalidIndex(normalIndices, start, end, normalsSize);
+            if (wordIndex > 0) {
+                handler.invalidIndex("normal", lineIndex, wordIndex);
+            }
+        }
+    }
+
+    // Номер слова с 1 первого неверного индекса или 0
+    private static int findInvalidIndex(int[] indices, int start, int end, int elementsSize) {
+        for (int i = start; i < end; i++) {
+            int index = indices[i];
+            if (index >= elementsSize || index < 0) {
+                return i - start + 1;
+            }
+        }
+        return 0;
+    }
+
+    List<Integer> getIndicesView(int polygonIndex, int component) {
+        checkIndex(polygonIndex);
+        return new IndicesView(polygonIndex, component);
+    }
+
+    private void checkIndex(int polygonIndex) {
+        if (polygonIndex < 0 || polygonIndex >= size) {
+            throw new IndexOutOfBoundsException("Index: " + polygonIndex + ", Size: " + size);
+        }
+    }
+
+    // Индексы одной компоненты полигона. Изменения через set попадают прямо в массивы хранилища
+    private class IndicesView extends AbstractList<Integer> implements RandomAccess {
+        private final int polygonIndex;
+        private final int component;
+
+        IndicesView(int polygonIndex, int component) {
+            this.polygonIndex = polygonIndex;
+            this.component = component;
+        }
+
+        private int[] indices() {
+            return switch (component) {
+                case TEXTURE_VERTEX -> textureVertexIndices;
+                case NORMAL -> normalIndices;
+                default -> vertexIndices;
+            };
+        }
+
+        private boolean isPresent() {
+            return switch (component) {
+                case TEXTURE_VERTEX -> (flags[polygonIndex] & HAS_TEXTURE) != 0;
+                case NORMAL -> (flags[polygonIndex] & HAS_NORMALS) != 0;
+                default -> true;
+            };
+        }
+
+        @Override
+        public Integer get(int index) {
+            return indices()[offsets[polygonIndex] + checkElementIndex(index)];
+        }
+
+        @Override
+        public Integer set(int index, Integer value) {
+            int[] indices = indices();
+            int position = offsets[polygonIndex] + checkElementIndex(index);
+            int previous = indices[position];
+            indices[position] = value;
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return isPresent() ? offsets[polygonIndex + 1] - offsets[polygonIndex] : 0;
+        }
+
+        private int checkElementIndex(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return index;
+        }
+    }
+}
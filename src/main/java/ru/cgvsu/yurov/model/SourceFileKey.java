@@ -0,0 +1,50 @@
+package ru.cgvsu.yurov.model;
+
+import java.util.Objects;
+
+// Описание исходного файла, из которого получен бинарный файл модели: размер, время изменения, хеш содержимого
+// и флаги чтения. По нему можно понять, что исходный файл не изменился с момента записи бинарного
+public final class SourceFileKey {
+    public static final SourceFileKey NONE = new SourceFileKey(0, 0, 0, 0);
+
+    private final long size;
+    private final long lastModified;
+    private final long hash;
+    private final int flags;
+
+    public SourceFileKey(long size, long lastModified, long hash, int flags) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.hash = hash;
+        this.flags = flags;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SourceFileKey key = (SourceFileKey) o;
+        return size == key.size && lastModified == key.lastModified && hash == key.hash && flags == key.flags;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(size, lastModified, hash, flags);
+    }
+}
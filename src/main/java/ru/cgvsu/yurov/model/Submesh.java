@@ -0,0 +1,58 @@
+package ru.cgvsu.yurov.model;
+
+import java.util.Objects;
+
+// Полигоны с номерами [start, end), которые в файле идут подряд после одной строки "usemtl".
+// Рендерер рисует подсетку одним вызовом с одним материалом
+public class Submesh {
+    private final String material;
+    private final int start;
+    private int end;
+
+    public Submesh(String material, int start, int end) {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid polygon range: [" + start + ", " + end + ").");
+        }
+        this.material = material;
+        this.start = start;
+        this.end = end;
+    }
+
+    void setEnd(int end) {
+        this.end = end;
+    }
+
+    public String getMaterial() {
+        return material;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public int getPolygonsSize() {
+        return end - start;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Submesh submesh = (Submesh) o;
+        return start == submesh.start && end == submesh.end && Objects.equals(material, submesh.material);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(material, start, end);
+    }
+
+    @Override
+    public String toString() {
+        return "Submesh{" + material + ", [" + start + ", " + end + ")}";
+    }
+}
@@ -0,0 +1,110 @@
+package ru.cgvsu.yurov.mtlreader;
+
+import ru.cgvsu.yurov.math.Vector3f;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Материал из строки "newmtl" файла MTL. Значения по умолчанию - как у материала по умолчанию в описании формата.
+// Текстуры хранятся по токену строки в нижнем регистре ("map_kd", "bump", ...), значение - имя файла как в MTL.
+// Материалы общие для всех моделей, которые используют библиотеку, поэтому после чтения не изменяются
+public class Material {
+    private final String name;
+    private Vector3f ambientColor = new Vector3f(0.2f, 0.2f, 0.2f);
+    private Vector3f diffuseColor = new Vector3f(0.8f, 0.8f, 0.8f);
+    private Vector3f specularColor = new Vector3f(1, 1, 1);
+    private Vector3f emissiveColor = new Vector3f(0, 0, 0);
+    private float shininess = 0;
+    private float opacity = 1;
+    private int illuminationModel = 2;
+    private final Map<String, String> textureMaps = new HashMap<>();
+
+    Material(String name) {
+        this.name = name;
+    }
+
+    void setAmbientColor(Vector3f ambientColor) {
+        this.ambientColor = ambientColor;
+    }
+
+    void setDiffuseColor(Vector3f diffuseColor) {
+        this.diffuseColor = diffuseColor;
+    }
+
+    void setSpecularColor(Vector3f specularColor) {
+        this.specularColor = specularColor;
+    }
+
+    void setEmissiveColor(Vector3f emissiveColor) {
+        this.emissiveColor = emissiveColor;
+    }
+
+    void setShininess(float shininess) {
+        this.shininess = shininess;
+    }
+
+    void setOpacity(float opacity) {
+        this.opacity = opacity;
+    }
+
+    void setIlluminationModel(int illuminationModel) {
+        this.illuminationModel = illuminationModel;
+    }
+
+    void setTextureMap(String token, String fileName) {
+        textureMaps.put(token, fileName);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Ka
+    public Vector3f getAmbientColor() {
+        return ambientColor;
+    }
+
+    // Kd
+    public Vector3f getDiffuseColor() {
+        return diffuseColor;
+    }
+
+    // Ks
+    public Vector3f getSpecularColor() {
+        return specularColor;
+    }
+
+    // Ke
+    public Vector3f getEmissiveColor() {
+        return emissiveColor;
+    }
+
+    // Ns
+    public float getShininess() {
+        return shininess;
+    }
+
+    // d или 1 - Tr
+    public float getOpacity() {
+        return opacity;
+    }
+
+    // illum
+    public int getIlluminationModel() {
+        return illuminationModel;
+    }
+
+    public String getDiffuseMap() {
+        return textureMaps.get("map_kd");
+    }
+
+    public String getTextureMap(String token) {
+        return textureMaps.get(token.toLowerCase(Locale.ROOT));
+    }
+
+    public Map<String, String> getTextureMaps() {
+        return Collections.unmodifiableMap(textureMaps);
+    }
+}
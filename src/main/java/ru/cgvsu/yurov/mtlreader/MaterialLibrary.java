@@ -0,0 +1,28 @@
+package ru.cgvsu.yurov.mtlreader;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Материалы одного файла MTL по именам в порядке строк "newmtl"
+public class MaterialLibrary {
+    private final Map<String, Material> materials;
+
+    MaterialLibrary(Map<String, Material> materials) {
+        this.materials = Collections.unmodifiableMap(new LinkedHashMap<>(materials));
+    }
+
+    // Материал с таким именем или null, если его нет в библиотеке
+    public Material getMaterial(String name) {
+        return materials.get(name);
+    }
+
+    public Collection<Material> getMaterials() {
+        return materials.values();
+    }
+
+    public int size() {
+        return materials.size();
+    }
+}
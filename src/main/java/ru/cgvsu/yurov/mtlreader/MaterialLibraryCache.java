@@ -0,0 +1,125 @@
+package ru.cgvsu.yurov.mtlreader;
+
+import ru.cgvsu.yurov.model.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Кэш библиотек материалов по пути к файлу MTL. Модели одной сцены обычно ссылаются на одни и те же библиотеки,
+// поэтому каждый файл читается один раз, а все модели получают одни и те же объекты MaterialLibrary и Material.
+// Одновременные запросы одного пути ждут одну загрузку, при изменении времени изменения файла библиотека
+// читается заново. Библиотеки маленькие, поэтому кэш не ограничен по размеру
+public class MaterialLibraryCache {
+    private final Map<Path, Entry> entries = new HashMap<>();
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    public MaterialLibrary get(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        long lastModified = getLastModified(key);
+
+        Entry entry;
+        boolean isLoader = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.lastModified == lastModified) {
+                hitCount++;
+            } else {
+                missCount++;
+                entry = new Entry(lastModified);
+                entries.put(key, entry);
+                isLoader = true;
+            }
+        }
+
+        if (isLoader) {
+            load(key, entry);
+        }
+        try {
+            return entry.library.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            if (exception.getCause() instanceof Error) {
+                throw (Error) exception.getCause();
+            }
+            throw new RuntimeException(exception.getCause());
+        }
+    }
+
+    private void load(Path key, Entry entry) {
+        try {
+            entry.library.complete(MtlReader.read(key));
+        } catch (RuntimeException | Error exception) {
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    entries.remove(key);
+                }
+            }
+            entry.library.completeExceptionally(exception);
+        }
+    }
+
+    // Материалы всех библиотек модели по именам. Имена библиотек из строк "mtllib" отсчитываются от папки файла
+    // модели objPath. Библиотеки, которых нет на диске, пропускаются: у их материалов рендерер возьмет материал по
+    // умолчанию. Если материал с одним именем есть в нескольких библиотеках, берется из первой
+    public Map<String, Material> getMaterials(Model model, Path objPath) {
+        Path directory = objPath.toAbsolutePath().getParent();
+        Map<String, Material> materials = new LinkedHashMap<>();
+        for (String fileName : model.getMaterialLibraries()) {
+            Path path = directory == null ? Path.of(fileName) : directory.resolve(fileName);
+            if (!Files.isRegularFile(path)) {
+                continue;
+            }
+            for (Material material : get(path).getMaterials()) {
+                materials.putIfAbsent(material.getName(), material);
+            }
+        }
+        return Collections.unmodifiableMap(materials);
+    }
+
+    public synchronized void invalidate(Path path) {
+        entries.remove(path.toAbsolutePath().normalize());
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static long getLastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    public synchronized int getEntriesCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    private static class Entry {
+        private final long lastModified;
+        private final CompletableFuture<MaterialLibrary> library = new CompletableFuture<>();
+
+        Entry(long lastModified) {
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ru.cgvsu.yurov.mtlreader;
+
+import ru.cgvsu.yurov.math.Vector3f;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Чтение библиотеки материалов MTL. Файлы MTL маленькие, поэтому читаются построчно через BufferedReader.
+// Токены не зависят от регистра. Неизвестные строки и строки до первой "newmtl" пропускаются, цвета в виде
+// "spectral" и "xyz" не поддерживаются и тоже пропускаются. У строк текстур опции перед именем файла пропускаются:
+// имя файла - последнее слово строки
+public final class MtlReader {
+    private static final String NEW_MATERIAL_TOKEN = "newmtl";
+    private static final String TEXTURE_MAP_PREFIX = "map_";
+
+    private int lineIndex = 0;
+    private final Map<String, Material> materials = new LinkedHashMap<>();
+    private Material material = null;
+
+    private MtlReader() {}
+
+    public static MaterialLibrary read(Path path) {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return new MtlReader().readLibrary(reader);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    public static MaterialLibrary read(String content) {
+        try {
+            return new MtlReader().readLibrary(new BufferedReader(new StringReader(content)));
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    private MaterialLibrary readLibrary(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineIndex++;
+            String[] words = line.trim().split("\\s+");
+            if (words[0].isEmpty() || words[0].startsWith("#")) {
+                continue;
+            }
+            handleLine(words[0].toLowerCase(Locale.ROOT), words, line.trim());
+        }
+        return new MaterialLibrary(materials);
+    }
+
+    private void handleLine(String token, String[] words, String line) {
+        if (token.equals(NEW_MATERIAL_TOKEN)) {
+            if (words.length < 2) {
+                throw new MtlReaderException("Material must have a name.", lineIndex);
+            }
+            // Имя - остаток строки после токена, как у групп в OBJ
+            String name = line.substring(words[0].length()).trim().replaceAll("\\s+", " ");
+            material = new Material(name);
+            materials.putIfAbsent(name, material);
+            return;
+        }
+        if (material == null) {
+            return;
+        }
+
+        switch (token) {
+            case "ka" -> parseColor(words, material::setAmbientColor);
+            case "kd" -> parseColor(words, material::setDiffuseColor);
+            case "ks" -> parseColor(words, material::setSpecularColor);
+            case "ke" -> parseColor(words, material::setEmissiveColor);
+            case "ns" -> material.setShininess(parseFloat(lastWord(words)));
+            case "d" -> material.setOpacity(parseFloat(lastWord(words)));
+            case "tr" -> material.setOpacity(1 - parseFloat(lastWord(words)));
+            case "illum" -> material.setIlluminationModel(parseInt(lastWord(words)));
+            case "bump", "disp", "decal", "refl", "norm" -> material.setTextureMap(token, lastWord(words));
+            default -> {
+                if (token.startsWith(TEXTURE_MAP_PREFIX)) {
+                    material.setTextureMap(token, lastWord(words));
+                }
+            }
+        }
+    }
+
+    private interface ColorSetter {
+        void set(Vector3f color);
+    }
+
+    // Цвет из трех чисел или из одного, которое повторяется для всех компонент
+    private void parseColor(String[] words, ColorSetter setter) {
+        if (words.length < 2) {
+            throw new MtlReaderException("Too few arguments.", lineIndex);
+        }
+        String first = words[1].toLowerCase(Locale.ROOT);
+        if (first.equals("spectral") || first.equals("xyz")) {
+            return;
+        }
+        float r = parseFloat(words[1]);
+        if (words.length < 4) {
+            setter.set(new Vector3f(r, r, r));
+        } else {
+            setter.set(new Vector3f(r, parseFloat(words[2]), parseFloat(words[3])));
+        }
+    }
+
+    private String lastWord(String[] words) {
+        if (words.length < 2) {
+            throw new MtlReaderException("Too few arguments.", lineIndex);
+        }
+        return words[words.length - 1];
+    }
+
+    private float parseFloat(String word) {
+        try {
+            return Float.parseFloat(word);
+        } catch (NumberFormatException exception) {
+            throw new MtlReaderException("Failed to parse float value.", lineIndex);
+        }
+    }
+
+    private int parseInt(String word) {
+        try {
+            return Integer.parseInt(word);
+        } catch (NumberFormatException exception) {
+            throw new MtlReaderException("Failed to parse integer value.", lineIndex);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.cgvsu.yurov.mtlreader;
+
+public class MtlReaderException extends RuntimeException {
+    public MtlReaderException(String errorMessage, int lineIndex) {
+        super("Error parsing MTL file on line: " + lineIndex + ". " + errorMessage);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof MtlReaderException)) {
+            return false;
+        }
+
+        return this.getMessage().equals(((MtlReaderException) obj).getMessage());
+    }
+}
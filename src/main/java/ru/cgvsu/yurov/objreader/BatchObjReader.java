@@ -0,0 +1,100 @@
+package ru.cgvsu.yurov.objreader;
+
+import ru.cgvsu.yurov.model.Model;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+// Чтение многих файлов одновременно. Каждый файл читается обычным ObjReader.read(Path, boolean) в своей задаче,
+// поэтому ожидание диска у одних файлов перекрывается разбором других.
+// На JVM с виртуальными потоками каждая задача получает свой виртуальный поток, а число одновременно читаемых
+// файлов ограничивает семафор; на остальных JVM задачи выполняет пул из parallelism потоков
+final class BatchObjReader {
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+    private BatchObjReader() {}
+
+    static BatchReadResult read(Collection<Path> paths, BatchReadOptions options) {
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(options.getParallelism());
+
+        ExecutorService executor = createExecutor(options);
+        try {
+            List<Future<FileReadResult>> futures = new ArrayList<>(paths.size());
+            for (Path path : paths) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return readFile(path, options.isSoft());
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<FileReadResult> results = new ArrayList<>(futures.size());
+            for (Future<FileReadResult> future : futures) {
+                results.add(future.get());
+            }
+            return new BatchReadResult(results, System.nanoTime() - start);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof Error) {
+                throw (Error) exception.getCause();
+            }
+            throw new RuntimeException(exception.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static FileReadResult readFile(Path path, boolean isSoft) {
+        long start = System.nanoTime();
+        long size = 0;
+        try {
+            size = Files.size(path);
+            Model model = ObjReader.read(path, isSoft);
+            return new FileReadResult(path, model, null, size, System.nanoTime() - start);
+        } catch (IOException exception) {
+            return new FileReadResult(path, null, new RuntimeException(exception), size, System.nanoTime() - start);
+        } catch (RuntimeException exception) {
+            return new FileReadResult(path, null, exception, size, System.nanoTime() - start);
+        }
+    }
+
+    private static ExecutorService createExecutor(BatchReadOptions options) {
+        if (options.isUseVirtualThreads() && NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException | UnsupportedOperationException ignored) {
+                // На Java 19-20 виртуальные потоки - preview-возможность и без --enable-preview недоступны
+            }
+        }
+        return Executors.newFixedThreadPool(options.getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "obj-reader-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor появился в Java 21, а проект собирается под Java 17
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.cgvsu.yurov.objreader;
+
+// Параметры ObjReader.readAll
+public class BatchReadOptions {
+    private boolean isSoft = true;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean useVirtualThreads = true;
+
+    public boolean isSoft() {
+        return isSoft;
+    }
+
+    public BatchReadOptions setSoft(boolean isSoft) {
+        this.isSoft = isSoft;
+        return this;
+    }
+
+    // Сколько файлов может читаться одновременно
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public BatchReadOptions setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    // Виртуальные потоки используются, только если их поддерживает JVM; иначе файлы читает пул из parallelism потоков
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    public BatchReadOptions setUseVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+        return this;
+    }
+}
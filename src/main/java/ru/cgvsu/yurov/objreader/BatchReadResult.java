@@ -0,0 +1,62 @@
+package ru.cgvsu.yurov.objreader;
+
+import java.util.List;
+
+// Результаты ObjReader.readAll в порядке входных путей и общая статистика пакета
+public class BatchReadResult {
+    private final List<FileReadResult> results;
+    private final long elapsedNanos;
+    private final long bytesRead;
+    private final int failedCount;
+
+    BatchReadResult(List<FileReadResult> results, long elapsedNanos) {
+        this.results = List.copyOf(results);
+        this.elapsedNanos = elapsedNanos;
+
+        long bytesRead = 0;
+        int failedCount = 0;
+        for (FileReadResult result : results) {
+            bytesRead += result.getSize();
+            if (!result.isSuccess()) {
+                failedCount++;
+            }
+        }
+        this.bytesRead = bytesRead;
+        this.failedCount = failedCount;
+    }
+
+    public List<FileReadResult> getResults() {
+        return results;
+    }
+
+    public int getFilesCount() {
+        return results.size();
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getFilesPerSecond() {
+        return elapsedNanos == 0 ? 0 : results.size() * 1e9 / elapsedNanos;
+    }
+
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesRead * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d files (%d failed), %d bytes in %.3f ms: %.1f files/s, %.1f MB/s",
+                results.size(), failedCount, bytesRead, elapsedNanos / 1e6,
+                getFilesPerSecond(), getBytesPerSecond() / (1 << 20));
+    }
+}
@@ -0,0 +1,26 @@
+package ru.cgvsu.yurov.objreader;
+
+import ru.cgvsu.yurov.objreader.exceptions.*;
+
+// Вид ошибки диагностики - какое исключение было бы выброшено при обычном чтении
+public enum DiagnosticKind {
+    TOKEN(TokenException.class),
+    ARGUMENTS_SIZE(ArgumentsSizeException.class),
+    PARSING(ParsingException.class),
+    FACE_WORD_TYPE(FaceWordTypeException.class),
+    FACE_WORD_INDEX(FaceWordIndexException.class),
+    TEXTURE(TextureException.class),
+    GROUP_NAME(GroupNameException.class),
+    NAME(NameException.class),
+    DECIMAL_SEPARATOR(RuntimeException.class);
+
+    private final Class<? extends RuntimeException> exceptionType;
+
+    DiagnosticKind(Class<? extends RuntimeException> exceptionType) {
+        this.exceptionType = exceptionType;
+    }
+
+    public Class<? extends RuntimeException> getExceptionType() {
+        return exceptionType;
+    }
+}
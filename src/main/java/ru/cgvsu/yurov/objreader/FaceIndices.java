@@ -0,0 +1,68 @@
+package ru.cgvsu.yurov.objreader;
+
+import java.util.Arrays;
+
+// Индексы вершин одного полигона в переиспользуемых массивах.
+// Для каждого слова полигона в маску wordTypes записывается бит его WordType,
+// поэтому проверка "все слова одного типа" - это проверка, что в маске установлен один бит
+final class FaceIndices {
+    private static final WordType[] WORD_TYPES = WordType.values();
+
+    private int[] vertexIndices = new int[16];
+    private int[] textureVertexIndices = new int[16];
+    private int[] normalIndices = new int[16];
+    private int size;
+    private int wordTypes;
+
+    void clear() {
+        size = 0;
+        wordTypes = 0;
+    }
+
+    void add(int vertexIndex, int textureVertexIndex, int normalIndex, WordType wordType) {
+        if (size == vertexIndices.length) {
+            vertexIndices = Arrays.copyOf(vertexIndices, size * 2);
+            textureVertexIndices = Arrays.copyOf(textureVertexIndices, size * 2);
+            normalIndices = Arrays.copyOf(normalIndices, size * 2);
+        }
+        vertexIndices[size] = vertexIndex;
+        textureVertexIndices[size] = textureVertexIndex;
+        normalIndices[size] = normalIndex;
+        size++;
+        wordTypes |= 1 << wordType.ordinal();
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean hasSeveralWordTypes() {
+        return Integer.bitCount(wordTypes) > 1;
+    }
+
+    WordType getWordType() {
+        return wordTypes == 0 ? null : WORD_TYPES[Integer.numberOfTrailingZeros(wordTypes)];
+    }
+
+    boolean hasTexture() {
+        WordType wordType = getWordType();
+        return wordType == WordType.VERTEX_TEXTURE || wordType == WordType.VERTEX_TEXTURE_NORMAL;
+    }
+
+    boolean hasNormals() {
+        WordType wordType = getWordType();
+        return wordType == WordType.VERTEX_NORMAL || wordType == WordType.VERTEX_TEXTURE_NORMAL;
+    }
+
+    int[] getVertexIndices() {
+        return vertexIndices;
+    }
+
+    int[] getTextureVertexIndices() {
+        return textureVertexIndices;
+    }
+
+    int[] getNormalIndices() {
+        return normalIndices;
+    }
+}
@@ -2,7 +2,19 @@ package ru.cgvsu.yurov.objreader;
 
 import ru.cgvsu.yurov.objreader.exceptions.*;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 public class FaceWord {
+    private static final int MAX_PARTS = 3;
+    private static final long INVALID = Long.MIN_VALUE;
+
+    // Коды результата tryParse
+    static final int VALID = 0;
+    static final int FEW_PARTS = 1;
+    static final int MANY_PARTS = 2;
+    static final int INVALID_INDEX = 3;
+
     private Integer vertexIndex = null;
     private Integer textureVertexIndex = null;
     private Integer normalIndex = null;
@@ -10,49 +22,129 @@ public class FaceWord {
     private FaceWord() {}
 
     public static FaceWord parse(String word, int lineIndex, boolean isSoft) {
-        FaceWord faceWord = new FaceWord();
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        FaceIndices faceIndices = new FaceIndices();
+        parse(ByteBuffer.wrap(bytes), 0, bytes.length, lineIndex, isSoft, faceIndices);
 
-        String[] indices = word.split("/");
-        if (indices.length == 0) {
-            throw new ArgumentsSizeException(ArgumentsErrorType.FEW_IN_WORD, lineIndex);
+        FaceWord faceWord = new FaceWord();
+        faceWord.vertexIndex = faceIndices.getVertexIndices()[0];
+        if (faceIndices.hasTexture()) {
+            faceWord.textureVertexIndex = faceIndices.getTextureVertexIndices()[0];
         }
-
-        String vertexIndexString = indices[0];
-        try {
-            faceWord.vertexIndex = Integer.parseInt(vertexIndexString) - 1;
-        } catch (NumberFormatException exception) {
-            throw new ParsingException("integer", lineIndex);
+        if (faceIndices.hasNormals()) {
+            faceWord.normalIndex = faceIndices.getNormalIndices()[0];
         }
+        return faceWord;
+    }
 
-        if (indices.length > 1) {
-            String textureVertexIndexString = indices[1];
-            if (!textureVertexIndexString.isEmpty()) {
-                try {
-                    faceWord.textureVertexIndex = Integer.parseInt(textureVertexIndexString) - 1;
-                } catch (NumberFormatException exception) {
-                    throw new ParsingException("integer", lineIndex);
-                }
+    public static FaceWord parse(String word, int lineIndex) {
+        return parse(word, lineIndex, true);
+    }
+
+    // Разбирает слово из диапазона [start, end) буфера и дописывает его индексы в faceIndices.
+    // Поведение совпадает с разбором word.split("/"): пустые части в конце слова отбрасываются
+    static void parse(ByteBuffer buffer, int start, int end, int lineIndex, boolean isSoft, FaceIndices faceIndices) {
+        switch (tryParse(buffer, start, end, isSoft, faceIndices)) {
+            case FEW_PARTS -> throw new ArgumentsSizeException(ArgumentsErrorType.FEW_IN_WORD, lineIndex);
+            case MANY_PARTS -> throw new ArgumentsSizeException(ArgumentsErrorType.MANY_IN_WORD, lineIndex);
+            case INVALID_INDEX -> throw new ParsingException("integer", lineIndex);
+            default -> {
             }
         }
-        if (indices.length > 2) {
-            String normalIndexString = indices[2];
-            if (!normalIndexString.isEmpty()) {
-                try {
-                    faceWord.normalIndex = Integer.parseInt(normalIndexString) - 1;
-                } catch (NumberFormatException exception) {
-                    throw new ParsingException("integer", lineIndex);
-                }
+    }
+
+    // То же, что parse, но вместо исключения возвращает код ошибки (VALID, если слово верно)
+    static int tryParse(ByteBuffer buffer, int start, int end, boolean isSoft, FaceIndices faceIndices) {
+        int partStart = start;
+        int partCount = 0;
+        int nonEmptyPartCount = 0;
+        int textureStart = -1;
+        int textureEnd = -1;
+        int normalStart = -1;
+        int normalEnd = -1;
+        int vertexEnd = end;
+
+        for (int i = start; i <= end; i++) {
+            if (i < end && buffer.get(i) != '/') {
+                continue;
             }
+
+            if (partCount == 0) {
+                vertexEnd = i;
+            } else if (partCount == 1) {
+                textureStart = partStart;
+                textureEnd = i;
+            } else if (partCount == 2) {
+                normalStart = partStart;
+                normalEnd = i;
+            }
+            partCount++;
+            if (i > partStart) {
+                nonEmptyPartCount = partCount;
+            }
+            partStart = i + 1;
         }
 
-        if (!isSoft && indices.length > 3) {
-            throw new ArgumentsSizeException(ArgumentsErrorType.MANY_IN_WORD, lineIndex);
+        if (nonEmptyPartCount == 0) {
+            return FEW_PARTS;
         }
-        return faceWord;
+
+        long vertexIndex = parseIndex(buffer, start, vertexEnd);
+
+        boolean hasTexture = nonEmptyPartCount > 1 && textureEnd > textureStart;
+        long textureVertexIndex = hasTexture ? parseIndex(buffer, textureStart, textureEnd) : -1;
+
+        boolean hasNormal = nonEmptyPartCount > 2 && normalEnd > normalStart;
+        long normalIndex = hasNormal ? parseIndex(buffer, normalStart, normalEnd) : -1;
+
+        if (vertexIndex == INVALID || textureVertexIndex == INVALID || normalIndex == INVALID) {
+            return INVALID_INDEX;
+        }
+        if (!isSoft && nonEmptyPartCount > MAX_PARTS) {
+            return MANY_PARTS;
+        }
+
+        faceIndices.add((int) vertexIndex, (int) textureVertexIndex, (int) normalIndex,
+                getWordType(hasTexture, hasNormal));
+        return VALID;
     }
 
-    public static FaceWord parse(String word, int lineIndex) {
-        return parse(word, lineIndex, true);
+    // Аналог Integer.parseInt(...) - 1 без создания строки. Вместо исключения возвращает INVALID
+    private static long parseIndex(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean isNegative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            isNegative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            return INVALID;
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+            if (value > -(long) Integer.MIN_VALUE) {
+                return INVALID;
+            }
+        }
+        if (isNegative) {
+            value = -value;
+        } else if (value > Integer.MAX_VALUE) {
+            return INVALID;
+        }
+        return (int) value - 1;
+    }
+
+    private static WordType getWordType(boolean hasTexture, boolean hasNormal) {
+        if (hasTexture) {
+            return hasNormal ? WordType.VERTEX_TEXTURE_NORMAL : WordType.VERTEX_TEXTURE;
+        }
+        return hasNormal ? WordType.VERTEX_NORMAL : WordType.VERTEX;
     }
 
     public WordType getWordType() {
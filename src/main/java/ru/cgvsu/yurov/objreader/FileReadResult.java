@@ -0,0 +1,49 @@
+package ru.cgvsu.yurov.objreader;
+
+import ru.cgvsu.yurov.model.Model;
+
+import java.nio.file.Path;
+
+// Результат чтения одного файла из ObjReader.readAll: либо модель, либо исключение
+public class FileReadResult {
+    private final Path path;
+    private final Model model;
+    private final RuntimeException exception;
+    private final long size;
+    private final long elapsedNanos;
+
+    FileReadResult(Path path, Model model, RuntimeException exception, long size, long elapsedNanos) {
+        this.path = path;
+        this.model = model;
+        this.exception = exception;
+        this.size = size;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    // null, если файл не удалось прочитать
+    public Model getModel() {
+        return model;
+    }
+
+    // Обычно ObjReaderException; ошибки ввода-вывода и разных разделителей дробной части - RuntimeException,
+    // как и у ObjReader.read
+    public RuntimeException getException() {
+        return exception;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,153 @@
+package ru.cgvsu.yurov.objreader;
+
+import ru.cgvsu.yurov.objreader.exceptions.ParsingException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Разбор десятичных чисел прямо из байтов, без DecimalFormat и промежуточных строк.
+// Как и DecimalFormat, разбирает самое длинное число в начале слова, а остаток слова игнорирует.
+// Разделителем дробной части может быть и точка, и запятая, поддерживается экспонента (e или E).
+final class FloatParser {
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final int MAX_FAST_EXPONENT = 22;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_EXPONENT = 1000;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private FloatParser() {}
+
+    static float parse(String word, int lineIndex) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        return parse(ByteBuffer.wrap(bytes), 0, bytes.length, lineIndex);
+    }
+
+    static float parse(ByteBuffer buffer, int start, int end, int lineIndex) {
+        float value = parseOrNaN(buffer, start, end);
+        if (Float.isNaN(value)) {
+            throw new ParsingException("float", lineIndex);
+        }
+        return value;
+    }
+
+    // То же, что parse, но вместо исключения возвращает NaN: из цифр, точки и экспоненты NaN получиться не может
+    static float parseOrNaN(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean isNegative = false;
+        if (i < end && buffer.get(i) == '-') {
+            isNegative = true;
+            i++;
+        }
+
+        long mantissa = 0;
+        int mantissaDigits = 0;
+        int exponent = 0;
+        boolean isTruncated = false;
+        boolean sawDigit = false;
+
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            sawDigit = true;
+            if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) {
+                    mantissaDigits++;
+                }
+            } else {
+                exponent++;
+                isTruncated |= digit != 0;
+            }
+        }
+
+        if (i < end && (buffer.get(i) == '.' || buffer.get(i) == ',')) {
+            for (i++; i < end; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                sawDigit = true;
+                if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + digit;
+                    exponent--;
+                    if (mantissa != 0) {
+                        mantissaDigits++;
+                    }
+                } else {
+                    isTruncated |= digit != 0;
+                }
+            }
+        }
+
+        if (!sawDigit) {
+            return Float.NaN;
+        }
+
+        if (i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+            int j = i + 1;
+            boolean isExponentNegative = false;
+            if (j < end && (buffer.get(j) == '-' || buffer.get(j) == '+')) {
+                isExponentNegative = buffer.get(j) == '-';
+                j++;
+            }
+
+            int explicitExponent = 0;
+            int exponentStart = j;
+            for (; j < end; j++) {
+                int digit = buffer.get(j) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                if (explicitExponent < MAX_EXPONENT) {
+                    explicitExponent = explicitExponent * 10 + digit;
+                }
+            }
+
+            // "1e" или "1e-" - экспоненты нет, число заканчивается перед 'e'
+            if (j > exponentStart) {
+                exponent += isExponentNegative ? -explicitExponent : explicitExponent;
+                i = j;
+            }
+        }
+
+        if (mantissa == 0) {
+            return isNegative ? -0.0F : 0.0F;
+        }
+
+        if (!isTruncated && mantissa < MAX_EXACT_MANTISSA
+                && exponent >= -MAX_FAST_EXPONENT && exponent <= MAX_FAST_EXPONENT) {
+            // Мантисса и степень десяти точно представимы в double, поэтому одна операция дает
+            // правильно округленный double. Двойное округление в float ошибается, только если этот double
+            // попал ровно в середину между соседними float, - такие числа отдаем в запасной путь
+            double value = exponent < 0
+                    ? mantissa / POWERS_OF_TEN[-exponent]
+                    : mantissa * POWERS_OF_TEN[exponent];
+            if (value >= Float.MIN_NORMAL && value <= Float.MAX_VALUE && !isFloatMidpoint(value)) {
+                float result = (float) value;
+                return isNegative ? -result : result;
+            }
+        }
+
+        return parseSlow(buffer, start, i);
+    }
+
+    private static boolean isFloatMidpoint(double value) {
+        return (Double.doubleToRawLongBits(value) & 0x1FFFFFFFL) == 0x10000000L;
+    }
+
+    // Запасной путь для длинных мантисс, больших экспонент и денормализованных чисел
+    private static float parseSlow(ByteBuffer buffer, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            chars[i - start] = b == ',' ? '.' : (char) b;
+        }
+        return Float.parseFloat(new String(chars));
+    }
+}
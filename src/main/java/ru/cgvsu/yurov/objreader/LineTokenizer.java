@@ -0,0 +1,151 @@
+package ru.cgvsu.yurov.objreader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Разбивает строку OBJ файла на слова прямо в байтовом буфере: слова хранятся как пары смещений,
+// поэтому ни на строку, ни на отдельные слова объекты String не создаются.
+// Все значимые символы формата - ASCII, а байты многобайтовых символов UTF-8 никогда с ними не совпадают,
+// поэтому разбор по байтам дает тот же результат, что и split("\\s+") по строке.
+final class LineTokenizer {
+    private static final byte COMMENT = '#';
+
+    private ByteBuffer buffer;
+    private int[] wordStarts = new int[16];
+    private int[] wordEnds = new int[16];
+    private int wordCount;
+    private boolean isBlank;
+    private boolean hasDot;
+    private boolean hasComma;
+
+    private byte[] bytes = new byte[64];
+
+    void tokenize(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        wordCount = 0;
+        isBlank = true;
+        hasDot = false;
+        hasComma = false;
+
+        int wordStart = -1;
+        int i = start;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == COMMENT) {
+                break;
+            }
+
+            if (isWhitespace(b)) {
+                if (wordStart > -1) {
+                    addWord(wordStart, i);
+                    wordStart = -1;
+                } else if (i == start) {
+                    // Как и split("\\s+"), строка с ведущим пробелом начинается с пустого токена
+                    addWord(start, start);
+                }
+                continue;
+            }
+
+            isBlank = false;
+            if (b == '.') {
+                hasDot = true;
+            } else if (b == ',') {
+                hasComma = true;
+            }
+            if (wordStart == -1) {
+                wordStart = i;
+            }
+        }
+
+        if (wordStart > -1) {
+            addWord(wordStart, i);
+        }
+    }
+
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+
+    private void addWord(int start, int end) {
+        if (wordCount == wordStarts.length) {
+            wordStarts = Arrays.copyOf(wordStarts, wordCount * 2);
+            wordEnds = Arrays.copyOf(wordEnds, wordCount * 2);
+        }
+        wordStarts[wordCount] = start;
+        wordEnds[wordCount] = end;
+        wordCount++;
+    }
+
+    boolean isBlank() {
+        return isBlank;
+    }
+
+    boolean hasDot() {
+        return hasDot;
+    }
+
+    boolean hasComma() {
+        return hasComma;
+    }
+
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    int getWordCount() {
+        return wordCount;
+    }
+
+    int getWordStart(int wordIndex) {
+        return wordStarts[wordIndex];
+    }
+
+    int getWordEnd(int wordIndex) {
+        return wordEnds[wordIndex];
+    }
+
+    boolean isToken(String token) {
+        return isWord(0, token);
+    }
+
+    boolean isWord(int wordIndex, String word) {
+        int start = wordStarts[wordIndex];
+        if (wordEnds[wordIndex] - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (buffer.get(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String getWord(int wordIndex) {
+        int start = wordStarts[wordIndex];
+        int length = wordEnds[wordIndex] - start;
+        ensureBytesCapacity(length);
+        buffer.get(start, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Слова, начиная с fromWordIndex, склеенные через один пробел
+    String joinWords(int fromWordIndex) {
+        int length = 0;
+        for (int i = fromWordIndex; i < wordCount; i++) {
+            int wordLength = wordEnds[i] - wordStarts[i];
+            ensureBytesCapacity(length + wordLength + 1);
+            buffer.get(wordStarts[i], bytes, length, wordLength);
+            length += wordLength;
+            bytes[length++] = ' ';
+        }
+        return new String(bytes, 0, Math.max(length - 1, 0), StandardCharsets.UTF_8);
+    }
+
+    private void ensureBytesCapacity(int capacity) {
+        if (bytes.length < capacity) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+        }
+    }
+}
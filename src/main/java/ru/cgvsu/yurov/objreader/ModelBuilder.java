@@ -0,0 +1,207 @@
+package ru.cgvsu.yurov.objreader;
+
+import ru.cgvsu.yurov.model.Group;
+import ru.cgvsu.yurov.model.IntArrayList;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.PolygonStore;
+
+// Обработчик, который собирает из событий парсера Model.
+// Индексы полигона проверяются сразу при его добавлении, пока они еще в кэше: индекс, который меньше числа
+// уже прочитанных элементов, верен. Полигоны со ссылками вперед (на вершины, которые могут появиться в файле позже)
+// запоминаются в списке и проверяются в end() параллельным проходом. Ошибки те же, что у PolygonStore.checkIndices:
+// для первого по порядку неверного полигона и только после чтения всего файла
+public class ModelBuilder implements ObjVisitor {
+    private final Model model = new Model();
+    private Group currentGroup = null;
+    private int currentGroupStart = 0;
+    private Group currentObject = null;
+    private int currentObjectStart = 0;
+    private String currentMaterial = null;
+    private int currentMaterialStart = 0;
+    private ObjLocator locator = null;
+
+    // Номера полигонов со ссылками вперед и первого полигона с индексом, который точно неверен (отрицательный)
+    private final IntArrayList pendingPolygons = new IntArrayList();
+    private int firstInvalidPolygon = -1;
+    boolean isIndicesCheckEnabled = true;
+    // Если задан, неверные индексы всех полигонов записываются сюда вместо исключения
+    ObjDiagnostics diagnostics = null;
+
+    public ModelBuilder() {
+    }
+
+    // Память модели выделяется сразу под все элементы, посчитанные ObjReader.probe
+    public ModelBuilder(ModelSummary summary) {
+        if (summary.getFaceCorners() <= Integer.MAX_VALUE) {
+            model.ensureCapacity(summary.getVertices(), summary.getTextureVertices(), summary.getNormals(),
+                    summary.getFaces(), (int) summary.getFaceCorners());
+        }
+    }
+
+    @Override
+    public void setLocator(ObjLocator locator) {
+        this.locator = locator;
+    }
+
+    @Override
+    public void vertex(float x, float y, float z) {
+        model.addVertex(x, y, z);
+    }
+
+    @Override
+    public void texture(float u, float v) {
+        model.addTextureVertex(u, v);
+    }
+
+    @Override
+    public void normal(float x, float y, float z) {
+        model.addNormal(x, y, z);
+    }
+
+    @Override
+    public void face(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int count) {
+        int lineIndex = locator == null ? 0 : locator.getLineIndex();
+        int polygonIndex = model.getPolygonsSize();
+        model.addPolygon(vertexIndices, textureVertexIndices, normalIndices, count, lineIndex);
+        if (isIndicesCheckEnabled && firstInvalidPolygon < 0) {
+            checkIndices(polygonIndex, vertexIndices, textureVertexIndices, normalIndices, count);
+        }
+    }
+
+    @Override
+    public void group(String name) {
+        closeGroup();
+        currentGroup = new Group(name);
+        currentGroupStart = model.getPolygonsSize();
+    }
+
+    @Override
+    public void object(String name) {
+        closeObject();
+        currentObject = new Group(name);
+        currentObjectStart = model.getPolygonsSize();
+    }
+
+    @Override
+    public void useMaterial(String name) {
+        closeSubmesh();
+        currentMaterial = name;
+        currentMaterialStart = model.getPolygonsSize();
+    }
+
+    @Override
+    public void materialLibrary(String fileName) {
+        model.addMaterialLibrary(fileName);
+    }
+
+    @Override
+    public void smoothingGroup(int group) {
+        model.setSmoothingGroup(model.getPolygonsSize(), group);
+    }
+
+    private static final int VALID = 0;
+    private static final int PENDING = 1;
+    private static final int INVALID = 2;
+
+    private void checkIndices(int polygonIndex, int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices,
+                              int count) {
+        int result = checkIndices(vertexIndices, count, model.getVerticesSize());
+        if (textureVertexIndices != null) {
+            result = Math.max(result, checkIndices(textureVertexIndices, count, model.getTextureVerticesSize()));
+        }
+        if (normalIndices != null) {
+            result = Math.max(result, checkIndices(normalIndices, count, model.getNormalsSize()));
+        }
+
+        if (result == INVALID) {
+            firstInvalidPolygon = polygonIndex;
+        } else if (result == PENDING) {
+            pendingPolygons.addInt(polygonIndex);
+        }
+    }
+
+    private static int checkIndices(int[] indices, int count, int elementsSize) {
+        int result = VALID;
+        for (int i = 0; i < count; i++) {
+            int index = indices[i];
+            if (index < 0) {
+                return INVALID;
+            }
+            if (index >= elementsSize) {
+                result = PENDING;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void end() {
+        close();
+
+        int verticesSize = model.getVerticesSize();
+        int textureVerticesSize = model.getTextureVerticesSize();
+        int normalsSize = model.getNormalsSize();
+        PolygonStore polygons = model.getPolygonStore();
+        if (diagnostics != null) {
+            int invalidPolygonsCount = polygons.reportInvalidIndices(verticesSize, textureVerticesSize, normalsSize,
+                    (type, lineIndex, wordIndex) ->
+                            diagnostics.add(lineIndex, DiagnosticKind.FACE_WORD_INDEX, null, type, wordIndex));
+            // Границы считаются по индексам вершин, поэтому у модели с неверными индексами не считаются
+            if (invalidPolygonsCount == 0) {
+                model.updateBounds();
+            }
+            return;
+        }
+        if (!isIndicesCheckEnabled) {
+            polygons.checkIndicesParallel(verticesSize, textureVerticesSize, normalsSize);
+        } else {
+            // Все полигоны из списка идут раньше firstInvalidPolygon, поэтому проверяются первыми
+            polygons.checkIndicesParallel(pendingPolygons.toIntArray(), pendingPolygons.size(),
+                    verticesSize, textureVerticesSize, normalsSize);
+            if (firstInvalidPolygon >= 0) {
+                polygons.checkIndices(firstInvalidPolygon, verticesSize, textureVerticesSize, normalsSize);
+            }
+        }
+        model.updateBounds();
+    }
+
+    // Закрывает группу, объект и подсетку, к которым относятся последние полигоны
+    void close() {
+        closeGroup();
+        closeObject();
+        closeSubmesh();
+    }
+
+    private void closeGroup() {
+        if (currentGroup != null) {
+            // Полигоны группы - все полигоны, добавленные после строки "g"
+            currentGroup.addRange(currentGroupStart, model.getPolygonsSize());
+            model.addGroup(currentGroup);
+            currentGroup = null;
+        }
+    }
+
+    private void closeObject() {
+        if (currentObject != null) {
+            currentObject.addRange(currentObjectStart, model.getPolygonsSize());
+            model.addObject(currentObject);
+            currentObject = null;
+        }
+    }
+
+    // Материал остается текущим после закрытия: по нему ParallelObjReader продолжает подсетку в следующем куске
+    private void closeSubmesh() {
+        if (currentMaterial != null) {
+            model.addSubmesh(currentMaterial, currentMaterialStart, model.getPolygonsSize());
+            currentMaterialStart = model.getPolygonsSize();
+        }
+    }
+
+    String getCurrentMaterial() {
+        return currentMaterial;
+    }
+
+    public Model getModel() {
+        return model;
+    }
+}
@@ -0,0 +1,177 @@
+package ru.cgvsu.yurov.objreader;
+
+import ru.cgvsu.yurov.model.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Кэш моделей в памяти по пути к файлу. Каждый файл читается один раз: одновременные запросы одного пути ждут
+// одну и ту же загрузку, а следующие получают готовую модель. Если время изменения файла поменялось, модель
+// читается заново. Кэш ограничен суммарным примерным размером моделей (Model.getEstimatedSize) и вытесняет
+// модели, которые дольше всего не запрашивались.
+// Модели общие для всех, кто их запросил, поэтому изменять их нельзя
+public class ModelCache {
+    private final long maxSize;
+    private final boolean isSoft;
+
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    public ModelCache(long maxSize) {
+        this(maxSize, true);
+    }
+
+    public ModelCache(long maxSize, boolean isSoft) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Max size must not be negative: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.isSoft = isSoft;
+    }
+
+    public Model get(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        long lastModified = getLastModified(key);
+
+        Entry entry;
+        boolean isLoader = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.lastModified == lastModified) {
+                hitCount++;
+            } else {
+                if (entry != null) {
+                    remove(key, entry);
+                }
+                missCount++;
+                entry = new Entry(lastModified);
+                entries.put(key, entry);
+                isLoader = true;
+            }
+        }
+
+        if (isLoader) {
+            load(key, entry);
+        }
+        try {
+            return entry.model.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            if (exception.getCause() instanceof Error) {
+                throw (Error) exception.getCause();
+            }
+            throw new RuntimeException(exception.getCause());
+        }
+    }
+
+    private void load(Path key, Entry entry) {
+        Model model;
+        try {
+            model = ObjReader.read(key, isSoft);
+        } catch (RuntimeException | Error exception) {
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    entries.remove(key);
+                }
+            }
+            entry.model.completeExceptionally(exception);
+            return;
+        }
+
+        model.trimToSize();
+        synchronized (this) {
+            if (entries.get(key) == entry) {
+                entry.size = model.getEstimatedSize();
+                size += entry.size;
+                evict();
+            }
+        }
+        entry.model.complete(model);
+    }
+
+    // Вытесняет загруженные модели начиная с самой давно запрошенной, пока размер кэша больше максимального.
+    // Загружающиеся модели не вытесняются: их размер еще не учтен и равен 0
+    private void evict() {
+        Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.size > 0) {
+                iterator.remove();
+                size -= entry.size;
+                evictionCount++;
+            }
+        }
+    }
+
+    private void remove(Path key, Entry entry) {
+        entries.remove(key);
+        size -= entry.size;
+    }
+
+    public synchronized void invalidate(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            remove(key, entry);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    private static long getLastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    // Суммарный примерный размер загруженных моделей в байтах
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getEntriesCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private static class Entry {
+        private final long lastModified;
+        private final CompletableFuture<Model> model = new CompletableFuture<>();
+        private long size = 0;
+
+        Entry(long lastModified) {
+            this.lastModified = lastModified;
+        }
+    }
+}
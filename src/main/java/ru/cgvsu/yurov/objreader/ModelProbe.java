@@ -0,0 +1,145 @@
+package ru.cgvsu.yurov.objreader;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Быстрый подсчет элементов файла: байты просматриваются один раз, числа не разбираются, объекты не создаются.
+// Токен строки определяется так же, как в ObjReader: первое слово строки до пробела или '#', а строка с ведущим
+// пробелом начинается с пустого токена. У строк f считаются слова - это вершины полигона.
+// Состояние разбора строки хранится в полях, поэтому строка может начинаться в одном окне отображения,
+// а заканчиваться в следующем
+final class ModelProbe {
+    private static final int MAPPED_WINDOW_SIZE = 1 << 28;
+
+    private static final int TOKEN = 0;
+    private static final int WORDS = 1;
+    private static final int SKIP = 2;
+
+    private static final int UNKNOWN = 0;
+    private static final int VERTEX = 1;
+    private static final int TEXTURE_VERTEX = 2;
+    private static final int NORMAL = 3;
+    private static final int FACE = 4;
+    private static final int GROUP = 5;
+
+    private final ModelSummary summary = new ModelSummary();
+
+    private int state = TOKEN;
+    private int tokenLength = 0;
+    private byte firstTokenByte;
+    private byte secondTokenByte;
+    private boolean isInWord = false;
+    private boolean isLineEmpty = true;
+    private byte previous = 0;
+
+    private ModelProbe() {}
+
+    static ModelSummary probe(Path path) {
+        ModelProbe probe = new ModelProbe();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAPPED_WINDOW_SIZE) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAPPED_WINDOW_SIZE, size - position));
+                probe.scan(buffer);
+            }
+            probe.summary.bytes = size;
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+        probe.endLine();
+        return probe.summary;
+    }
+
+    private void scan(MappedByteBuffer buffer) {
+        int length = buffer.limit();
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                if (b == '\n' && previous == '\r') {
+                    previous = b;
+                    continue;
+                }
+                previous = b;
+                summary.lines++;
+                endLine();
+                continue;
+            }
+            previous = b;
+            isLineEmpty = false;
+
+            if (state == TOKEN) {
+                if (b == '#' || LineTokenizer.isWhitespace(b)) {
+                    state = endToken() == FACE && b != '#' ? WORDS : SKIP;
+                } else {
+                    if (tokenLength == 0) {
+                        firstTokenByte = b;
+                    } else if (tokenLength == 1) {
+                        secondTokenByte = b;
+                    }
+                    tokenLength++;
+                }
+            } else if (state == WORDS) {
+                if (b == '#') {
+                    state = SKIP;
+                } else if (LineTokenizer.isWhitespace(b)) {
+                    isInWord = false;
+                } else if (!isInWord) {
+                    isInWord = true;
+                    summary.faceCorners++;
+                }
+            }
+        }
+    }
+
+    private void endLine() {
+        if (state == TOKEN && !isLineEmpty) {
+            endToken();
+        }
+        if (!isLineEmpty && previous != '\n' && previous != '\r') {
+            // Последняя строка файла без перевода строки
+            summary.lines++;
+        }
+        state = TOKEN;
+        tokenLength = 0;
+        isInWord = false;
+        isLineEmpty = true;
+    }
+
+    // Определяет тип токена и учитывает строку в счетчиках
+    private int endToken() {
+        int type = getTokenType();
+        switch (type) {
+            case VERTEX -> summary.vertices++;
+            case TEXTURE_VERTEX -> summary.textureVertices++;
+            case NORMAL -> summary.normals++;
+            case FACE -> summary.faces++;
+            case GROUP -> summary.groups++;
+            default -> {
+            }
+        }
+        return type;
+    }
+
+    private int getTokenType() {
+        if (tokenLength == 1) {
+            return switch (firstTokenByte) {
+                case 'v' -> VERTEX;
+                case 'f' -> FACE;
+                case 'g' -> GROUP;
+                default -> UNKNOWN;
+            };
+        }
+        if (tokenLength == 2 && firstTokenByte == 'v') {
+            return switch (secondTokenByte) {
+                case 't' -> TEXTURE_VERTEX;
+                case 'n' -> NORMAL;
+                default -> UNKNOWN;
+            };
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.cgvsu.yurov.objreader;
+
+// Количество элементов OBJ файла, посчитанное ObjReader.probe без разбора чисел.
+// Для файла, который читается без ошибок, числа совпадают с размерами прочитанной модели
+public class ModelSummary {
+    long bytes;
+    int lines;
+    int vertices;
+    int textureVertices;
+    int normals;
+    int faces;
+    long faceCorners;
+    int groups;
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public int getVertices() {
+        return vertices;
+    }
+
+    public int getTextureVertices() {
+        return textureVertices;
+    }
+
+    public int getNormals() {
+        return normals;
+    }
+
+    public int getFaces() {
+        return faces;
+    }
+
+    // Сумма количества вершин всех полигонов, то есть размер массивов индексов PolygonStore
+    public long getFaceCorners() {
+        return faceCorners;
+    }
+
+    public int getGroups() {
+        return groups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bytes, %d lines: %d vertices, %d texture vertices, %d normals, "
+                        + "%d faces with %d corners, %d groups",
+                bytes, lines, vertices, textureVertices, normals, faces, faceCorners, groups);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.cgvsu.yurov.objreader;
+
+import ru.cgvsu.yurov.model.BinaryModelReader;
+import ru.cgvsu.yurov.model.BinaryModelWriter;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.SourceFileKey;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+// Кэш разобранных моделей в бинарном формате рядом с исходным файлом: model.obj -> model.obj.objcache.
+// Кэш действителен, если совпадают размер, время изменения и хеш содержимого исходного файла и режим чтения.
+// Хеш считается только тогда, когда размер и время изменения уже совпали, и требует одного прохода
+// по файлу без разбора, поэтому повторное чтение упирается в скорость диска
+final class ObjCache {
+    static final String CACHE_EXTENSION = ".objcache";
+
+    private static final int SOFT_FLAG = 1;
+    private static final int HASH_WINDOW_SIZE = 1 << 28;
+
+    private ObjCache() {}
+
+    static Path getCachePath(Path path) {
+        return path.resolveSibling(path.getFileName() + CACHE_EXTENSION);
+    }
+
+    static Model read(Path path, boolean isSoft) {
+        Path cachePath = getCachePath(path);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            int flags = isSoft ? SOFT_FLAG : 0;
+
+            Long hash = null;
+            SourceFileKey cachedKey = BinaryModelReader.readSourceKey(cachePath);
+            if (cachedKey != null && cachedKey.getSize() == size && cachedKey.getLastModified() == lastModified
+                    && cachedKey.getFlags() == flags) {
+                hash = hash(path);
+                if (cachedKey.getHash() == hash) {
+                    try {
+                        return BinaryModelReader.read(cachePath);
+                    } catch (RuntimeException ignored) {
+                        // Поврежденный кэш просто перезаписывается
+                    }
+                }
+            }
+
+            Model model = ObjReader.read(path, isSoft);
+            if (hash == null) {
+                hash = hash(path);
+            }
+            writeCache(model, cachePath, new SourceFileKey(size, lastModified, hash, flags));
+            return model;
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    // Кэш необязателен: если его не удалось записать (например, каталог только для чтения), модель все равно возвращается
+    private static void writeCache(Model model, Path cachePath, SourceFileKey key) {
+        Path tempPath = null;
+        try {
+            tempPath = Files.createTempFile(cachePath.toAbsolutePath().getParent(),
+                    cachePath.getFileName().toString(), ".tmp");
+            BinaryModelWriter.write(model, tempPath, key);
+            Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tempPath = null;
+        } catch (IOException | RuntimeException ignored) {
+        } finally {
+            if (tempPath != null) {
+                try {
+                    Files.deleteIfExists(tempPath);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    // 64-битный хеш содержимого: слова по 8 байт перемешиваются умножением и сдвигом, хвост - побайтно
+    static long hash(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long hash = size * 0x9E3779B97F4A7C15L;
+            for (long position = 0; position < size; position += HASH_WINDOW_SIZE) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(HASH_WINDOW_SIZE, size - position));
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                while (buffer.remaining() >= Long.BYTES) {
+                    hash = mix(hash, buffer.getLong());
+                }
+                while (buffer.hasRemaining()) {
+                    hash = mix(hash, buffer.get());
+                }
+            }
+            return hash ^ (hash >>> 29);
+        }
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value * 0xC2B2AE3D27D4EB4FL;
+        hash = Long.rotateLeft(hash, 31);
+        return hash * 0x9E3779B97F4A7C15L;
+    }
+}
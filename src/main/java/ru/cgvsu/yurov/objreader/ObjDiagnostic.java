@@ -0,0 +1,89 @@
+package ru.cgvsu.yurov.objreader;
+
+import ru.cgvsu.yurov.objreader.exceptions.*;
+
+import java.util.Objects;
+
+// Одна ошибка файла, записанная без создания исключения. detail - уточнение, которое входит в сообщение
+// исключения: тип числа для PARSING, элемент без имени для NAME, тип индекса для FACE_WORD_INDEX.
+// wordIndex - номер слова полигона с 1 для FACE_WORD_INDEX, иначе 0
+public class ObjDiagnostic {
+    private final int lineIndex;
+    private final DiagnosticKind kind;
+    private final ArgumentsErrorType argumentsErrorType;
+    private final String detail;
+    private final int wordIndex;
+
+    ObjDiagnostic(int lineIndex, DiagnosticKind kind, ArgumentsErrorType argumentsErrorType, String detail,
+                  int wordIndex) {
+        this.lineIndex = lineIndex;
+        this.kind = kind;
+        this.argumentsErrorType = argumentsErrorType;
+        this.detail = detail;
+        this.wordIndex = wordIndex;
+    }
+
+    static RuntimeException createException(int lineIndex, DiagnosticKind kind,
+                                            ArgumentsErrorType argumentsErrorType, String detail, int wordIndex) {
+        return switch (kind) {
+            case TOKEN -> new TokenException(lineIndex);
+            case ARGUMENTS_SIZE -> new ArgumentsSizeException(argumentsErrorType, lineIndex);
+            case PARSING -> new ParsingException(detail, lineIndex);
+            case FACE_WORD_TYPE -> new FaceWordTypeException(lineIndex);
+            case FACE_WORD_INDEX -> new FaceWordIndexException(detail, lineIndex, wordIndex);
+            case TEXTURE -> new TextureException(lineIndex);
+            case GROUP_NAME -> new GroupNameException(lineIndex);
+            case NAME -> new NameException(detail, lineIndex);
+            case DECIMAL_SEPARATOR -> new RuntimeException("Two different decimal separators used in one file.");
+        };
+    }
+
+    public int getLineIndex() {
+        return lineIndex;
+    }
+
+    public DiagnosticKind getKind() {
+        return kind;
+    }
+
+    // Для ARGUMENTS_SIZE, иначе null
+    public ArgumentsErrorType getArgumentsErrorType() {
+        return argumentsErrorType;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public int getWordIndex() {
+        return wordIndex;
+    }
+
+    // Исключение, которое было бы выброшено при обычном чтении. Создается только по запросу
+    public RuntimeException toException() {
+        return createException(lineIndex, kind, argumentsErrorType, detail, wordIndex);
+    }
+
+    public String getMessage() {
+        return toException().getMessage();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ObjDiagnostic diagnostic = (ObjDiagnostic) o;
+        return lineIndex == diagnostic.lineIndex && wordIndex == diagnostic.wordIndex && kind == diagnostic.kind
+                && argumentsErrorType == diagnostic.argumentsErrorType && Objects.equals(detail, diagnostic.detail);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lineIndex, kind, argumentsErrorType, detail, wordIndex);
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -0,0 +1,61 @@
+package ru.cgvsu.yurov.objreader;
+
+import ru.cgvsu.yurov.objreader.exceptions.ArgumentsErrorType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// Ошибки одного файла, собранные при чтении с диагностикой. Хранится не больше maxSize ошибок, остальные
+// только считаются, поэтому файл с миллионом плохих строк не занимает лишней памяти.
+// Ошибки индексов полигонов находятся после чтения всего файла, поэтому getDiagnostics сортирует ошибки по строкам
+public class ObjDiagnostics {
+    private final int maxSize;
+    private final List<ObjDiagnostic> diagnostics = new ArrayList<>();
+    private int errorsCount = 0;
+    private boolean isSorted = true;
+
+    public ObjDiagnostics(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Max size must not be negative: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    void add(int lineIndex, DiagnosticKind kind, ArgumentsErrorType argumentsErrorType, String detail, int wordIndex) {
+        errorsCount++;
+        if (diagnostics.size() < maxSize) {
+            if (!diagnostics.isEmpty() && diagnostics.get(diagnostics.size() - 1).getLineIndex() > lineIndex) {
+                isSorted = false;
+            }
+            diagnostics.add(new ObjDiagnostic(lineIndex, kind, argumentsErrorType, detail, wordIndex));
+        }
+    }
+
+    public List<ObjDiagnostic> getDiagnostics() {
+        if (!isSorted) {
+            diagnostics.sort(Comparator.comparingInt(ObjDiagnostic::getLineIndex));
+            isSorted = true;
+        }
+        return Collections.unmodifiableList(diagnostics);
+    }
+
+    // Число всех найденных ошибок, в том числе не сохраненных в списке
+    public int getErrorsCount() {
+        return errorsCount;
+    }
+
+    public boolean hasErrors() {
+        return errorsCount > 0;
+    }
+
+    // true, если ошибок больше, чем поместилось в список
+    public boolean isTruncated() {
+        return errorsCount > diagnostics.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
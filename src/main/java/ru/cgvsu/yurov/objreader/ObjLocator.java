@@ -0,0 +1,6 @@
+package ru.cgvsu.yurov.objreader;
+
+// Позволяет ObjVisitor узнать, на какой строке файла находится парсер
+public interface ObjLocator {
+    int getLineIndex();
+}
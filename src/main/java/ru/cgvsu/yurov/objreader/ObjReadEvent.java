@@ -0,0 +1,84 @@
+package ru.cgvsu.yurov.objreader;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Событие JDK Flight Recorder для каждого прочитанного файла. Пока запись JFR не включена, событие почти ничего
+// не стоит, а ObjReader собирает для него ParseStats только во время записи
+@Name("ru.cgvsu.yurov.objreader.ObjRead")
+@Label("OBJ File Read")
+@Category({"ObjReader"})
+@Description("Reading of one OBJ file by ObjReader")
+class ObjReadEvent extends Event {
+    @Label("Path")
+    String path;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Lines")
+    int lines;
+
+    @Label("Vertices")
+    int vertices;
+
+    @Label("Texture Vertices")
+    int textureVertices;
+
+    @Label("Normals")
+    int normals;
+
+    @Label("Faces")
+    int faces;
+
+    @Label("Groups")
+    int groups;
+
+    @Label("Unknown Tokens")
+    int unknownTokens;
+
+    @Label("I/O Time")
+    @Timespan
+    long ioNanos;
+
+    @Label("Tokenize Time")
+    @Timespan
+    long tokenizeNanos;
+
+    @Label("Vertices Time")
+    @Timespan
+    long verticesNanos;
+
+    @Label("Faces Time")
+    @Timespan
+    long facesNanos;
+
+    @Label("End Time")
+    @Timespan
+    long endNanos;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    void set(ParseStats stats) {
+        bytesRead = stats.bytesRead;
+        lines = stats.lines;
+        vertices = stats.vertices;
+        textureVertices = stats.textureVertices;
+        normals = stats.normals;
+        faces = stats.faces;
+        groups = stats.groups;
+        unknownTokens = stats.unknownTokens;
+        ioNanos = stats.ioNanos;
+        tokenizeNanos = stats.tokenizeNanos;
+        verticesNanos = stats.verticesNanos;
+        facesNanos = stats.facesNanos;
+        endNanos = stats.endNanos;
+    }
+}
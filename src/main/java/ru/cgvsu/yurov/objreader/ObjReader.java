@@ -2,52 +2,304 @@ package ru.cgvsu.yurov.objreader;
 
 import ru.cgvsu.yurov.math.Vector2f;
 import ru.cgvsu.yurov.math.Vector3f;
-import ru.cgvsu.yurov.model.Group;
+import ru.cgvsu.yurov.model.IntArrayList;
 import ru.cgvsu.yurov.model.Model;
 import ru.cgvsu.yurov.model.Polygon;
 import ru.cgvsu.yurov.objreader.exceptions.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.text.ParseException;
-import java.util.*;
-
-public class ObjReader {
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class ObjReader implements ObjLocator {
 	private static final String OBJ_VERTEX_TOKEN = "v";
 	private static final String OBJ_TEXTURE_TOKEN = "vt";
 	private static final String OBJ_NORMAL_TOKEN = "vn";
 	private static final String OBJ_FACE_TOKEN = "f";
 	private static final String OBJ_GROUP_TOKEN = "g";
-	private static final String COMMENT_TOKEN = "#";
+	private static final String OBJ_OBJECT_TOKEN = "o";
+	private static final String OBJ_USE_MATERIAL_TOKEN = "usemtl";
+	private static final String OBJ_MATERIAL_LIBRARY_TOKEN = "mtllib";
+	private static final String OBJ_SMOOTHING_GROUP_TOKEN = "s";
+	private static final String OBJ_SMOOTHING_OFF = "off";
+
+	private static final int MAPPED_WINDOW_SIZE = 1 << 28;
+	private static final int STREAM_BUFFER_SIZE = 1 << 16;
+	private static final int GZIP_BUFFER_SIZE = 1 << 16;
 
-	private int lineIndex = 0;
-	private final Model model = new Model();
-	private Group currentGroup = null;
+	protected int lineIndex = 0;
+	private final ObjVisitor visitor;
+	private final LineTokenizer tokenizer = new LineTokenizer();
+	private final FaceIndices faceIndices = new FaceIndices();
+	private Boolean firstPolygonHasTexture = null;
 
-	private final DecimalFormat format = new DecimalFormat("0.#");
-	private Character decimalSeparator = null;
+	protected Character decimalSeparator = null;
+	protected int decimalSeparatorLineIndex = 0;
 
 	protected boolean isSoft = true;
+	protected ParseStats stats = null;
+	// Если задан, ошибки строк записываются сюда, а не выбрасываются, и чтение продолжается со следующей строки
+	protected ObjDiagnostics diagnostics = null;
+	private final float[] floats = new float[3];
+
+	// Число уже прочитанных элементов, от которых отсчитываются отрицательные индексы полигонов
+	private int verticesCount = 0;
+	private int textureVerticesCount = 0;
+	private int normalsCount = 0;
+	private int cornersCount = 0;
+
+	// Если заданы, сюда записываются номера вершин полигонов (в порядке всех вершин всех полигонов), индексы которых
+	// были отрицательными. Нужно для чтения по кускам, где элементы предыдущих кусков еще неизвестны
+	protected IntArrayList relativeVertexCorners = null;
+	protected IntArrayList relativeTextureVertexCorners = null;
+	protected IntArrayList relativeNormalCorners = null;
+
+	protected ObjReader() {
+		this(new ModelBuilder());
+	}
 
-	protected ObjReader() {}
+	protected ObjReader(ObjVisitor visitor) {
+		this.visitor = visitor;
+		visitor.setLocator(this);
+	}
 
 	public static Model read(File file) {
 		return read(file, true);
 	}
 
 	public static Model read(File file, boolean isSoft) {
-		String content;
-		try {
-			content = Files.readString(Path.of(file.getCanonicalPath()));
+		return read(file.toPath(), isSoft);
+	}
+
+	public static Model read(Path path) {
+		return read(path, true);
+	}
+
+	public static Model read(Path path, boolean isSoft) {
+		return read(path, isSoft, (ParseStats) null);
+	}
+
+	// stats заполняется статистикой чтения, даже если чтение закончилось исключением
+	public static Model read(Path path, boolean isSoft, ParseStats stats) {
+		ModelBuilder modelBuilder = new ModelBuilder();
+		read(path, isSoft, modelBuilder, stats);
+		return modelBuilder.getModel();
+	}
+
+	public static void read(Path path, ObjVisitor visitor) {
+		read(path, true, visitor);
+	}
+
+	public static void read(Path path, boolean isSoft, ObjVisitor visitor) {
+		read(path, isSoft, visitor, null);
+	}
+
+	public static void read(Path path, boolean isSoft, ObjVisitor visitor, ParseStats stats) {
+		ObjReader objReader = new ObjReader(visitor);
+		objReader.isSoft = isSoft;
+		objReader.stats = stats;
+		objReader.readFile(path);
+	}
+
+	// Общее чтение файла для всех настроек читателя: файлы обычной файловой системы отображаются в память,
+	// остальные читаются как поток
+	private void readFile(Path path) {
+		ObjReadEvent event = new ObjReadEvent();
+		if (stats == null && event.isEnabled()) {
+			stats = new ParseStats();
+		}
+
+		event.begin();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (path.getFileSystem() == FileSystems.getDefault()) {
+				readModel(channel);
+			} else {
+				readModel((ReadableByteChannel) channel);
+			}
+			event.succeeded = true;
+		} catch (IOException exception) {
+			throw new RuntimeException(exception);
+		} finally {
+			event.end();
+			if (stats != null && event.shouldCommit()) {
+				event.path = path.toString();
+				event.set(stats);
+				event.commit();
+			}
+		}
+	}
+
+	public static Model readParallel(Path path) {
+		return readParallel(path, true);
+	}
+
+	public static Model readParallel(Path path, boolean isSoft) {
+		return readParallel(path, isSoft, ForkJoinPool.commonPool());
+	}
+
+	// Файл режется на куски по границам строк, куски разбираются одновременно в пуле и затем склеиваются.
+	// Результат и исключения такие же, как у read(Path, boolean)
+	public static Model readParallel(Path path, boolean isSoft, ForkJoinPool pool) {
+		return ParallelObjReader.read(path, isSoft, pool, ParallelObjReader.DEFAULT_CHUNK_SIZE);
+	}
+
+	// Количество вершин, полигонов и групп файла без полного разбора: байты просматриваются один раз,
+	// числа не разбираются
+	public static ModelSummary probe(Path path) {
+		return ModelProbe.probe(path);
+	}
+
+	public static Model readPresized(Path path) {
+		return readPresized(path, true);
+	}
+
+	// Сначала считает элементы файла через probe, затем читает его в модель, память которой выделена сразу
+	// под точное число элементов
+	public static Model readPresized(Path path, boolean isSoft) {
+		ModelBuilder modelBuilder = new ModelBuilder(probe(path));
+		read(path, isSoft, modelBuilder);
+		return modelBuilder.getModel();
+	}
+
+	public static Model readCached(Path path) {
+		return readCached(path, true);
+	}
+
+	// Разобранная модель сохраняется в бинарном виде рядом с файлом (model.obj.objcache), и следующие чтения
+	// неизмененного файла загружают ее оттуда без разбора текста
+	public static Model readCached(Path path, boolean isSoft) {
+		return ObjCache.read(path, isSoft);
+	}
+
+	public static BatchReadResult readAll(Collection<Path> paths) {
+		return readAll(paths, new BatchReadOptions());
+	}
+
+	// Читает файлы одновременно; ошибка в одном файле не прерывает чтение остальных, а попадает в его результат
+	public static BatchReadResult readAll(Collection<Path> paths, BatchReadOptions options) {
+		return BatchObjReader.read(paths, options);
+	}
+
+	public static Model read(InputStream inputStream) {
+		return read(inputStream, true);
+	}
+
+	// Поток не закрывается, это остается на вызывающей стороне
+	public static Model read(InputStream inputStream, boolean isSoft) {
+		return read(Channels.newChannel(inputStream), isSoft);
+	}
+
+	public static void read(InputStream inputStream, ObjVisitor visitor) {
+		read(inputStream, true, visitor);
+	}
+
+	public static void read(InputStream inputStream, boolean isSoft, ObjVisitor visitor) {
+		read(Channels.newChannel(inputStream), isSoft, visitor);
+	}
+
+	public static Model readGzip(Path path) {
+		return readGzip(path, true);
+	}
+
+	public static Model readGzip(Path path, boolean isSoft) {
+		ModelBuilder modelBuilder = new ModelBuilder();
+		readGzip(path, isSoft, modelBuilder);
+		return modelBuilder.getModel();
+	}
+
+	// Чтение файла .obj.gz без распаковки на диск или в строку: распаковка идет в отдельном потоке выполнения
+	// одновременно с разбором (см. PipelinedChannel)
+	public static void readGzip(Path path, boolean isSoft, ObjVisitor visitor) {
+		try (InputStream fileStream = Files.newInputStream(path);
+			 PipelinedChannel channel = new PipelinedChannel(new GZIPInputStream(fileStream, GZIP_BUFFER_SIZE))) {
+			read(channel, isSoft, visitor);
 		} catch (IOException exception) {
 			throw new RuntimeException(exception);
 		}
+	}
+
+	public static Model readZip(Path path) {
+		return readZip(path, null, true);
+	}
+
+	public static Model readZip(Path path, String entryName) {
+		return readZip(path, entryName, true);
+	}
+
+	public static Model readZip(Path path, String entryName, boolean isSoft) {
+		ModelBuilder modelBuilder = new ModelBuilder();
+		readZip(path, entryName, isSoft, modelBuilder);
+		return modelBuilder.getModel();
+	}
+
+	// Чтение записи entryName из zip-архива, так же как readGzip. Если entryName равно null,
+	// читается первая запись с расширением .obj
+	public static void readZip(Path path, String entryName, boolean isSoft, ObjVisitor visitor) {
+		try (ZipFile zipFile = new ZipFile(path.toFile())) {
+			ZipEntry entry = entryName == null ? findObjEntry(zipFile) : zipFile.getEntry(entryName);
+			if (entry == null || entry.isDirectory()) {
+				throw new IllegalArgumentException("No OBJ entry " + (entryName == null ? "" : entryName + " ")
+						+ "in zip file: " + path);
+			}
+			try (PipelinedChannel channel = new PipelinedChannel(zipFile.getInputStream(entry))) {
+				read(channel, isSoft, visitor);
+			}
+		} catch (IOException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+
+	private static ZipEntry findObjEntry(ZipFile zipFile) {
+		return zipFile.stream()
+				.filter(entry -> !entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(".obj"))
+				.findFirst()
+				.orElse(null);
+	}
+
+	public static Model read(ReadableByteChannel channel) {
+		return read(channel, true);
+	}
+
+	// Канал не закрывается, это остается на вызывающей стороне
+	public static Model read(ReadableByteChannel channel, boolean isSoft) {
+		ModelBuilder modelBuilder = new ModelBuilder();
+		read(channel, isSoft, modelBuilder);
+		return modelBuilder.getModel();
+	}
 
-		return read(content, isSoft);
+	public static void read(ReadableByteChannel channel, ObjVisitor visitor) {
+		read(channel, true, visitor);
+	}
+
+	public static void read(ReadableByteChannel channel, boolean isSoft, ObjVisitor visitor) {
+		read(channel, isSoft, visitor, null);
+	}
+
+	public static void read(ReadableByteChannel channel, boolean isSoft, ObjVisitor visitor, ParseStats stats) {
+		ObjReader objReader = new ObjReader(visitor);
+		objReader.isSoft = isSoft;
+		objReader.stats = stats;
+		try {
+			objReader.readModel(channel);
+		} catch (IOException exception) {
+			throw new RuntimeException(exception);
+		}
 	}
 
 	public static Model read(String content) {
@@ -55,210 +307,547 @@ public class ObjReader {
 	}
 
 	public static Model read(String content, boolean isSoft) {
-		ObjReader objReader = new ObjReader();
+		ModelBuilder modelBuilder = new ModelBuilder();
+		read(content, isSoft, modelBuilder);
+		return modelBuilder.getModel();
+	}
+
+	public static void read(String content, ObjVisitor visitor) {
+		read(content, true, visitor);
+	}
+
+	public static void read(String content, boolean isSoft, ObjVisitor visitor) {
+		read(content, isSoft, visitor, null);
+	}
+
+	public static void read(String content, boolean isSoft, ObjVisitor visitor, ParseStats stats) {
+		ObjReader objReader = new ObjReader(visitor);
+		objReader.isSoft = isSoft;
+		objReader.stats = stats;
+		objReader.readModel(content);
+	}
+
+	public static ObjDiagnostics validate(Path path, int maxDiagnostics) {
+		return validate(path, false, maxDiagnostics);
+	}
+
+	// Проверка файла без исключений: ошибки всех строк, а не только первой, записываются в результат.
+	// В списке не больше maxDiagnostics ошибок, остальные только считаются
+	public static ObjDiagnostics validate(Path path, boolean isSoft, int maxDiagnostics) {
+		ObjDiagnostics diagnostics = new ObjDiagnostics(maxDiagnostics);
+		readWithDiagnostics(path, isSoft, createValidatingBuilder(diagnostics), diagnostics);
+		return diagnostics;
+	}
+
+	public static ObjDiagnostics validate(String content, int maxDiagnostics) {
+		return validate(content, false, maxDiagnostics);
+	}
+
+	public static ObjDiagnostics validate(String content, boolean isSoft, int maxDiagnostics) {
+		ObjDiagnostics diagnostics = new ObjDiagnostics(maxDiagnostics);
+		readWithDiagnostics(content, isSoft, createValidatingBuilder(diagnostics), diagnostics);
+		return diagnostics;
+	}
+
+	private static ModelBuilder createValidatingBuilder(ObjDiagnostics diagnostics) {
+		ModelBuilder modelBuilder = new ModelBuilder();
+		// Все индексы проверяются в конце, поэтому проверка при добавлении полигонов не нужна
+		modelBuilder.isIndicesCheckEnabled = false;
+		modelBuilder.diagnostics = diagnostics;
+		return modelBuilder;
+	}
+
+	// Чтение с диагностикой: строки с ошибками пропускаются и записываются в diagnostics.
+	// Неверные индексы полигонов проверяет обработчик, поэтому у своего обработчика они не записываются
+	public static void readWithDiagnostics(Path path, boolean isSoft, ObjVisitor visitor,
+										   ObjDiagnostics diagnostics) {
+		ObjReader objReader = new ObjReader(visitor);
 		objReader.isSoft = isSoft;
+		objReader.diagnostics = diagnostics;
+		objReader.readFile(path);
+	}
+
+	public static void readWithDiagnostics(String content, boolean isSoft, ObjVisitor visitor,
+										   ObjDiagnostics diagnostics) {
+		ObjReader objReader = new ObjReader(visitor);
+		objReader.isSoft = isSoft;
+		objReader.diagnostics = diagnostics;
 		objReader.readModel(content);
-		return objReader.model;
+	}
+
+	@Override
+	public int getLineIndex() {
+		return lineIndex;
 	}
 
 	protected void readModel(String content) {
-		Scanner scanner = new Scanner(content);
-		scanner.useLocale(Locale.ROOT);
-		while (scanner.hasNextLine()) {
-			lineIndex++;
-			String line = handleLine(scanner.nextLine());
+		long startTime = System.nanoTime();
+		ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+		if (stats != null) {
+			stats.bytesRead = buffer.limit();
+			stats.updatePeakBufferSize(buffer.limit());
+		}
+		handleLines(buffer, 0, buffer.limit(), true);
+		end(startTime);
+	}
+
+	// Файл отображается в память окнами, каждое окно начинается с начала строки.
+	// Строки разбираются прямо в отображенных байтах, без копирования текста в кучу
+	protected void readModel(FileChannel channel) throws IOException {
+		long startTime = System.nanoTime();
+		long size = channel.size();
+		if (stats != null) {
+			stats.bytesRead = size;
+		}
+		long position = 0;
+		int windowSize = MAPPED_WINDOW_SIZE;
+		while (position < size) {
+			int length = (int) Math.min(size - position, windowSize);
+			boolean isLastWindow = position + length == size;
+			long mapStartTime = stats == null ? 0 : System.nanoTime();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			if (stats != null) {
+				stats.ioNanos += System.nanoTime() - mapStartTime;
+				stats.updatePeakBufferSize(length);
+			}
+
+			int handled = handleLines(buffer, 0, length, isLastWindow);
+			if (handled == 0 && !isLastWindow) {
+				// Строка не поместилась в окно целиком
+				windowSize = (int) Math.min((long) windowSize * 2, Integer.MAX_VALUE);
+				continue;
+			}
+			position += handled;
+		}
+		end(startTime);
+	}
+
+	// Чтение из канала блоками фиксированного размера. Недочитанный хвост строки переносится в начало буфера
+	protected void readModel(ReadableByteChannel channel) throws IOException {
+		long startTime = System.nanoTime();
+		ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+		while (true) {
+			long readStartTime = stats == null ? 0 : System.nanoTime();
+			int read = channel.read(buffer);
+			boolean isEndOfInput = read < 0;
+			if (stats != null) {
+				stats.ioNanos += System.nanoTime() - readStartTime;
+				stats.bytesRead += Math.max(read, 0);
+				stats.updatePeakBufferSize(buffer.capacity());
+			}
+			int handled = handleLines(buffer, 0, buffer.position(), isEndOfInput);
+			if (isEndOfInput) {
+				break;
+			}
+
+			buffer.limit(buffer.position());
+			buffer.position(handled);
+			buffer.compact();
+			if (!buffer.hasRemaining()) {
+				buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+			}
+		}
+		end(startTime);
+	}
+
+	private void end(long startTime) {
+		long endStartTime = System.nanoTime();
+		visitor.end();
+		if (stats != null) {
+			long endTime = System.nanoTime();
+			stats.endNanos = endTime - endStartTime;
+			stats.totalNanos = endTime - startTime;
+		}
+	}
 
-			if (line.isBlank()) {
+	// Разбирает все полные строки в диапазоне [from, to) и возвращает смещение сразу после последней из них.
+	// Если isEndOfInput, то остаток после последнего перевода строки тоже считается строкой
+	protected int handleLines(ByteBuffer buffer, int from, int to, boolean isEndOfInput) {
+		int lineStart = from;
+		for (int i = from; i < to; i++) {
+			byte b = buffer.get(i);
+			if (b != '\n' && b != '\r') {
 				continue;
 			}
 
-			String[] wordsInLine = line.split("\\s+");
-			final String token = wordsInLine[0];
-			String[] wordsInLineWithoutToken =  Arrays.copyOfRange(wordsInLine, 1, wordsInLine.length);
-
-			switch (token) {
-				case OBJ_VERTEX_TOKEN -> model.addVertex(parseVector3f(wordsInLineWithoutToken));
-				case OBJ_TEXTURE_TOKEN -> model.addTextureVertex(parseVector2f(wordsInLineWithoutToken));
-				case OBJ_NORMAL_TOKEN -> model.addNormal(parseVector3f(wordsInLineWithoutToken));
-				case OBJ_FACE_TOKEN -> handleFace(wordsInLineWithoutToken);
-				case OBJ_GROUP_TOKEN -> handleGroup(wordsInLineWithoutToken);
-				default -> {
-					if (!isSoft) {
-						throw new TokenException(lineIndex);
-					}
+			int lineEnd = i;
+			if (b == '\r') {
+				if (i + 1 == to && !isEndOfInput) {
+					// Не знаем, идет ли следом '\n' - ждем следующий блок
+					return lineStart;
+				}
+				if (i + 1 < to && buffer.get(i + 1) == '\n') {
+					i++;
 				}
 			}
+
+			lineIndex++;
+			handleLine(buffer, lineStart, lineEnd);
+			lineStart = i + 1;
+		}
+
+		if (isEndOfInput && lineStart < to) {
+			lineIndex++;
+			handleLine(buffer, lineStart, to);
+			return to;
+		}
+		return lineStart;
+	}
+
+	protected void handleLine(ByteBuffer buffer, int start, int end) {
+		// Время фаз замеряется только со статистикой, чтобы обычное чтение не платило за вызовы System.nanoTime
+		long startTime = stats == null ? 0 : System.nanoTime();
+		tokenizer.tokenize(buffer, start, end);
+		boolean isSeparatorValid = checkDecimalSeparator(tokenizer.hasDot(), tokenizer.hasComma());
+		long tokenizeEndTime = 0;
+		if (stats != null) {
+			tokenizeEndTime = System.nanoTime();
+			stats.lines = lineIndex;
+			stats.peakLineLength = Math.max(stats.peakLineLength, end - start);
+			stats.tokenizeNanos += tokenizeEndTime - startTime;
 		}
 
-		if (currentGroup != null) {
-			model.addGroup(currentGroup);
+		if (!isSeparatorValid || tokenizer.isBlank()) {
+			return;
 		}
 
-		int verticesSize = model.getVerticesSize();
-		int textureVerticesSize = model.getTextureVerticesSize();
-		int normalsSize = model.getNormalsSize();
-		for (Polygon polygon: model.getPolygons()) {
-			polygon.checkIndices(verticesSize, textureVerticesSize, normalsSize);
+		int lineType = handleTokens();
+		if (stats != null) {
+			updateStats(lineType, tokenizeEndTime);
 		}
 	}
 
-	private String handleLine(String line) {
-		int commentIndex = line.indexOf(COMMENT_TOKEN);
-		if (commentIndex > -1) {
-			line = line.substring(0, commentIndex);
+	private static final int LINE_VERTEX = 0;
+	private static final int LINE_TEXTURE = 1;
+	private static final int LINE_NORMAL = 2;
+	private static final int LINE_FACE = 3;
+	private static final int LINE_GROUP = 4;
+	private static final int LINE_STATE = 5;
+	private static final int LINE_UNKNOWN = 6;
+
+	// Разбирает строку по ее токену и возвращает тип строки для статистики
+	private int handleTokens() {
+		if (tokenizer.isToken(OBJ_VERTEX_TOKEN)) {
+			if (checkSize(tokenizer.getWordCount() - 1, 3) && parseFloats(3)) {
+				visitor.vertex(floats[0], floats[1], floats[2]);
+				verticesCount++;
+			}
+			return LINE_VERTEX;
+		} else if (tokenizer.isToken(OBJ_TEXTURE_TOKEN)) {
+			if (checkSize(tokenizer.getWordCount() - 1, 2) && parseFloats(2)) {
+				visitor.texture(floats[0], floats[1]);
+				textureVerticesCount++;
+			}
+			return LINE_TEXTURE;
+		} else if (tokenizer.isToken(OBJ_NORMAL_TOKEN)) {
+			if (checkSize(tokenizer.getWordCount() - 1, 3) && parseFloats(3)) {
+				visitor.normal(floats[0], floats[1], floats[2]);
+				normalsCount++;
+			}
+			return LINE_NORMAL;
+		} else if (tokenizer.isToken(OBJ_FACE_TOKEN)) {
+			handleFace();
+			return LINE_FACE;
+		} else if (tokenizer.isToken(OBJ_GROUP_TOKEN)) {
+			handleGroup();
+			return LINE_GROUP;
+		} else if (handleStateLine()) {
+			return LINE_STATE;
 		}
 
-		int dotIndex = line.indexOf('.');
-		int commaIndex = line.indexOf(',');
+		// Неизвестная строка считается до исключения, чтобы статистика упавшего чтения ее учитывала
+		if (stats != null) {
+			stats.unknownTokens++;
+		}
+		if (!isSoft) {
+			error(DiagnosticKind.TOKEN);
+		}
+		return LINE_UNKNOWN;
+	}
 
-		if (dotIndex > -1 && commaIndex > -1) {
-			throw new RuntimeException("Two different decimal separators used in one file.");
+	private void updateStats(int lineType, long tokenizeEndTime) {
+		switch (lineType) {
+			case LINE_VERTEX -> stats.vertices++;
+			case LINE_TEXTURE -> stats.textureVertices++;
+			case LINE_NORMAL -> stats.normals++;
+			case LINE_FACE -> {
+				stats.faces++;
+				stats.peakFaceSize = Math.max(stats.peakFaceSize, faceIndices.size());
+				stats.facesNanos += System.nanoTime() - tokenizeEndTime;
+			}
+			case LINE_GROUP -> stats.groups++;
+			default -> {
+			}
+		}
+		if (lineType <= LINE_NORMAL) {
+			stats.verticesNanos += System.nanoTime() - tokenizeEndTime;
+		}
+	}
+
+	// Возвращает false, если строка смешивает разделители или использует не тот, что раньше в файле
+	private boolean checkDecimalSeparator(boolean hasDot, boolean hasComma) {
+		if (hasDot && hasComma) {
+			return error(DiagnosticKind.DECIMAL_SEPARATOR);
 		}
 
 		if (decimalSeparator != null) {
-			if (dotIndex > -1 && decimalSeparator == ',') {
-				throw new RuntimeException("Two different decimal separators used in one file.");
-			}
-			if (commaIndex > -1 && decimalSeparator == '.') {
-				throw new RuntimeException("Two different decimal separators used in one file.");
+			if (hasDot && decimalSeparator == ',' || hasComma && decimalSeparator == '.') {
+				return error(DiagnosticKind.DECIMAL_SEPARATOR);
 			}
 
-			return line;
+			return true;
 		}
 
-		DecimalFormatSymbols symbols = new DecimalFormatSymbols();
-		if (commaIndex > -1) {
-			symbols.setDecimalSeparator(',');
+		if (hasComma) {
 			decimalSeparator = ',';
-			format.setDecimalFormatSymbols(symbols);
+			decimalSeparatorLineIndex = lineIndex;
 		}
-		if (dotIndex > -1){
-			symbols.setDecimalSeparator('.');
+		if (hasDot) {
 			decimalSeparator = '.';
-			format.setDecimalFormatSymbols(symbols);
+			decimalSeparatorLineIndex = lineIndex;
+		}
+		return true;
+	}
+
+	private void handleFace() {
+		if (!parseFace()) {
+			return;
+		}
+
+		boolean hasTexture = faceIndices.hasTexture();
+		if (firstPolygonHasTexture == null) {
+			firstPolygonHasTexture = hasTexture;
+		} else if (firstPolygonHasTexture != hasTexture) {
+			error(DiagnosticKind.TEXTURE);
+			return;
+		}
+
+		boolean hasNormals = faceIndices.hasNormals();
+		int size = faceIndices.size();
+		resolveRelativeIndices(faceIndices.getVertexIndices(), size, verticesCount, relativeVertexCorners);
+		if (hasTexture) {
+			resolveRelativeIndices(
+					faceIndices.getTextureVertexIndices(), size, textureVerticesCount, relativeTextureVertexCorners);
+		}
+		if (hasNormals) {
+			resolveRelativeIndices(faceIndices.getNormalIndices(), size, normalsCount, relativeNormalCorners);
 		}
 
-		return line;
+		visitor.face(
+				faceIndices.getVertexIndices(),
+				hasTexture ? faceIndices.getTextureVertexIndices() : null,
+				hasNormals ? faceIndices.getNormalIndices() : null,
+				size);
+		cornersCount += size;
 	}
 
-	private void handleFace(String[] wordsInLineWithoutToken) {
-		Polygon polygon = parseFace(wordsInLineWithoutToken);
+	// Отрицательный индекс -n ссылается на n-й с конца из уже прочитанных элементов, -1 - на последний.
+	// После FaceWord.parse (индекс минус 1) такие индексы меньше -1, а "0" дает -1 и остается неверным.
+	// Индекс, который и после пересчета меньше 0, отклоняет проверка индексов
+	private void resolveRelativeIndices(int[] indices, int size, int elementsCount, IntArrayList relativeCorners) {
+		for (int i = 0; i < size; i++) {
+			if (indices[i] < -1) {
+				indices[i] += elementsCount + 1;
+				if (relativeCorners != null) {
+					relativeCorners.addInt(cornersCount + i);
+				}
+			}
+		}
+	}
 
-		if (!model.getPolygons().isEmpty()) {
-			Polygon firstPolygon = model.getFirstPolygon();
-			if (polygon.hasTexture() != firstPolygon.hasTexture()) {
-				throw new TextureException(lineIndex);
+	private void handleGroup() {
+		if (tokenizer.getWordCount() < 2) {
+			error(DiagnosticKind.GROUP_NAME);
+			return;
+		}
+
+		visitor.group(tokenizer.joinWords(1));
+	}
+
+	// Строки "o", "usemtl", "mtllib" и "s" меняют состояние, в котором читаются следующие полигоны.
+	// Возвращает false, если токен строки не из них или строка неверна в мягком режиме: тогда она пропускается
+	// так же, как строка с неизвестным токеном
+	private boolean handleStateLine() {
+		if (tokenizer.isToken(OBJ_USE_MATERIAL_TOKEN)) {
+			if (tokenizer.getWordCount() < 2) {
+				return invalidStateLine(DiagnosticKind.NAME, null, "Material");
+			}
+			visitor.useMaterial(tokenizer.joinWords(1));
+		} else if (tokenizer.isToken(OBJ_OBJECT_TOKEN)) {
+			if (tokenizer.getWordCount() < 2) {
+				return invalidStateLine(DiagnosticKind.NAME, null, "Object");
+			}
+			visitor.object(tokenizer.joinWords(1));
+		} else if (tokenizer.isToken(OBJ_SMOOTHING_GROUP_TOKEN)) {
+			if (tokenizer.getWordCount() < 2) {
+				return invalidStateLine(DiagnosticKind.ARGUMENTS_SIZE, ArgumentsErrorType.FEW, null);
+			}
+			if (tokenizer.getWordCount() > 2 && !isSoft) {
+				return invalidStateLine(DiagnosticKind.ARGUMENTS_SIZE, ArgumentsErrorType.MANY, null);
+			}
+			int group = parseSmoothingGroup(1);
+			if (group < 0) {
+				return invalidStateLine(DiagnosticKind.PARSING, null, "smoothing group");
 			}
+			visitor.smoothingGroup(group);
+		} else if (tokenizer.isToken(OBJ_MATERIAL_LIBRARY_TOKEN)) {
+			if (tokenizer.getWordCount() < 2) {
+				return invalidStateLine(DiagnosticKind.NAME, null, "Material library");
+			}
+			// Имена нескольких библиотек перечисляются через пробел
+			for (int i = 1; i < tokenizer.getWordCount(); i++) {
+				visitor.materialLibrary(tokenizer.getWord(i));
+			}
+		} else {
+			return false;
 		}
+		return true;
+	}
 
-		model.addPolygon(polygon);
-		if (currentGroup != null) {
-			currentGroup.addPolygon(polygon);
+	private boolean invalidStateLine(DiagnosticKind kind, ArgumentsErrorType argumentsErrorType, String detail) {
+		if (isSoft) {
+			return false;
 		}
+		error(kind, argumentsErrorType, detail, 0);
+		return true;
 	}
 
-	private void handleGroup(String[] wordsInLineWithoutToken) {
-		if (wordsInLineWithoutToken.length == 0) {
-			throw new GroupNameException(lineIndex);
+	// Номер группы сглаживания из слова wordIndex без создания строки: "off" или неотрицательное число.
+	// Возвращает -1, если слово - не номер группы
+	private int parseSmoothingGroup(int wordIndex) {
+		if (tokenizer.isWord(wordIndex, OBJ_SMOOTHING_OFF)) {
+			return 0;
+		}
+		ByteBuffer buffer = tokenizer.getBuffer();
+		int start = tokenizer.getWordStart(wordIndex);
+		int end = tokenizer.getWordEnd(wordIndex);
+		if (start < end && buffer.get(start) == '+') {
+			start++;
+		}
+		if (start == end) {
+			return -1;
+		}
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+			if (value > Integer.MAX_VALUE) {
+				return -1;
+			}
 		}
+		return (int) value;
+	}
 
-		if (currentGroup != null) {
-			model.addGroup(currentGroup);
+	private boolean parseFace() {
+		faceIndices.clear();
+		for (int i = 1; i < tokenizer.getWordCount(); i++) {
+			int result = FaceWord.tryParse(
+					tokenizer.getBuffer(), tokenizer.getWordStart(i), tokenizer.getWordEnd(i), isSoft, faceIndices);
+			if (result == FaceWord.FEW_PARTS) {
+				return error(DiagnosticKind.ARGUMENTS_SIZE, ArgumentsErrorType.FEW_IN_WORD, null, 0);
+			} else if (result == FaceWord.MANY_PARTS) {
+				return error(DiagnosticKind.ARGUMENTS_SIZE, ArgumentsErrorType.MANY_IN_WORD, null, 0);
+			} else if (result == FaceWord.INVALID_INDEX) {
+				return error(DiagnosticKind.PARSING, null, "integer", 0);
+			}
 		}
+		return checkFace(faceIndices);
+	}
 
-		StringBuilder sb = new StringBuilder();
-		for (String s : wordsInLineWithoutToken) {
-			sb.append(s).append(' ');
+	// Разбирает слова 1..count строки в floats
+	private boolean parseFloats(int count) {
+		ByteBuffer buffer = tokenizer.getBuffer();
+		for (int i = 0; i < count; i++) {
+			float value = FloatParser.parseOrNaN(buffer, tokenizer.getWordStart(i + 1), tokenizer.getWordEnd(i + 1));
+			if (Float.isNaN(value)) {
+				return error(DiagnosticKind.PARSING, null, "float", 0);
+			}
+			floats[i] = value;
 		}
-		sb.deleteCharAt(sb.length() - 1);
-		currentGroup = new Group(sb.toString());
+		return true;
+	}
+
+	private float parseFloat(String word) {
+		return FloatParser.parse(word, lineIndex);
 	}
 
 	protected Vector2f parseVector2f(final String[] wordsInLineWithoutToken) {
 		checkSize(wordsInLineWithoutToken.length, 2);
-		try {
-			return new Vector2f(
-					format.parse(wordsInLineWithoutToken[0]).floatValue(),
-					format.parse(wordsInLineWithoutToken[1]).floatValue());
-
-		} catch (ParseException e) {
-			throw new ParsingException("float", lineIndex);
-		}
+		return new Vector2f(parseFloat(wordsInLineWithoutToken[0]), parseFloat(wordsInLineWithoutToken[1]));
 	}
 
 	protected Vector3f parseVector3f(final String[] wordsInLineWithoutToken) {
 		checkSize(wordsInLineWithoutToken.length, 3);
-		try {
-			return new Vector3f(
-					format.parse(wordsInLineWithoutToken[0]).floatValue(),
-					format.parse(wordsInLineWithoutToken[1]).floatValue(),
-					format.parse(wordsInLineWithoutToken[2]).floatValue());
-
-		} catch (ParseException e) {
-			throw new ParsingException("float", lineIndex);
-		}
+		return new Vector3f(
+				parseFloat(wordsInLineWithoutToken[0]),
+				parseFloat(wordsInLineWithoutToken[1]),
+				parseFloat(wordsInLineWithoutToken[2]));
 	}
 
 	protected Polygon parseFace(final String[] wordsInLineWithoutToken) {
-		List<FaceWord> faceWords = new ArrayList<>();
-		Set<WordType> types = new HashSet<>();
-
+		faceIndices.clear();
 		for (String word : wordsInLineWithoutToken) {
-			FaceWord faceWord = FaceWord.parse(word, lineIndex, isSoft);
-
-			types.add(faceWord.getWordType());
-			faceWords.add(faceWord);
+			byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+			FaceWord.parse(ByteBuffer.wrap(bytes), 0, bytes.length, lineIndex, isSoft, faceIndices);
 		}
+		return createPolygon(faceIndices);
+	}
 
-		if (faceWords.size() < 3) {
-			throw new ArgumentsSizeException(ArgumentsErrorType.FEW_IN_POLYGON, lineIndex);
+	private boolean checkFace(FaceIndices faceIndices) {
+		if (faceIndices.size() < 3) {
+			return error(DiagnosticKind.ARGUMENTS_SIZE, ArgumentsErrorType.FEW_IN_POLYGON, null, 0);
 		}
-		if (types.size() > 1) {
-			throw new FaceWordTypeException(lineIndex);
+		if (faceIndices.hasSeveralWordTypes()) {
+			return error(DiagnosticKind.FACE_WORD_TYPE);
 		}
-
-		return createPolygon(faceWords.toArray(new FaceWord[0]));
+		return true;
 	}
 
-	protected Polygon createPolygon(FaceWord[] faceWords) {
+	private Polygon createPolygon(FaceIndices faceIndices) {
+		checkFace(faceIndices);
+
+		int size = faceIndices.size();
 		Polygon polygon = new Polygon();
-		List<Integer> vertexIndices = new ArrayList<>();
-		List<Integer> textureVertexIndices = new ArrayList<>();
-		List<Integer> normalIndices = new ArrayList<>();
-
-        for (FaceWord faceWord : faceWords) {
-            Integer vertexIndex = faceWord.getVertexIndex();
-            if (vertexIndex != null) {
-                vertexIndices.add(vertexIndex);
-            }
-            Integer textureVertexIndex = faceWord.getTextureVertexIndex();
-            if (textureVertexIndex != null) {
-                textureVertexIndices.add(textureVertexIndex);
-            }
-            Integer normalIndex = faceWord.getNormalIndex();
-            if (normalIndex != null) {
-                normalIndices.add(normalIndex);
-            }
-        }
-
-		polygon.setVertexIndices(vertexIndices);
-		polygon.setTextureVertexIndices(textureVertexIndices);
-		polygon.setNormalIndices(normalIndices);
+		polygon.setVertexIndices(new IntArrayList(faceIndices.getVertexIndices(), size));
+		if (faceIndices.hasTexture()) {
+			polygon.setTextureVertexIndices(new IntArrayList(faceIndices.getTextureVertexIndices(), size));
+		}
+		if (faceIndices.hasNormals()) {
+			polygon.setNormalIndices(new IntArrayList(faceIndices.getNormalIndices(), size));
+		}
 		polygon.setLineIndex(lineIndex);
 
 		return polygon;
 	}
 
-	private void checkSize(int wordCount, int vectorSize) {
+	private boolean checkSize(int wordCount, int vectorSize) {
 		if (wordCount == vectorSize) {
-			return;
+			return true;
 		}
 		if (wordCount < vectorSize) {
-			throw new ArgumentsSizeException(ArgumentsErrorType.FEW, lineIndex);
+			return error(DiagnosticKind.ARGUMENTS_SIZE, ArgumentsErrorType.FEW, null, 0);
 		}
 
 		if (!isSoft) {
-			throw new ArgumentsSizeException(ArgumentsErrorType.MANY, lineIndex);
+			return error(DiagnosticKind.ARGUMENTS_SIZE, ArgumentsErrorType.MANY, null, 0);
+		}
+		return true;
+	}
+
+	private boolean error(DiagnosticKind kind) {
+		return error(kind, null, null, 0);
+	}
+
+	// Ошибка в текущей строке. При обычном чтении бросается исключение. При чтении с диагностикой ошибка
+	// записывается без создания исключения и возвращается false: разбор строки прекращается, и строка пропускается
+	private boolean error(DiagnosticKind kind, ArgumentsErrorType argumentsErrorType, String detail, int wordIndex) {
+		if (diagnostics == null) {
+			throw ObjDiagnostic.createException(lineIndex, kind, argumentsErrorType, detail, wordIndex);
 		}
+		diagnostics.add(lineIndex, kind, argumentsErrorType, detail, wordIndex);
+		return false;
 	}
 }
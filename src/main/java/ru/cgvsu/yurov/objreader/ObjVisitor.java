@@ -0,0 +1,35 @@
+package ru.cgvsu.yurov.objreader;
+
+// Обработчик событий парсера в стиле SAX: ObjReader вызывает методы по мере чтения строк файла,
+// поэтому модель целиком в памяти не строится. Построение Model - одна из реализаций, ModelBuilder.
+// Все проверки формата, кроме проверки индексов полигонов, выполняет сам парсер: после ошибки методы не вызываются.
+// Индексы передаются как есть (начиная с 0) и на выход за границы не проверяются.
+public interface ObjVisitor {
+    // Вызывается один раз перед чтением
+    default void setLocator(ObjLocator locator) {}
+
+    void vertex(float x, float y, float z);
+
+    void texture(float u, float v);
+
+    void normal(float x, float y, float z);
+
+    // Массивы переиспользуются парсером и действительны только во время вызова, значимы первые count элементов.
+    // textureVertexIndices и normalIndices равны null, если у полигона нет этих компонент
+    void face(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int count);
+
+    void group(String name);
+
+    // События строк "o", "usemtl", "mtllib" и "s". Они не обязательны для обработчика: по умолчанию пропускаются.
+    // Группа сглаживания "off" передается как 0
+    default void object(String name) {}
+
+    default void useMaterial(String name) {}
+
+    default void materialLibrary(String fileName) {}
+
+    default void smoothingGroup(int group) {}
+
+    // Вызывается после успешного чтения последней строки
+    void end();
+}
@@ -0,0 +1,313 @@
+package ru.cgvsu.yurov.objreader;
+
+import ru.cgvsu.yurov.model.Group;
+import ru.cgvsu.yurov.model.IntArrayList;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.PolygonStore;
+import ru.cgvsu.yurov.model.Submesh;
+import ru.cgvsu.yurov.objreader.exceptions.TextureException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Параллельное чтение файла. Работает в два прохода:
+// 1. Файл делится на куски, которые заканчиваются на '\n', и в каждом куске считаются строки,
+//    чтобы каждый кусок знал номер своей первой строки и исключения содержали те же номера, что и при обычном чтении.
+// 2. Каждый кусок разбирается отдельным ObjReader в свою модель, затем модели склеиваются по порядку.
+// Проверки, которые зависят от предыдущих строк файла (наличие текстур как у первого полигона, один и тот же
+// разделитель дробной части, группа, объект, материал и группа сглаживания, в которые попадают полигоны в начале
+// куска), выполняются при склейке.
+final class ParallelObjReader {
+    static final int DEFAULT_CHUNK_SIZE = 1 << 23;
+    private static final int BOUNDARY_SEARCH_BUFFER_SIZE = 1 << 12;
+
+    private ParallelObjReader() {}
+
+    static Model read(Path path, boolean isSoft, ForkJoinPool pool, int chunkSize) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] boundaries = findChunkBoundaries(channel, chunkSize);
+            int chunksCount = boundaries.length - 1;
+
+            List<ForkJoinTask<Integer>> lineCountTasks = new ArrayList<>(chunksCount);
+            for (int i = 0; i < chunksCount; i++) {
+                long start = boundaries[i];
+                long end = boundaries[i + 1];
+                lineCountTasks.add(pool.submit(() -> countLines(map(channel, start, end))));
+            }
+
+            List<ForkJoinTask<Chunk>> parseTasks = new ArrayList<>(chunksCount);
+            int linesBefore = 0;
+            for (int i = 0; i < chunksCount; i++) {
+                long start = boundaries[i];
+                long end = boundaries[i + 1];
+                int chunkLinesBefore = linesBefore;
+                parseTasks.add(pool.submit(() -> parseChunk(map(channel, start, end), chunkLinesBefore, isSoft)));
+                linesBefore += lineCountTasks.get(i).get();
+            }
+
+            List<Chunk> chunks = new ArrayList<>(chunksCount);
+            for (ForkJoinTask<Chunk> task : parseTasks) {
+                chunks.add(task.get());
+            }
+            return merge(chunks);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new RuntimeException(exception.getCause());
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long start, long end) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    }
+
+    // Границы кусков: каждая граница, кроме первой и последней, стоит сразу после '\n',
+    // поэтому ни строка, ни пара "\r\n" не разрезаются
+    private static long[] findChunkBoundaries(FileChannel channel, int chunkSize) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SEARCH_BUFFER_SIZE);
+        long position = chunkSize;
+        while (position < size) {
+            long boundary = findNextLineStart(channel, buffer, position, size);
+            if (boundary >= size) {
+                break;
+            }
+            boundaries.add(boundary);
+            position = boundary + chunkSize;
+        }
+        boundaries.add(size);
+
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    private static long findNextLineStart(FileChannel channel, ByteBuffer buffer, long position, long size)
+            throws IOException {
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // Считает строки так же, как их делит ObjReader.handleLines: "\n", "\r" и "\r\n" - это один перевод строки
+    private static int countLines(ByteBuffer buffer) {
+        int length = buffer.limit();
+        int lines = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                lines++;
+            } else if (b == '\r') {
+                lines++;
+                if (i + 1 < length && buffer.get(i + 1) == '\n') {
+                    i++;
+                }
+            }
+        }
+        if (length > 0) {
+            byte last = buffer.get(length - 1);
+            if (last != '\n' && last != '\r') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static Chunk parseChunk(ByteBuffer buffer, int linesBefore, boolean isSoft) {
+        // Индексы проверяются после склейки, когда известно число элементов во всем файле
+        ModelBuilder modelBuilder = new ModelBuilder();
+        modelBuilder.isIndicesCheckEnabled = false;
+        ObjReader objReader = new ObjReader(modelBuilder);
+        objReader.isSoft = isSoft;
+        objReader.lineIndex = linesBefore;
+        objReader.relativeVertexCorners = new IntArrayList();
+        objReader.relativeTextureVertexCorners = new IntArrayList();
+        objReader.relativeNormalCorners = new IntArrayList();
+
+        Chunk chunk = new Chunk(objReader, modelBuilder.getModel());
+        try {
+            objReader.handleLines(buffer, 0, buffer.limit(), true);
+            modelBuilder.close();
+            chunk.material = modelBuilder.getCurrentMaterial();
+        } catch (RuntimeException exception) {
+            chunk.exception = exception;
+            chunk.exceptionLineIndex = objReader.lineIndex;
+        }
+        return chunk;
+    }
+
+    private static Model merge(List<Chunk> chunks) {
+        Model model = new Model();
+        Group openGroup = null;
+        Group openObject = null;
+        String openMaterial = null;
+        Character decimalSeparator = null;
+
+        for (Chunk chunk : chunks) {
+            ObjReader objReader = chunk.objReader;
+            Model chunkModel = chunk.model;
+            PolygonStore chunkPolygons = chunkModel.getPolygonStore();
+
+            // Ошибка, которую увидел бы последовательный разбор, - та, что встречается в файле раньше остальных
+            RuntimeException exception = chunk.exception;
+            int exceptionLineIndex = chunk.exception == null ? Integer.MAX_VALUE : chunk.exceptionLineIndex;
+
+            if (chunkPolygons.size() > 0 && model.getPolygonsSize() > 0) {
+                int lineIndex = chunkPolygons.getLineIndex(0);
+                if (chunkPolygons.hasTexture(0) != model.getPolygonStore().hasTexture(0) && lineIndex < exceptionLineIndex) {
+                    exception = new TextureException(lineIndex);
+                    exceptionLineIndex = lineIndex;
+                }
+            }
+
+            if (objReader.decimalSeparator != null) {
+                int lineIndex = objReader.decimalSeparatorLineIndex;
+                if (decimalSeparator != null && !decimalSeparator.equals(objReader.decimalSeparator)
+                        && lineIndex <= exceptionLineIndex) {
+                    exception = new RuntimeException("Two different decimal separators used in one file.");
+                }
+                if (decimalSeparator == null) {
+                    decimalSeparator = objReader.decimalSeparator;
+                }
+            }
+
+            if (exception != null) {
+                throw exception;
+            }
+
+            int polygonIndex = model.getPolygonsSize();
+            int verticesBefore = model.getVerticesSize();
+            int textureVerticesBefore = model.getTextureVerticesSize();
+            int normalsBefore = model.getNormalsSize();
+            int indicesBefore = model.getPolygonStore().getIndicesSize();
+            model.addAll(chunkModel);
+
+            // Отрицательные индексы кусок отсчитал только от своих элементов - добавляем элементы предыдущих кусков
+            PolygonStore polygons = model.getPolygonStore();
+            shiftIndices(polygons.getVertexIndices(), indicesBefore, objReader.relativeVertexCorners, verticesBefore);
+            shiftIndices(polygons.getTextureVertexIndices(), indicesBefore,
+                    objReader.relativeTextureVertexCorners, textureVerticesBefore);
+            shiftIndices(polygons.getNormalIndices(), indicesBefore, objReader.relativeNormalCorners, normalsBefore);
+
+            // Группы куска покрывают его полигоны с конца, а полигоны до первой группы куска продолжают
+            // последнюю группу предыдущих кусков. С объектами и подсетками так же
+            int chunkPolygonsSize = chunkPolygons.size();
+            List<Group> chunkGroups = chunkModel.getGroups();
+            if (openGroup != null) {
+                openGroup.addRange(polygonIndex, polygonIndex + getLeadingPolygons(chunkPolygonsSize, chunkGroups));
+            }
+            for (Group chunkGroup : chunkGroups) {
+                Group group = shiftGroup(chunkGroup, polygonIndex);
+                model.addGroup(group);
+                openGroup = group;
+            }
+
+            List<Group> chunkObjects = chunkModel.getObjects();
+            if (openObject != null) {
+                openObject.addRange(polygonIndex, polygonIndex + getLeadingPolygons(chunkPolygonsSize, chunkObjects));
+            }
+            for (Group chunkObject : chunkObjects) {
+                Group object = shiftGroup(chunkObject, polygonIndex);
+                model.addObject(object);
+                openObject = object;
+            }
+
+            List<Submesh> chunkSubmeshes = chunkModel.getSubmeshes();
+            if (openMaterial != null) {
+                int leadingPolygons = chunkPolygonsSize;
+                for (Submesh chunkSubmesh : chunkSubmeshes) {
+                    leadingPolygons -= chunkSubmesh.getPolygonsSize();
+                }
+                model.addSubmesh(openMaterial, polygonIndex, polygonIndex + leadingPolygons);
+            }
+            for (Submesh chunkSubmesh : chunkSubmeshes) {
+                model.addSubmesh(chunkSubmesh.getMaterial(),
+                        polygonIndex + chunkSubmesh.getStart(), polygonIndex + chunkSubmesh.getEnd());
+            }
+            if (chunk.material != null) {
+                openMaterial = chunk.material;
+            }
+
+            // Полигоны до первой строки "s" куска остаются в последней группе сглаживания предыдущих кусков
+            for (int run = 0; run < chunkModel.getSmoothingRunsSize(); run++) {
+                model.setSmoothingGroup(
+                        polygonIndex + chunkModel.getSmoothingRunStart(run), chunkModel.getSmoothingRunGroup(run));
+            }
+            for (String fileName : chunkModel.getMaterialLibraries()) {
+                model.addMaterialLibrary(fileName);
+            }
+        }
+
+        model.getPolygonStore().checkIndicesParallel(
+                model.getVerticesSize(), model.getTextureVerticesSize(), model.getNormalsSize());
+        model.updateBounds();
+        return model;
+    }
+
+    private static int getLeadingPolygons(int polygonsSize, List<Group> groups) {
+        int leadingPolygons = polygonsSize;
+        for (Group group : groups) {
+            leadingPolygons -= group.getPolygonsSize();
+        }
+        return leadingPolygons;
+    }
+
+    private static Group shiftGroup(Group chunkGroup, int polygonIndex) {
+        Group group = new Group(chunkGroup.getName());
+        for (int range = 0; range < chunkGroup.getRangesSize(); range++) {
+            group.addRange(polygonIndex + chunkGroup.getRangeStart(range),
+                    polygonIndex + chunkGroup.getRangeEnd(range));
+        }
+        return group;
+    }
+
+    private static void shiftIndices(int[] indices, int indicesBefore, IntArrayList corners, int shift) {
+        for (int i = 0; i < corners.size(); i++) {
+            indices[indicesBefore + corners.getInt(i)] += shift;
+        }
+    }
+
+    private static class Chunk {
+        private final ObjReader objReader;
+        private final Model model;
+        private String material = null;
+        private RuntimeException exception = null;
+        private int exceptionLineIndex;
+
+        Chunk(ObjReader objReader, Model model) {
+            this.objReader = objReader;
+            this.model = model;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.cgvsu.yurov.objreader;
+
+// Статистика одного чтения файла, которую заполняет ObjReader, если ее передали в read.
+// Время фаз в наносекундах:
+// io - чтение из канала или отображение окна файла в память (при отображении сами страницы подгружаются
+//     при первом обращении, и это время попадает в следующие фазы);
+// tokenize - поиск строк и разбиение их на слова;
+// vertices - разбор чисел строк v, vt, vn и передача их обработчику;
+// faces - разбор слов строк f, проверки полигона и передача его обработчику;
+// end - завершение чтения, для ModelBuilder это в основном проверка индексов полигонов (checkIndices)
+public class ParseStats {
+    long bytesRead;
+    int lines;
+
+    int vertices;
+    int textureVertices;
+    int normals;
+    int faces;
+    int groups;
+    int unknownTokens;
+
+    long ioNanos;
+    long tokenizeNanos;
+    long verticesNanos;
+    long facesNanos;
+    long endNanos;
+    long totalNanos;
+
+    int peakBufferSize;
+    int peakLineLength;
+    int peakFaceSize;
+
+    void updatePeakBufferSize(int bufferSize) {
+        peakBufferSize = Math.max(peakBufferSize, bufferSize);
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public int getVertices() {
+        return vertices;
+    }
+
+    public int getTextureVertices() {
+        return textureVertices;
+    }
+
+    public int getNormals() {
+        return normals;
+    }
+
+    public int getFaces() {
+        return faces;
+    }
+
+    public int getGroups() {
+        return groups;
+    }
+
+    // Строки с неизвестным токеном, которые мягкий режим пропускает
+    public int getUnknownTokens() {
+        return unknownTokens;
+    }
+
+    public long getIoNanos() {
+        return ioNanos;
+    }
+
+    public long getTokenizeNanos() {
+        return tokenizeNanos;
+    }
+
+    public long getVerticesNanos() {
+        return verticesNanos;
+    }
+
+    public long getFacesNanos() {
+        return facesNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    // Наибольший размер буфера с текстом: окна отображения, буфера чтения из канала или строки
+    public int getPeakBufferSize() {
+        return peakBufferSize;
+    }
+
+    public int getPeakLineLength() {
+        return peakLineLength;
+    }
+
+    // Наибольшее число вершин в одном полигоне
+    public int getPeakFaceSize() {
+        return peakFaceSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bytes, %d lines (v %d, vt %d, vn %d, f %d, g %d, unknown %d) in %.3f ms: "
+                        + "io %.3f ms, tokenize %.3f ms, vertices %.3f ms, faces %.3f ms, end %.3f ms",
+                bytesRead, lines, vertices, textureVertices, normals, faces, groups, unknownTokens,
+                totalNanos / 1e6, ioNanos / 1e6, tokenizeNanos / 1e6, verticesNanos / 1e6, facesNanos / 1e6,
+                endNanos / 1e6);
+    }
+}
@@ -0,0 +1,170 @@
+package ru.cgvsu.yurov.objreader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Канал, который читает поток (обычно GZIPInputStream или поток записи zip) в отдельном потоке выполнения.
+// Распаковка и разбор идут одновременно: пока парсер разбирает один буфер, следующие уже распаковываются.
+// Буферов фиксированное число, они ходят по кругу между очередями free и filled, поэтому память ограничена
+// buffersCount * bufferSize, а распаковка ждет, если парсер не успевает. Ошибка чтения потока выбрасывается
+// из read после всех данных, прочитанных до нее. Канал владеет потоком и закрывает его в close
+final class PipelinedChannel implements ReadableByteChannel {
+    static final int BUFFER_SIZE = 1 << 18;
+    static final int BUFFERS_COUNT = 4;
+
+    // Признак конца потока в очереди filled
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final InputStream input;
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> filled;
+    private final Thread thread;
+    private volatile Throwable failure = null;
+
+    private ByteBuffer current = null;
+    private boolean isEnd = false;
+    private boolean isOpen = true;
+
+    PipelinedChannel(InputStream input) {
+        this(input, BUFFER_SIZE, BUFFERS_COUNT);
+    }
+
+    PipelinedChannel(InputStream input, int bufferSize, int buffersCount) {
+        if (bufferSize <= 0 || buffersCount <= 0) {
+            throw new IllegalArgumentException(
+                    "Invalid buffers: " + buffersCount + " of " + bufferSize + " bytes.");
+        }
+        this.input = input;
+        free = new ArrayBlockingQueue<>(buffersCount);
+        // Место под все буферы и END, поэтому поток распаковки не ждет, когда кладет END
+        filled = new ArrayBlockingQueue<>(buffersCount + 1);
+        for (int i = 0; i < buffersCount; i++) {
+            free.add(ByteBuffer.allocate(bufferSize));
+        }
+
+        thread = new Thread(this::fill, "obj-reader-decompression");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // END кладется при любом завершении, в том числе после Error (нехватка памяти, InternalError из zlib):
+    // иначе парсер навсегда остался бы ждать в take(). Не кладется только после остановки из close()
+    private void fill() {
+        boolean isInterrupted = false;
+        try {
+            while (true) {
+                ByteBuffer buffer = free.take();
+                buffer.clear();
+                int read = input.readNBytes(buffer.array(), 0, buffer.capacity());
+                if (read > 0) {
+                    buffer.limit(read);
+                    filled.put(buffer);
+                }
+                if (read < buffer.capacity()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException exception) {
+            isInterrupted = true;
+        } catch (Throwable throwable) {
+            failure = throwable;
+        } finally {
+            if (!isInterrupted) {
+                filled.offer(END);
+            }
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!isOpen) {
+            throw new ClosedChannelException();
+        }
+
+        int count = 0;
+        while (dst.hasRemaining()) {
+            if (current == null) {
+                if (isEnd) {
+                    break;
+                }
+                // Пока ничего не прочитано, ждем следующий буфер, иначе отдаем то, что уже есть
+                current = count == 0 ? take() : filled.poll();
+                if (current == null) {
+                    break;
+                }
+                if (current == END) {
+                    current = null;
+                    isEnd = true;
+                    break;
+                }
+            }
+
+            int length = Math.min(dst.remaining(), current.remaining());
+            dst.put(dst.position(), current, current.position(), length);
+            dst.position(dst.position() + length);
+            current.position(current.position() + length);
+            count += length;
+            if (!current.hasRemaining()) {
+                free.offer(current);
+                current = null;
+            }
+        }
+
+        if (count == 0 && isEnd) {
+            throwFailure();
+            return -1;
+        }
+        return count;
+    }
+
+    private ByteBuffer take() throws IOException {
+        try {
+            return filled.take();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void throwFailure() throws IOException {
+        Throwable throwable = failure;
+        if (throwable instanceof IOException) {
+            throw (IOException) throwable;
+        }
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        }
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    // Останавливает распаковку, если поток прочитан не до конца, и закрывает его
+    @Override
+    public void close() throws IOException {
+        if (!isOpen) {
+            return;
+        }
+        isOpen = false;
+        current = null;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.cgvsu.yurov.objreader.exceptions;
+
+public class NameException extends ObjReaderException {
+    public NameException(String element, int lineIndex) {
+        super(element + " must have a name.", lineIndex);
+    }
+}
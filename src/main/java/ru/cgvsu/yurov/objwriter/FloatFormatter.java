@@ -0,0 +1,136 @@
+package ru.cgvsu.yurov.objwriter;
+
+import java.nio.charset.StandardCharsets;
+
+// Запись float в байты самым коротким десятичным числом, которое читается обратно в тот же float.
+// Перебирается число значащих цифр n = 1..9: десятичное число с n цифрами, ближайшее к значению, проверяется тем же
+// способом, каким его прочитает ObjReader (одна операция с точной мантиссой и точной степенью десяти в double).
+// Числа, для которых такая проверка невозможна (очень большие и очень маленькие), записываются через Float.toString.
+// Экспонента нужна только там, где запись без нее длиннее, поэтому координаты обычно записываются как "0.25" и "-12.5"
+final class FloatFormatter {
+    // Самая длинная запись: знак, "0.", 21 ноль и 9 цифр, или запись Float.toString
+    static final int MAX_LENGTH = 48;
+
+    private static final int MAX_DIGITS = 9;
+    private static final int MAX_POWER = 22;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private FloatFormatter() {}
+
+    // Записывает value в buffer начиная с position и возвращает позицию после записи
+    static int format(float value, byte[] buffer, int position) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return formatSlow(value, buffer, position);
+        }
+        if (Float.floatToRawIntBits(value) < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        if (value == 0) {
+            buffer[position++] = '0';
+            return position;
+        }
+
+        double exact = value;
+        int exponent = (int) Math.floor(Math.log10(exact));
+        for (int digits = 1; digits <= MAX_DIGITS; digits++) {
+            // Число равно mantissa * 10^(-scale)
+            int scale = digits - 1 - exponent;
+            if (scale > MAX_POWER || scale < -MAX_POWER) {
+                break;
+            }
+            long mantissa = Math.round(scale >= 0 ? exact * POWERS_OF_TEN[scale] : exact / POWERS_OF_TEN[-scale]);
+            double parsed = scale >= 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa * POWERS_OF_TEN[-scale];
+            if ((float) parsed == value && !isFloatMidpoint(parsed)) {
+                while (scale > 0 && mantissa % 10 == 0) {
+                    mantissa /= 10;
+                    scale--;
+                }
+                return formatDecimal(mantissa, scale, buffer, position);
+            }
+        }
+        return formatSlow(value, buffer, position);
+    }
+
+    // То же условие, что у FloatParser: такой double округляется в float неоднозначно
+    private static boolean isFloatMidpoint(double value) {
+        return (Double.doubleToRawLongBits(value) & 0x1FFFFFFFL) == 0x10000000L;
+    }
+
+    // Число mantissa * 10^(-scale) записывается без экспоненты или с экспонентой ("2.5e-7"), смотря что короче
+    private static int formatDecimal(long mantissa, int scale, byte[] buffer, int position) {
+        int digitsStart = position;
+        int digitsCount = formatLong(mantissa, buffer, position) - position;
+        int exponent = digitsCount - 1 - scale;
+        int plainLength = scale <= 0 ? digitsCount - scale : Math.max(digitsCount, scale + 1) + 1;
+        int scientificLength = digitsCount + (digitsCount > 1 ? 1 : 0) + 1 + (exponent < 0 ? 1 : 0)
+                + (Math.abs(exponent) >= 10 ? 2 : 1);
+        if (scientificLength < plainLength) {
+            if (digitsCount > 1) {
+                System.arraycopy(buffer, digitsStart + 1, buffer, digitsStart + 2, digitsCount - 1);
+                buffer[digitsStart + 1] = '.';
+                position = digitsStart + digitsCount + 1;
+            } else {
+                position = digitsStart + 1;
+            }
+            buffer[position++] = 'e';
+            return formatLong(exponent, buffer, position);
+        }
+
+        if (scale <= 0) {
+            position += digitsCount;
+            for (int i = 0; i < -scale; i++) {
+                buffer[position++] = '0';
+            }
+            return position;
+        }
+
+        int integerDigits = digitsCount - scale;
+        if (integerDigits > 0) {
+            // 12345 при scale = 2: 123.45
+            System.arraycopy(buffer, digitsStart + integerDigits, buffer, digitsStart + integerDigits + 1, scale);
+            buffer[digitsStart + integerDigits] = '.';
+            return digitsStart + digitsCount + 1;
+        }
+
+        // 123 при scale = 5: 0.00123
+        int shift = 2 - integerDigits;
+        System.arraycopy(buffer, digitsStart, buffer, digitsStart + shift, digitsCount);
+        buffer[digitsStart] = '0';
+        buffer[digitsStart + 1] = '.';
+        for (int i = 0; i < -integerDigits; i++) {
+            buffer[digitsStart + 2 + i] = '0';
+        }
+        return digitsStart + shift + digitsCount;
+    }
+
+    static int formatLong(long value, byte[] buffer, int position) {
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int end = position;
+        long rest = value;
+        do {
+            end++;
+            rest /= 10;
+        } while (rest != 0);
+
+        int i = end;
+        do {
+            buffer[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        return end;
+    }
+
+    private static int formatSlow(float value, byte[] buffer, int position) {
+        byte[] bytes = Float.toString(value).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        return position + bytes.length;
+    }
+}
@@ -0,0 +1,274 @@
+package ru.cgvsu.yurov.objwriter;
+
+import ru.cgvsu.yurov.model.Group;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.PolygonStore;
+import ru.cgvsu.yurov.model.Submesh;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Запись Model в формате OBJ. Строки собираются прямо в байтах в одном буфере на всю запись, который сбрасывается
+// в канал по заполнении, - на строку не создаются ни строки, ни другие объекты.
+// Строки "mtllib" записываются первыми, затем вершины, текстурные вершины и нормали в порядке модели, затем полигоны
+// по порядку, а перед каждым диапазоном полигонов объекта, группы и подсетки - строки "o", "g" и "usemtl", перед сменой
+// группы сглаживания - строка "s". Полигоны без группы, идущие после группы, при чтении попадут в нее (так же
+// с объектами и материалами): в OBJ нельзя закрыть группу. Слово полигона имеет вид v, v/vt, v//vn или v/vt/vn в зависимости от того,
+// есть ли у полигона текстуры и нормали
+public class ObjWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Самое длинное слово полигона: три индекса по 11 символов и разделители
+    private static final int MAX_WORD_LENGTH = 40;
+
+    // Порядок строк состояния перед одним и тем же полигоном
+    private static final int OBJECT_LINE = 0;
+    private static final int GROUP_LINE = 1;
+    private static final int MATERIAL_LINE = 2;
+    private static final int SMOOTHING_LINE = 3;
+
+    private final WritableByteChannel channel;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+    private int position = 0;
+
+    private ObjWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public static void write(Model model, Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(model, channel);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    // Поток и канал не закрываются методом записи
+    public static void write(Model model, OutputStream outputStream) {
+        write(model, Channels.newChannel(outputStream));
+        try {
+            outputStream.flush();
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    public static void write(Model model, WritableByteChannel channel) {
+        try {
+            new ObjWriter(channel).writeModel(model);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    public static String write(Model model) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        write(model, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private void writeModel(Model model) throws IOException {
+        for (String fileName : model.getMaterialLibraries()) {
+            writeLine("mtllib ", fileName);
+        }
+        writeVectors("v ", model.getVertexBuffer(), 3);
+        writeVectors("vt ", model.getTextureVertexBuffer(), 2);
+        writeVectors("vn ", model.getNormalBuffer(), 3);
+
+        PolygonStore polygons = model.getPolygonStore();
+        StateLines lines = new StateLines(polygons.size());
+        lines.addGroups(model.getObjects(), OBJECT_LINE, "o ");
+        lines.addGroups(model.getGroups(), GROUP_LINE, "g ");
+        for (Submesh submesh : model.getSubmeshes()) {
+            lines.add(submesh.getStart(), MATERIAL_LINE, "usemtl " + submesh.getMaterial());
+        }
+        for (int run = 0; run < model.getSmoothingRunsSize(); run++) {
+            int group = model.getSmoothingRunGroup(run);
+            lines.add(model.getSmoothingRunStart(run), SMOOTHING_LINE, "s " + (group == 0 ? "off" : group));
+        }
+
+        long[] keys = lines.sortKeys();
+        int keyIndex = 0;
+        for (int polygonIndex = 0; polygonIndex <= polygons.size(); polygonIndex++) {
+            for (; keyIndex < keys.length && (int) (keys[keyIndex] >>> 32) <= polygonIndex; keyIndex++) {
+                writeBytes(lines.get(keys[keyIndex]));
+            }
+            if (polygonIndex < polygons.size()) {
+                writePolygon(polygons, polygonIndex);
+            }
+        }
+        flush();
+    }
+
+    private void writeLine(String token, String name) throws IOException {
+        writeAscii(token);
+        writeBytes(name.getBytes(StandardCharsets.UTF_8));
+        writeAscii("\n");
+    }
+
+    private void writeVectors(String token, FloatBuffer values, int dimension) throws IOException {
+        int size = values.remaining();
+        for (int i = 0; i < size; i += dimension) {
+            ensureSpace(token.length() + dimension * (FloatFormatter.MAX_LENGTH + 1));
+            writeAsciiUnchecked(token);
+            for (int component = 0; component < dimension; component++) {
+                if (component > 0) {
+                    buffer[position++] = ' ';
+                }
+                position = FloatFormatter.format(values.get(i + component), buffer, position);
+            }
+            buffer[position++] = '\n';
+        }
+    }
+
+    private void writePolygon(PolygonStore polygons, int polygonIndex) throws IOException {
+        int[] vertexIndices = polygons.getVertexIndices();
+        int[] textureVertexIndices = polygons.getTextureVertexIndices();
+        int[] normalIndices = polygons.getNormalIndices();
+        boolean hasTexture = polygons.hasTexture(polygonIndex);
+        boolean hasNormals = polygons.hasNormals(polygonIndex);
+
+        ensureSpace(2);
+        buffer[position++] = 'f';
+        int end = polygons.getPolygonEnd(polygonIndex);
+        for (int i = polygons.getPolygonStart(polygonIndex); i < end; i++) {
+            ensureSpace(MAX_WORD_LENGTH);
+            buffer[position++] = ' ';
+            position = FloatFormatter.formatLong(vertexIndices[i] + 1L, buffer, position);
+            if (hasTexture || hasNormals) {
+                buffer[position++] = '/';
+            }
+            if (hasTexture) {
+                position = FloatFormatter.formatLong(textureVertexIndices[i] + 1L, buffer, position);
+            }
+            if (hasNormals) {
+                buffer[position++] = '/';
+                position = FloatFormatter.formatLong(normalIndices[i] + 1L, buffer, position);
+            }
+        }
+        ensureSpace(1);
+        buffer[position++] = '\n';
+    }
+
+    private void writeAscii(String text) throws IOException {
+        ensureSpace(text.length());
+        writeAsciiUnchecked(text);
+    }
+
+    private void writeAsciiUnchecked(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        ensureSpace(bytes.length);
+        if (bytes.length > buffer.length) {
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+            return;
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureSpace(int length) throws IOException {
+        if (position + length > buffer.length) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        byteBuffer.clear().limit(position);
+        while (byteBuffer.hasRemaining()) {
+            channel.write(byteBuffer);
+        }
+        position = 0;
+    }
+
+    // Строки "o", "g", "usemtl" и "s" с номерами полигонов, перед которыми они пишутся. Ключ сортировки: в старших
+    // битах номер полигона, затем вид строки и номер строки в порядке добавления
+    private static class StateLines {
+        private static final int INDEX_BITS = 30;
+
+        private final int polygonsSize;
+        private final List<byte[]> lines = new ArrayList<>();
+        private long[] keys = new long[16];
+
+        StateLines(int polygonsSize) {
+            this.polygonsSize = polygonsSize;
+        }
+
+        void add(int polygonIndex, int kind, String line) {
+            if (lines.size() == 1 << INDEX_BITS) {
+                throw new IllegalStateException("Too many groups to write.");
+            }
+            if (lines.size() == keys.length) {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+            }
+            keys[lines.size()] = (long) Math.min(polygonIndex, polygonsSize) << 32
+                    | (long) kind << INDEX_BITS | lines.size();
+            lines.add((line + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Строка группы пишется перед каждым ее диапазоном, а пустая группа - перед следующей за ней в списке
+        // непустой группой или в конце файла
+        void addGroups(List<Group> groups, int kind, String token) {
+            int rangesSize = 0;
+            for (Group group : groups) {
+                rangesSize += group.getRangesSize();
+            }
+            long[] ranges = new long[rangesSize];
+            int rangeIndex = 0;
+            for (int groupIndex = 0; groupIndex < groups.size(); groupIndex++) {
+                Group group = groups.get(groupIndex);
+                for (int range = 0; range < group.getRangesSize(); range++) {
+                    ranges[rangeIndex++] = (long) group.getRangeStart(range) << 32 | groupIndex;
+                }
+            }
+            Arrays.sort(ranges);
+
+            int nextGroup = 0;
+            for (long range : ranges) {
+                int start = (int) (range >>> 32);
+                int groupIndex = (int) range;
+                for (; nextGroup <= groupIndex; nextGroup++) {
+                    if (groups.get(nextGroup).getPolygonsSize() == 0) {
+                        add(start, kind, token + groups.get(nextGroup).getName());
+                    }
+                }
+                add(start, kind, token + groups.get(groupIndex).getName());
+            }
+            for (; nextGroup < groups.size(); nextGroup++) {
+                if (groups.get(nextGroup).getPolygonsSize() == 0) {
+                    add(polygonsSize, kind, token + groups.get(nextGroup).getName());
+                }
+            }
+        }
+
+        long[] sortKeys() {
+            long[] sorted = Arrays.copyOf(keys, lines.size());
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        byte[] get(long key) {
+            return lines.get((int) (key & ((1 << INDEX_BITS) - 1)));
+        }
+    }
+}
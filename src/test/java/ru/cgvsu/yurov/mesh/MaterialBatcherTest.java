@@ -0,0 +1,77 @@
+package ru.cgvsu.yurov.mesh;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.objreader.ObjReader;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class MaterialBatcherTest {
+    @Test
+    void testOneBatchPerMaterial() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                v 0 1 0
+                f 1 2 3
+                usemtl red
+                f 1 2 3 4
+                usemtl blue
+                f 2 3 4
+                usemtl red
+                f 3 4 1
+                usemtl unused
+                """);
+        MaterialBatches batches = MaterialBatcher.batch(model);
+
+        Assertions.assertEquals(Arrays.asList(null, "red", "blue"), batches.getMaterials());
+        Assertions.assertEquals(3, batches.getBatchesSize());
+        Assertions.assertEquals(0, batches.getStart(0));
+        Assertions.assertEquals(3, batches.getSize(0));
+        Assertions.assertEquals(3, batches.getStart(1));
+        Assertions.assertEquals(9, batches.getSize(1));
+        Assertions.assertEquals(12, batches.getStart(2));
+        Assertions.assertEquals(3, batches.getSize(2));
+        // Треугольники красного материала из двух подсеток идут подряд в исходном порядке
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 0, 1, 2, 0, 2, 3, 2, 3, 0, 1, 2, 3}, batches.getIndices());
+    }
+
+    @Test
+    void testWeldedIndices() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                v 0 1 0
+                usemtl a
+                f 1 2 3
+                usemtl b
+                f 1 3 4
+                usemtl a
+                f 2 3 4
+                """);
+        Triangulation triangulation = Triangulator.triangulate(model);
+        WeldedMesh mesh = VertexWelder.weld(model, triangulation, false);
+        MaterialBatches batches = MaterialBatcher.batch(model, triangulation, mesh.getIndices());
+
+        Assertions.assertEquals(List.of("a", "b"), batches.getMaterials());
+        Assertions.assertEquals(6, batches.getSize(0));
+        int[] sortedIndices = batches.getIndices().clone();
+        int[] expectedIndices = mesh.getIndices().clone();
+        Arrays.sort(sortedIndices);
+        Arrays.sort(expectedIndices);
+        Assertions.assertArrayEquals(expectedIndices, sortedIndices);
+
+        try {
+            MaterialBatcher.batch(model, triangulation, new int[3]);
+            Assertions.fail();
+        } catch (IllegalArgumentException exception) {
+            Assertions.assertEquals("Indices size 3 does not match 3 triangles.", exception.getMessage());
+        }
+        Assertions.assertEquals(Collections.emptyList(), MaterialBatcher.batch(new Model()).getMaterials());
+    }
+}
@@ -0,0 +1,132 @@
+package ru.cgvsu.yurov.mesh;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.PolygonStore;
+import ru.cgvsu.yurov.objreader.ObjReader;
+
+import java.time.Duration;
+
+public class NormalGeneratorTest {
+    private static final String CUBE = """
+            v 0 0 0
+            v 1 0 0
+            v 1 1 0
+            v 0 1 0
+            v 0 0 1
+            v 1 0 1
+            v 1 1 1
+            v 0 1 1
+            f 1 4 3 2
+            f 5 6 7 8
+            f 1 2 6 5
+            f 2 3 7 6
+            f 3 4 8 7
+            f 4 1 5 8
+            """;
+
+    @Test
+    void testSmoothCube() {
+        Model model = ObjReader.read(CUBE);
+        Assertions.assertEquals(8, NormalGenerator.generate(model));
+
+        Assertions.assertEquals(8, model.getNormalsSize());
+        float component = (float) (1 / Math.sqrt(3));
+        PolygonStore polygons = model.getPolygonStore();
+        for (int polygon = 0; polygon < polygons.size(); polygon++) {
+            Assertions.assertTrue(polygons.hasNormals(polygon));
+            for (int corner = polygons.getPolygonStart(polygon); corner < polygons.getPolygonEnd(polygon); corner++) {
+                int vertex = polygons.getVertexIndices()[corner];
+                int normal = polygons.getNormalIndices()[corner];
+                // Нормаль угла куба направлена от центра куба
+                Assertions.assertEquals(component * Math.signum(model.getVertexX(vertex) - 0.5f),
+                        model.getNormalX(normal), 1e-6);
+                Assertions.assertEquals(component * Math.signum(model.getVertexY(vertex) - 0.5f),
+                        model.getNormalY(normal), 1e-6);
+                Assertions.assertEquals(component * Math.signum(model.getVertexZ(vertex) - 0.5f),
+                        model.getNormalZ(normal), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void testCreaseAngle() {
+        Model model = ObjReader.read(CUBE);
+        // Соседние грани куба расходятся на 90 градусов, поэтому у каждого угла остается нормаль его грани
+        Assertions.assertEquals(24, NormalGenerator.generate(model, 60));
+
+        PolygonStore polygons = model.getPolygonStore();
+        int corner = polygons.getPolygonStart(0);
+        int normal = polygons.getNormalIndices()[corner];
+        Assertions.assertEquals(0, model.getNormalX(normal), 1e-6);
+        Assertions.assertEquals(0, model.getNormalY(normal), 1e-6);
+        Assertions.assertEquals(-1, model.getNormalZ(normal), 1e-6);
+    }
+
+    @Test
+    void testExistingNormalsAreKept() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 0 1 0
+                v 0 0 1
+                vn 1 0 0
+                f 1//1 2//1 3//1
+                f 1 2 4
+                """);
+        Assertions.assertEquals(3, NormalGenerator.generate(model));
+
+        Assertions.assertEquals(4, model.getNormalsSize());
+        Assertions.assertEquals(0, model.getPolygons().get(0).getNormalIndices().get(0));
+        Assertions.assertEquals(-1, model.getNormalY(model.getPolygons().get(1).getNormalIndices().get(0)), 1e-6);
+        Assertions.assertEquals(0, NormalGenerator.generate(model));
+    }
+
+    @Test
+    void testLargeGrid() {
+        int size = 300;
+        StringBuilder builder = new StringBuilder();
+        for (int y = 0; y <= size; y++) {
+            for (int x = 0; x <= size; x++) {
+                builder.append("v ").append(x).append(' ').append(y).append(" 0\n");
+            }
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int a = y * (size + 1) + x + 1;
+                builder.append("f ").append(a).append(' ').append(a + 1).append(' ')
+                        .append(a + size + 2).append(' ').append(a + size + 1).append('\n');
+            }
+        }
+        Model model = ObjReader.read(builder.toString());
+
+        Assertions.assertEquals((size + 1) * (size + 1), NormalGenerator.generate(model, 30));
+        for (int i = 0; i < model.getNormalsSize(); i++) {
+            Assertions.assertEquals(1, model.getNormalZ(i), 1e-6);
+        }
+    }
+
+    @Test
+    void testHighValenceVertex() {
+        // Веер из многих треугольников вокруг одной вершины: с углом излома ее соседние полигоны делятся на группы
+        // за один проход, а не сравниваются попарно
+        int size = 100000;
+        StringBuilder builder = new StringBuilder("v 0 0 0\n");
+        for (int i = 0; i < size; i++) {
+            double angle = 2 * Math.PI * i / size;
+            builder.append("v ").append((float) Math.cos(angle)).append(' ').append((float) Math.sin(angle))
+                    .append(" 0\n");
+        }
+        for (int i = 0; i < size; i++) {
+            builder.append("f 1 ").append(i + 2).append(' ').append((i + 1) % size + 2).append('\n');
+        }
+        Model model = ObjReader.read(builder.toString());
+
+        int normalsSize = Assertions.assertTimeout(Duration.ofSeconds(10), () -> NormalGenerator.generate(model, 30));
+        Assertions.assertEquals(size + 1, normalsSize);
+        for (int i = 0; i < model.getNormalsSize(); i++) {
+            Assertions.assertEquals(1, model.getNormalZ(i), 1e-6);
+        }
+    }
+}
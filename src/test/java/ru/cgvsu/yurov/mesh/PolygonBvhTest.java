@@ -0,0 +1,95 @@
+package ru.cgvsu.yurov.mesh;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.cgvsu.yurov.model.BoundingBox;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.objreader.ObjReader;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class PolygonBvhTest {
+    // Сетка из квадратов size x size в плоскости z = 0, квадрат (x, y) - полигон y * size + x
+    private static Model generateGrid(int size) {
+        StringBuilder builder = new StringBuilder();
+        for (int y = 0; y <= size; y++) {
+            for (int x = 0; x <= size; x++) {
+                builder.append("v ").append(x).append(' ').append(y).append(" 0\n");
+            }
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int a = y * (size + 1) + x + 1;
+                builder.append("f ").append(a).append(' ').append(a + 1).append(' ')
+                        .append(a + size + 2).append(' ').append(a + size + 1).append('\n');
+            }
+        }
+        return ObjReader.read(builder.toString());
+    }
+
+    @Test
+    void testRay() {
+        int size = 200;
+        Model model = generateGrid(size);
+        PolygonBvh bvh = PolygonBvh.build(model);
+
+        Assertions.assertEquals(new BoundingBox(0, 0, 0, size, size, 0), bvh.getBounds());
+        Assertions.assertTrue(bvh.getNodesSize() < 2 * size * size);
+        Assertions.assertEquals(57 * size + 31, bvh.intersectRay(31.5f, 57.5f, 10, 0, 0, -1));
+        Assertions.assertEquals(57 * size + 31, bvh.intersectRay(30.5f, 57.5f, -1, 1, 0, 1));
+        Assertions.assertEquals(-1, bvh.intersectRay(31.5f, 57.5f, 10, 0, 0, 1));
+        Assertions.assertEquals(-1, bvh.intersectRay(-5, -5, 10, 0, 0, -1));
+    }
+
+    @Test
+    void testNearestPolygon() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 0 1 0
+                v 0 0 2
+                v 1 0 2
+                v 0 1 2
+                f 1 2 3
+                f 4 5 6
+                """);
+        PolygonBvh bvh = PolygonBvh.build(model);
+
+        Assertions.assertEquals(1, bvh.intersectRay(0.2f, 0.2f, 5, 0, 0, -1));
+        Assertions.assertEquals(0, bvh.intersectRay(0.2f, 0.2f, -5, 0, 0, 1));
+        // Точка вне треугольника, но внутри его параллелепипеда
+        Assertions.assertEquals(-1, bvh.intersectRay(0.8f, 0.8f, 5, 0, 0, -1));
+    }
+
+    @Test
+    void testBoxQueryMatchesLinearScan() {
+        int size = 250;
+        Model model = generateGrid(size);
+        PolygonBvh bvh = PolygonBvh.build(model);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 20; i++) {
+            float x = random.nextFloat() * size;
+            float y = random.nextFloat() * size;
+            float width = random.nextFloat() * 20;
+            float height = random.nextFloat() * 20;
+            BoundingBox box = new BoundingBox(x, y, -1, x + width, y + height, 1);
+
+            int[] expected = IntStream.range(0, model.getPolygonsSize()).filter(polygon -> {
+                int px = polygon % size;
+                int py = polygon / size;
+                return px <= box.getMaxX() && px + 1 >= box.getMinX() && py <= box.getMaxY() && py + 1 >= box.getMinY();
+            }).toArray();
+            Assertions.assertArrayEquals(expected, bvh.queryBox(box));
+        }
+        Assertions.assertEquals(0, bvh.queryBox(new BoundingBox(0, 0, 2, size, size, 3)).length);
+    }
+
+    @Test
+    void testEmptyModel() {
+        PolygonBvh bvh = PolygonBvh.build(new Model());
+        Assertions.assertEquals(-1, bvh.intersectRay(0, 0, 0, 1, 0, 0));
+        Assertions.assertEquals(0, bvh.queryBox(new BoundingBox(0, 0, 0, 1, 1, 1)).length);
+    }
+}
@@ -0,0 +1,122 @@
+package ru.cgvsu.yurov.mesh;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.objreader.ModelBuilder;
+import ru.cgvsu.yurov.objreader.ObjReader;
+
+public class TriangulatorTest {
+    // Удвоенная ориентированная площадь треугольника в плоскости xy
+    private static float area(Model model, int a, int b, int c) {
+        return (model.getVertexX(b) - model.getVertexX(a)) * (model.getVertexY(c) - model.getVertexY(a))
+                - (model.getVertexY(b) - model.getVertexY(a)) * (model.getVertexX(c) - model.getVertexX(a));
+    }
+
+    private static boolean contains(int[] triangle, int vertex) {
+        return triangle[0] == vertex || triangle[1] == vertex || triangle[2] == vertex;
+    }
+
+    @Test
+    void testConvexFan() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                v 0 1 0
+                v 2 2 2
+                vt 0 0
+                f 1/1 2/1 3/1 4/1
+                f 3/1 4/1 5/1
+                """);
+        Triangulation triangulation = Triangulator.triangulate(model);
+
+        Assertions.assertEquals(3, triangulation.getTrianglesSize());
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3, 2, 3, 4}, triangulation.getIndices());
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3, 4, 5, 6}, triangulation.getCorners());
+        Assertions.assertArrayEquals(new int[]{0, 0, 1}, triangulation.getPolygons());
+    }
+
+    @Test
+    void testConcaveEarClipping() {
+        // Стрелка: веер из первой вершины дал бы треугольник вне многоугольника
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 2 1 0
+                v 4 0 0
+                v 2 3 0
+                f 2 3 4 1
+                """);
+        Triangulation triangulation = Triangulator.triangulate(model);
+
+        Assertions.assertEquals(2, triangulation.getTrianglesSize());
+        int[] indices = triangulation.getIndices();
+        float totalArea = 0;
+        for (int i = 0; i < indices.length; i += 3) {
+            float area = area(model, indices[i], indices[i + 1], indices[i + 2]);
+            Assertions.assertTrue(area > 0);
+            totalArea += area;
+        }
+        Assertions.assertEquals(8, totalArea, 1e-6);
+    }
+
+    @Test
+    void testConcaveInOtherPlane() {
+        // Стрелка в плоскости yz с обратным обходом: диагональ 1-3 проходит вне многоугольника
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 0 1 2
+                v 0 0 4
+                v 0 3 2
+                f 1 4 3 2
+                """);
+        Triangulation triangulation = Triangulator.triangulate(model);
+        int[] indices = triangulation.getIndices();
+        Assertions.assertEquals(2, triangulation.getTrianglesSize());
+        for (int i = 0; i < indices.length; i += 3) {
+            int[] triangle = {indices[i], indices[i + 1], indices[i + 2]};
+            Assertions.assertFalse(contains(triangle, 0) && contains(triangle, 2));
+        }
+    }
+
+    @Test
+    void testParallelSameAsStreaming() {
+        StringBuilder sb = new StringBuilder();
+        int size = 20000;
+        for (int i = 0; i < size; i++) {
+            sb.append("v ").append(i).append(" 0 0\n");
+            sb.append("v ").append(i).append(" 1 0\n");
+            sb.append("v ").append(i + 0.5F).append(" 0.5 0\n");
+        }
+        for (int i = 0; i < size - 1; i++) {
+            int a = i * 3 + 1;
+            int b = (i + 1) * 3 + 1;
+            if (i % 2 == 0) {
+                sb.append("f ").append(a).append(' ').append(b).append(' ').append(b + 1).append(' ').append(a + 1).append('\n');
+            } else {
+                sb.append("f ").append(a).append(' ').append(b).append(' ').append(b + 1)
+                        .append(' ').append(a + 2).append(' ').append(a + 1).append('\n');
+            }
+        }
+        String content = sb.toString();
+
+        Model model = ObjReader.read(content);
+        Triangulation triangulation = Triangulator.triangulate(model);
+
+        ModelBuilder modelBuilder = new ModelBuilder();
+        ObjReader.read(content, new TriangulatingVisitor(modelBuilder));
+        Model streamed = modelBuilder.getModel();
+
+        Assertions.assertEquals(triangulation.getTrianglesSize(), streamed.getPolygonsSize());
+        int[] indices = triangulation.getIndices();
+        int[] streamedIndices = streamed.getPolygonStore().getVertexIndices();
+        for (int i = 0; i < indices.length; i++) {
+            Assertions.assertEquals(indices[i], streamedIndices[i]);
+        }
+        for (int i = 0; i < triangulation.getTrianglesSize(); i++) {
+            Assertions.assertEquals(
+                    model.getPolygons().get(triangulation.getPolygons()[i]).getLineIndex(),
+                    streamed.getPolygons().get(i).getLineIndex());
+        }
+    }
+}
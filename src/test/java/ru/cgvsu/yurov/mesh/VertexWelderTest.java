@@ -0,0 +1,91 @@
+package ru.cgvsu.yurov.mesh;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.objreader.ObjReader;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+public class VertexWelderTest {
+    @Test
+    void testSharedCornersAreWelded() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                v 0 1 0
+                vt 0 0
+                vt 1 1
+                vn 0 0 1
+                f 1/1/1 2/1/1 3/1/1 4/1/1
+                f 3/1/1 2/2/1 1/1/1
+                """);
+        WeldedMesh mesh = VertexWelder.weld(model, false);
+
+        Assertions.assertTrue(mesh.hasTexture());
+        Assertions.assertTrue(mesh.hasNormals());
+        Assertions.assertEquals(8, mesh.getStride());
+        // Вершина 2 со второй текстурной вершиной - отдельная вершина, остальные углы второго полигона переиспользуются
+        Assertions.assertEquals(5, mesh.getVerticesSize());
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3, 2, 4, 0}, mesh.getIndices());
+        Assertions.assertArrayEquals(new float[]{1, 0, 0, 1, 1, 0, 0, 1},
+                Arrays.copyOfRange(mesh.getVertices(), 4 * 8, 5 * 8));
+    }
+
+    @Test
+    void testWithoutTextureAndNormals() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                v 0 1 0
+                f 1 2 3
+                f 1 3 4
+                """);
+        WeldedMesh mesh = VertexWelder.weld(model);
+
+        Assertions.assertFalse(mesh.hasTexture());
+        Assertions.assertFalse(mesh.hasNormals());
+        Assertions.assertEquals(3, mesh.getStride());
+        Assertions.assertArrayEquals(new float[]{0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0}, mesh.getVertices());
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3}, mesh.getIndices());
+
+        ByteBuffer buffer = mesh.toByteBuffer();
+        Assertions.assertTrue(buffer.isDirect());
+        FloatBuffer floats = buffer.asFloatBuffer();
+        Assertions.assertEquals(12, floats.remaining());
+        Assertions.assertEquals(1, floats.get(6));
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        // Сетка с общими вершинами у соседних квадратов, чтобы одинаковые тройки встречались в разных частях
+        int size = 300;
+        StringBuilder builder = new StringBuilder();
+        for (int y = 0; y <= size; y++) {
+            for (int x = 0; x <= size; x++) {
+                builder.append("v ").append(x).append(' ').append(y).append(" 0\n");
+            }
+        }
+        builder.append("vn 0 0 1\n");
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int a = y * (size + 1) + x + 1;
+                builder.append("f ").append(a).append("//1 ").append(a + 1).append("//1 ")
+                        .append(a + size + 2).append("//1 ").append(a + size + 1).append("//1\n");
+            }
+        }
+        Model model = ObjReader.read(builder.toString());
+
+        WeldedMesh sequential = VertexWelder.weld(model, false);
+        WeldedMesh parallel = VertexWelder.weld(model, true);
+
+        Assertions.assertEquals((size + 1) * (size + 1), sequential.getVerticesSize());
+        Assertions.assertEquals(size * size * 6, sequential.getIndices().length);
+        Assertions.assertArrayEquals(sequential.getIndices(), parallel.getIndices());
+        Assertions.assertArrayEquals(sequential.getVertices(), parallel.getVertices());
+    }
+}
@@ -0,0 +1,126 @@
+package ru.cgvsu.yurov.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.cgvsu.yurov.objreader.ObjReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class BinaryModelTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() {
+        Model model = ObjReader.read("""
+                v 1 2 3
+                v 4 5 6
+                v 7 8 9
+                v 0.5 -1 1e-3
+                vt 0 1
+                vn 0 0 1
+                mtllib scene.mtl
+                g first
+                o body
+                usemtl red
+                s 2
+                f 1//1 2//1 3//1
+                usemtl blue
+                f 1 2 3 4
+                g second group
+                s off
+                f 4//1 3//1 2//1
+                """);
+        Path path = tempDir.resolve("model.bin");
+        SourceFileKey key = new SourceFileKey(10, 20, 30, 1);
+        BinaryModelWriter.write(model, path, key);
+
+        Model read = BinaryModelReader.read(path);
+        Assertions.assertEquals(key, BinaryModelReader.readSourceKey(path));
+        Assertions.assertEquals(model.getVertices(), read.getVertices());
+        Assertions.assertEquals(model.getTextureVertices(), read.getTextureVertices());
+        Assertions.assertEquals(model.getNormals(), read.getNormals());
+        Assertions.assertEquals(model.getPolygons(), read.getPolygons());
+        for (int i = 0; i < model.getPolygonsSize(); i++) {
+            Assertions.assertEquals(model.getPolygons().get(i).getLineIndex(), read.getPolygons().get(i).getLineIndex());
+        }
+        Assertions.assertEquals(2, read.getGroups().size());
+        Assertions.assertEquals("second group", read.getGroups().get(1).getName());
+        Assertions.assertEquals(model.getGroups().get(0).getPolygons(), read.getGroups().get(0).getPolygons());
+        Assertions.assertEquals(model.getGroups().get(1).getPolygons(), read.getGroups().get(1).getPolygons());
+        Assertions.assertEquals(1, read.getObjects().size());
+        Assertions.assertEquals("body", read.getObjects().get(0).getName());
+        Assertions.assertEquals(model.getObjects().get(0).getPolygons(), read.getObjects().get(0).getPolygons());
+        Assertions.assertEquals(model.getSubmeshes(), read.getSubmeshes());
+        Assertions.assertEquals(List.of("scene.mtl"), read.getMaterialLibraries());
+        Assertions.assertEquals(2, read.getSmoothingGroup(1));
+        Assertions.assertEquals(0, read.getSmoothingGroup(2));
+
+        read.addVertex(1, 1, 1);
+        read.addPolygon(new int[]{4, 0, 1}, null, null, 3, 12);
+        Assertions.assertEquals(5, read.getVerticesSize());
+        Assertions.assertEquals(4, read.getPolygonsSize());
+    }
+
+    @Test
+    void testEmptyModel() {
+        Path path = tempDir.resolve("empty.bin");
+        BinaryModelWriter.write(new Model(), path);
+
+        Model read = BinaryModelReader.read(path);
+        Assertions.assertEquals(0, read.getVerticesSize());
+        Assertions.assertEquals(0, read.getPolygonsSize());
+        Assertions.assertEquals(SourceFileKey.NONE, BinaryModelReader.readSourceKey(path));
+    }
+
+    @Test
+    void testNotBinaryModel() throws IOException {
+        Path path = tempDir.resolve("model.obj");
+        Files.writeString(path, "v 1 2 3\n".repeat(20));
+
+        Assertions.assertNull(BinaryModelReader.readSourceKey(path));
+        Assertions.assertNull(BinaryModelReader.readSourceKey(tempDir.resolve("missing.bin")));
+        try {
+            BinaryModelReader.read(path);
+            Assertions.fail();
+        } catch (RuntimeException exception) {
+            Assertions.assertEquals("Not a binary model file: " + path, exception.getMessage());
+        }
+    }
+
+    @Test
+    void testForeignGroupPolygon() {
+        Group group = new Group("group");
+        try {
+            group.addPolygon(new Polygon());
+            Assertions.fail();
+        } catch (IllegalArgumentException exception) {
+            Assertions.assertEquals("Group polygons must belong to the model.", exception.getMessage());
+        }
+
+        Model model = new Model();
+        model.addPolygon(new int[]{0, 1, 2}, null, null, 3, 0);
+        Group foreignGroup = new Group("foreign");
+        foreignGroup.addPolygon(ObjReader.read("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3").getPolygons().get(0));
+        try {
+            model.addGroup(foreignGroup);
+            Assertions.fail();
+        } catch (IllegalArgumentException exception) {
+            Assertions.assertEquals("Group polygons must belong to the model.", exception.getMessage());
+        }
+
+        Group outOfRangeGroup = new Group("out of range");
+        outOfRangeGroup.addRange(0, 2);
+        model.addGroup(outOfRangeGroup);
+        try {
+            BinaryModelWriter.write(model, tempDir.resolve("model.bin"));
+            Assertions.fail();
+        } catch (IllegalArgumentException exception) {
+            Assertions.assertEquals("Group polygons must belong to the model.", exception.getMessage());
+        }
+    }
+}
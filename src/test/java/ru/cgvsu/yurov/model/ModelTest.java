@@ -0,0 +1,107 @@
+package ru.cgvsu.yurov.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.cgvsu.yurov.math.Vector2f;
+import ru.cgvsu.yurov.math.Vector3f;
+import ru.cgvsu.yurov.objreader.exceptions.FaceWordIndexException;
+
+import java.nio.FloatBuffer;
+import java.util.List;
+
+public class ModelTest {
+    @Test
+    void testPackedVertices() {
+        Model model = new Model();
+        model.addVertex(1, 2, 3);
+        model.addVertex(new Vector3f(4, 5, 6));
+        model.addTextureVertex(0.5F, 0.25F);
+        model.addNormal(0, 0, 1);
+
+        FloatBuffer vertexBuffer = model.getVertexBuffer();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, model.getVerticesSize()),
+                () -> Assertions.assertEquals(4, model.getVertexX(1)),
+                () -> Assertions.assertEquals(6, model.getVertexZ(1)),
+                () -> Assertions.assertEquals(0.25F, model.getTextureVertexV(0)),
+                () -> Assertions.assertEquals(1, model.getNormalZ(0)),
+                () -> Assertions.assertEquals(6, vertexBuffer.remaining()),
+                () -> Assertions.assertEquals(5, vertexBuffer.get(4))
+        );
+    }
+
+    @Test
+    void testListViews() {
+        Model model = new Model();
+        model.getVertices().add(new Vector3f(1, 2, 3));
+        model.getVertices().add(new Vector3f(4, 5, 6));
+        model.getVertices().set(0, new Vector3f(7, 8, 9));
+        model.getTextureVertices().add(new Vector2f(1, 0));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(List.of(new Vector3f(7, 8, 9), new Vector3f(4, 5, 6)), model.getVertices()),
+                () -> Assertions.assertEquals(7, model.getVertexX(0)),
+                () -> Assertions.assertEquals(List.of(new Vector2f(1, 0)), model.getTextureVertices()),
+                () -> Assertions.assertTrue(model.getNormals().isEmpty())
+        );
+    }
+
+    @Test
+    void testIndexOutOfBounds() {
+        Model model = new Model();
+        model.addVertex(1, 2, 3);
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> model.getVertexX(1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> model.getVertices().get(1));
+    }
+
+    @Test
+    void testPolygonStore() {
+        Model model = new Model();
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(List.of(0, 1, 2, 3));
+        polygon.setNormalIndices(List.of(4, 5, 6, 7));
+        polygon.setLineIndex(3);
+        model.addPolygon(polygon);
+        model.addPolygon(new int[]{2, 1, 0}, null, null, 3, 4);
+
+        PolygonStore store = model.getPolygonStore();
+        Polygon actual = model.getPolygons().get(0);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, store.size()),
+                () -> Assertions.assertEquals(7, store.getIndicesSize()),
+                () -> Assertions.assertEquals(4, store.getPolygonStart(1)),
+                () -> Assertions.assertEquals(3, store.getPolygonSize(1)),
+                () -> Assertions.assertTrue(store.hasNormals(0)),
+                () -> Assertions.assertFalse(store.hasNormals(1)),
+                () -> Assertions.assertEquals(polygon, actual),
+                () -> Assertions.assertEquals(3, actual.getLineIndex()),
+                () -> Assertions.assertFalse(actual.hasTexture()),
+                () -> Assertions.assertEquals(List.of(2, 1, 0), model.getPolygons().get(1).getVertexIndices()),
+                () -> Assertions.assertTrue(model.getPolygons().get(1).getNormalIndices().isEmpty())
+        );
+    }
+
+    @Test
+    void testPolygonViewWritesThrough() {
+        Model model = new Model();
+        model.addPolygon(new int[]{0, 1, 2}, null, null, 3, 1);
+        model.getPolygons().get(0).getVertexIndices().set(2, 5);
+
+        Polygon polygon = model.getPolygons().get(0);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(5, model.getPolygonStore().getVertexIndices()[2]),
+                () -> Assertions.assertThrows(UnsupportedOperationException.class,
+                        () -> polygon.setVertexIndices(List.of(1, 2, 3))),
+                () -> Assertions.assertThrows(FaceWordIndexException.class,
+                        () -> polygon.checkIndices(3, 0, 0))
+        );
+    }
+
+    @Test
+    void testPolygonSizeMismatch() {
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(List.of(0, 1, 2));
+        polygon.setTextureVertexIndices(List.of(0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Model().addPolygon(polygon));
+    }
+}
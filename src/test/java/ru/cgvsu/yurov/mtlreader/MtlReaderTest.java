@@ -0,0 +1,112 @@
+package ru.cgvsu.yurov.mtlreader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.cgvsu.yurov.math.Vector3f;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.objreader.ObjReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+public class MtlReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRead() {
+        MaterialLibrary library = MtlReader.read("""
+                # materials
+                Ns 10
+                newmtl red   paint
+                Ka 0.1 0.2 0.3
+                Kd 1 0 0
+                ks 0.5
+                Ns 96.5
+                d -halo 0.75
+                illum 1
+                map_Kd -s 1 1 1 textures/red.png
+                bump red_bump.png
+
+                newmtl glass
+                Tr 0.25
+                Ke spectral glass.rfl
+                unknown token
+                """);
+
+        Assertions.assertEquals(2, library.size());
+        Material red = library.getMaterial("red paint");
+        Assertions.assertEquals("red paint", red.getName());
+        Assertions.assertEquals(new Vector3f(0.1f, 0.2f, 0.3f), red.getAmbientColor());
+        Assertions.assertEquals(new Vector3f(1, 0, 0), red.getDiffuseColor());
+        Assertions.assertEquals(new Vector3f(0.5f, 0.5f, 0.5f), red.getSpecularColor());
+        Assertions.assertEquals(96.5f, red.getShininess());
+        Assertions.assertEquals(0.75f, red.getOpacity());
+        Assertions.assertEquals(1, red.getIlluminationModel());
+        Assertions.assertEquals("textures/red.png", red.getDiffuseMap());
+        Assertions.assertEquals("red_bump.png", red.getTextureMap("Bump"));
+
+        Material glass = library.getMaterial("glass");
+        Assertions.assertEquals(0.75f, glass.getOpacity());
+        Assertions.assertEquals(new Vector3f(0.8f, 0.8f, 0.8f), glass.getDiffuseColor());
+        Assertions.assertEquals(new Vector3f(0, 0, 0), glass.getEmissiveColor());
+        Assertions.assertNull(glass.getDiffuseMap());
+        Assertions.assertNull(library.getMaterial("missing"));
+    }
+
+    @Test
+    void testErrors() {
+        try {
+            MtlReader.read("newmtl a\nKd 1 x 0\n");
+            Assertions.fail();
+        } catch (MtlReaderException exception) {
+            String expectedMessage = "Error parsing MTL file on line: 2. Failed to parse float value.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+
+        try {
+            MtlReader.read("\nnewmtl\n");
+            Assertions.fail();
+        } catch (MtlReaderException exception) {
+            String expectedMessage = "Error parsing MTL file on line: 2. Material must have a name.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+    }
+
+    @Test
+    void testCacheSharesLibraries() throws IOException {
+        Path library = tempDir.resolve("scene.mtl");
+        Files.writeString(library, "newmtl red\nKd 1 0 0\nnewmtl blue\nKd 0 0 1\n");
+        Files.createDirectories(tempDir.resolve("models"));
+        Files.writeString(tempDir.resolve("models/local.mtl"), "newmtl red\nKd 0.5 0 0\nnewmtl green\nKd 0 1 0\n");
+
+        Model first = ObjReader.read("mtllib ../scene.mtl\nusemtl red\n");
+        Model second = ObjReader.read("mtllib local.mtl ../scene.mtl missing.mtl\nusemtl blue\n");
+        Path modelsPath = tempDir.resolve("models/model.obj");
+
+        MaterialLibraryCache cache = new MaterialLibraryCache();
+        Map<String, Material> firstMaterials = cache.getMaterials(first, modelsPath);
+        Map<String, Material> secondMaterials = cache.getMaterials(second, modelsPath);
+
+        Assertions.assertEquals(List.of("red", "blue"), List.copyOf(firstMaterials.keySet()));
+        Assertions.assertEquals(List.of("red", "green", "blue"), List.copyOf(secondMaterials.keySet()));
+        Assertions.assertSame(firstMaterials.get("blue"), secondMaterials.get("blue"));
+        Assertions.assertEquals(new Vector3f(0.5f, 0, 0), secondMaterials.get("red").getDiffuseColor());
+        Assertions.assertEquals(2, cache.getEntriesCount());
+        Assertions.assertEquals(2, cache.getMissCount());
+        Assertions.assertEquals(1, cache.getHitCount());
+
+        MaterialLibrary before = cache.get(library);
+        Files.writeString(library, "newmtl red\nKd 0 1 0\n");
+        Files.setLastModifiedTime(library, FileTime.fromMillis(Files.getLastModifiedTime(library).toMillis() + 1000));
+        MaterialLibrary after = cache.get(library);
+        Assertions.assertNotSame(before, after);
+        Assertions.assertEquals(1, after.size());
+        Assertions.assertEquals(3, cache.getMissCount());
+    }
+}
@@ -0,0 +1,70 @@
+package ru.cgvsu.yurov.objreader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.cgvsu.yurov.objreader.exceptions.TokenException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchObjReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReadAll() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Path path = tempDir.resolve("model" + i + ".obj");
+            Files.writeString(path, "v 1 2 3\nv 4 5 6\nv 7 8 " + i + "\nf 1 2 3\n");
+            paths.add(path);
+        }
+        Path broken = tempDir.resolve("broken.obj");
+        Files.writeString(broken, "v 1 2 3\nvv 1 2 3\n");
+        paths.add(5, broken);
+        Path missing = tempDir.resolve("missing.obj");
+        paths.add(missing);
+
+        BatchReadResult result = ObjReader.readAll(paths, new BatchReadOptions().setSoft(false).setParallelism(3));
+
+        Assertions.assertEquals(22, result.getFilesCount());
+        Assertions.assertEquals(2, result.getFailedCount());
+        for (int i = 0; i < paths.size(); i++) {
+            FileReadResult fileResult = result.getResults().get(i);
+            Assertions.assertEquals(paths.get(i), fileResult.getPath());
+            if (paths.get(i) == broken) {
+                Assertions.assertFalse(fileResult.isSuccess());
+                Assertions.assertNull(fileResult.getModel());
+                Assertions.assertEquals(new TokenException(2), fileResult.getException());
+            } else if (paths.get(i) == missing) {
+                Assertions.assertFalse(fileResult.isSuccess());
+            } else {
+                Assertions.assertTrue(fileResult.isSuccess());
+                Assertions.assertEquals(ObjReader.read(paths.get(i)).getVertices(), fileResult.getModel().getVertices());
+                Assertions.assertEquals(1, fileResult.getModel().getPolygonsSize());
+            }
+        }
+
+        long expectedBytes = 0;
+        for (Path path : paths) {
+            if (path != missing) {
+                expectedBytes += Files.size(path);
+            }
+        }
+        Assertions.assertEquals(expectedBytes, result.getBytesRead());
+    }
+
+    @Test
+    public void testInvalidParallelism() {
+        try {
+            new BatchReadOptions().setParallelism(0);
+            Assertions.fail();
+        } catch (IllegalArgumentException exception) {
+            Assertions.assertEquals("Parallelism must be positive: 0", exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package ru.cgvsu.yurov.objreader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.objreader.exceptions.TokenException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class CompressedObjReaderTest {
+    @TempDir
+    Path tempDir;
+
+    private static String generateContent(int size) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("g first\n");
+        for (int i = 0; i < size; i++) {
+            sb.append("v ").append(i).append(' ').append(i * 0.5f).append(" 1\n");
+            sb.append("vt ").append(i % 10 * 0.1f).append(" 0.5\n");
+            if (i >= 2) {
+                sb.append("f ").append(i - 1).append("/1 ").append(i).append("/2 ").append(i + 1).append("/3\n");
+            }
+            if (i % 1000 == 0) {
+                sb.append("g group").append(i).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void assertSameModel(Model expected, Model actual) {
+        Assertions.assertEquals(expected.getVertices(), actual.getVertices());
+        Assertions.assertEquals(expected.getTextureVertices(), actual.getTextureVertices());
+        Assertions.assertEquals(expected.getPolygons(), actual.getPolygons());
+        Assertions.assertEquals(expected.getGroups().size(), actual.getGroups().size());
+        Assertions.assertEquals(expected.getBounds(), actual.getBounds());
+    }
+
+    private Path writeGzip(String content) throws IOException {
+        Path path = tempDir.resolve("model.obj.gz");
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(path))) {
+            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return path;
+    }
+
+    private Path writeZip(String... namesAndContents) throws IOException {
+        Path path = tempDir.resolve("models.zip");
+        try (ZipOutputStream outputStream = new ZipOutputStream(Files.newOutputStream(path))) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                outputStream.putNextEntry(new ZipEntry(namesAndContents[i]));
+                outputStream.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                outputStream.closeEntry();
+            }
+        }
+        return path;
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        String content = generateContent(20000);
+        assertSameModel(ObjReader.read(content), ObjReader.readGzip(writeGzip(content)));
+    }
+
+    @Test
+    public void testZipFirstObjEntry() throws IOException {
+        String content = generateContent(5000);
+        Path path = writeZip("readme.txt", "not a model", "dir/", "",
+                "dir/model.obj", content, "other.obj", "v 1 2 3\n");
+        assertSameModel(ObjReader.read(content), ObjReader.readZip(path));
+    }
+
+    @Test
+    public void testZipNamedEntry() throws IOException {
+        Path path = writeZip("first.obj", "v 1 2 3\n", "second.obj", "v 4 5 6\nv 7 8 9\n");
+        Model model = ObjReader.readZip(path, "second.obj");
+        Assertions.assertEquals(2, model.getVerticesSize());
+    }
+
+    @Test
+    public void testZipMissingEntry() throws IOException {
+        Path path = writeZip("readme.txt", "not a model");
+        try {
+            ObjReader.readZip(path);
+            Assertions.fail();
+        } catch (IllegalArgumentException exception) {
+            Assertions.assertEquals("No OBJ entry in zip file: " + path, exception.getMessage());
+        }
+        try {
+            ObjReader.readZip(path, "model.obj");
+            Assertions.fail();
+        } catch (IllegalArgumentException exception) {
+            Assertions.assertEquals("No OBJ entry model.obj in zip file: " + path, exception.getMessage());
+        }
+    }
+
+    @Test
+    public void testParsingErrorInGzip() throws IOException {
+        Path path = writeGzip("v 1 2 3\nxyz\n");
+        try {
+            ObjReader.readGzip(path, false);
+            Assertions.fail();
+        } catch (TokenException exception) {
+            Assertions.assertEquals("Error parsing OBJ file on line: 2. Invalid line beginning.",
+                    exception.getMessage());
+        }
+    }
+
+    @Test
+    public void testTruncatedGzip() throws IOException {
+        Path path = writeGzip(generateContent(5000));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+        try {
+            ObjReader.readGzip(path);
+            Assertions.fail();
+        } catch (RuntimeException exception) {
+            Assertions.assertInstanceOf(IOException.class, exception.getCause());
+        }
+    }
+
+    @Test
+    public void testSmallBuffers() throws IOException {
+        byte[] bytes = generateContent(3000).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (PipelinedChannel channel = new PipelinedChannel(new ByteArrayInputStream(bytes), 100, 2)) {
+            ByteBuffer buffer = ByteBuffer.allocate(333);
+            while (channel.read(buffer) >= 0) {
+                result.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            Assertions.assertEquals(-1, channel.read(buffer));
+        }
+        Assertions.assertArrayEquals(bytes, result.toByteArray());
+    }
+
+    @Test
+    public void testCloseBeforeEnd() throws IOException {
+        boolean[] isClosed = {false};
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 'v';
+            }
+
+            @Override
+            public void close() {
+                isClosed[0] = true;
+            }
+        };
+
+        PipelinedChannel channel = new PipelinedChannel(endless, 64, 2);
+        Assertions.assertEquals(10, channel.read(ByteBuffer.allocate(10)));
+        channel.close();
+        Assertions.assertTrue(isClosed[0]);
+        Assertions.assertFalse(channel.isOpen());
+        try {
+            channel.read(ByteBuffer.allocate(10));
+            Assertions.fail();
+        } catch (ClosedChannelException ignored) {
+        }
+    }
+
+    @Test
+    public void testErrorInDecompressionThread() {
+        InputStream failing = new InputStream() {
+            private int count = 0;
+
+            @Override
+            public int read() {
+                if (count++ == 150) {
+                    throw new InternalError("inflate failed");
+                }
+                return count % 10 == 0 ? '\n' : ' ';
+            }
+        };
+
+        PipelinedChannel channel = new PipelinedChannel(failing, 64, 2);
+        Error error = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> Assertions.assertThrows(InternalError.class, () -> {
+                    try (channel) {
+                        ObjReader.read(channel, true, new ModelBuilder());
+                    }
+                }));
+        Assertions.assertEquals("inflate failed", error.getMessage());
+        Assertions.assertFalse(channel.isOpen());
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import ru.cgvsu.yurov.objreader.exceptions.ArgumentsSizeException;
 import ru.cgvsu.yurov.objreader.exceptions.ParsingException;
 
+import java.nio.ByteBuffer;
+
 public class FaceWordTest {
     @Test
     void testVertex1() {
@@ -138,4 +140,44 @@ public class FaceWordTest {
                 () -> Assertions.assertEquals(2, faceWord.getNormalIndex())
         );
     }
+
+    @Test
+    void testSignedIndices() {
+        FaceWord faceWord = FaceWord.parse("+4/-2/3", 1);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(WordType.VERTEX_TEXTURE_NORMAL, faceWord.getWordType()),
+                () -> Assertions.assertEquals(3, faceWord.getVertexIndex()),
+                () -> Assertions.assertEquals(-3, faceWord.getTextureVertexIndex()),
+                () -> Assertions.assertEquals(2, faceWord.getNormalIndex())
+        );
+    }
+
+    @Test
+    void testIndexOverflow() {
+        try {
+            FaceWord.parse("2147483648", 1);
+            Assertions.fail();
+        } catch (ParsingException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 1. Failed to parse integer value.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+    }
+
+    @Test
+    void testWordsIntoFaceIndices() {
+        byte[] bytes = "1/2 3/4 5/6/7".getBytes();
+        FaceIndices faceIndices = new FaceIndices();
+        FaceWord.parse(ByteBuffer.wrap(bytes), 0, 3, 1, true, faceIndices);
+        FaceWord.parse(ByteBuffer.wrap(bytes), 4, 7, 1, true, faceIndices);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, faceIndices.size()),
+                () -> Assertions.assertFalse(faceIndices.hasSeveralWordTypes()),
+                () -> Assertions.assertEquals(WordType.VERTEX_TEXTURE, faceIndices.getWordType()),
+                () -> Assertions.assertEquals(2, faceIndices.getVertexIndices()[1]),
+                () -> Assertions.assertEquals(3, faceIndices.getTextureVertexIndices()[1])
+        );
+
+        FaceWord.parse(ByteBuffer.wrap(bytes), 8, 13, 1, true, faceIndices);
+        Assertions.assertTrue(faceIndices.hasSeveralWordTypes());
+    }
 }
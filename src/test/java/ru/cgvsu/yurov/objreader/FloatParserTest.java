@@ -0,0 +1,90 @@
+package ru.cgvsu.yurov.objreader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.cgvsu.yurov.objreader.exceptions.ParsingException;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.util.Locale;
+import java.util.Random;
+
+public class FloatParserTest {
+    private static float parseWithDecimalFormat(String word, char decimalSeparator) throws ParseException {
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.ROOT);
+        symbols.setDecimalSeparator(decimalSeparator);
+        DecimalFormat format = new DecimalFormat("0.#", symbols);
+        return format.parse(word).floatValue();
+    }
+
+    @Test
+    void testSameAsDecimalFormat() throws ParseException {
+        String[] words = {
+                "0", "-0", "1", "-1", "0.5", "-0.5", ".5", "5.", "1.1", "-1.1", "0.000001", "123456.789",
+                "0.4612", "0.4725", "-0.999999", "3.14159265358979", "16777217", "1E5", "1.5E-3",
+                "1.5abc", "7/8", "0.1234567890123456789", "98765432109876543210"
+        };
+        for (String word : words) {
+            Assertions.assertEquals(parseWithDecimalFormat(word, '.'), FloatParser.parse(word, 1), word);
+
+            String commaWord = word.replace('.', ',');
+            Assertions.assertEquals(parseWithDecimalFormat(commaWord, ','), FloatParser.parse(commaWord, 1), commaWord);
+        }
+    }
+
+    @Test
+    void testRandomSameAsDecimalFormat() throws ParseException {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            String word = String.format(Locale.ROOT, "%." + random.nextInt(9) + "f", (random.nextDouble() - 0.5) * 2000);
+            Assertions.assertEquals(parseWithDecimalFormat(word, '.'), FloatParser.parse(word, 1), word);
+        }
+    }
+
+    @Test
+    void testCorrectRounding() {
+        String[] words = {
+                "1.00000017881393432617187499", "1.000000178813934326171875", "1.00000017881393432617187501",
+                "3.4028235e38", "3.4028236e38", "1e39", "1.4e-45", "1e-50", "1.17549435e-38",
+                "0.1e10", "123456789012345678901234567890e-20", "7.038531e-26", "1e-5", "4.5e15"
+        };
+        for (String word : words) {
+            Assertions.assertEquals(Float.parseFloat(word), FloatParser.parse(word, 1), word);
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            float value = Float.intBitsToFloat(random.nextInt());
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                continue;
+            }
+            String word = Float.toString(value);
+            Assertions.assertEquals(value, FloatParser.parse(word, 1), word);
+        }
+    }
+
+    @Test
+    void testLowercaseExponent() {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(1e5F, FloatParser.parse("1e5", 1)),
+                () -> Assertions.assertEquals(-2.5e-3F, FloatParser.parse("-2,5e-3", 1)),
+                () -> Assertions.assertEquals(250F, FloatParser.parse("2.5E+2", 1)),
+                () -> Assertions.assertEquals(1F, FloatParser.parse("1e", 1)),
+                () -> Assertions.assertEquals(1F, FloatParser.parse("1e-", 1))
+        );
+    }
+
+    @Test
+    void testParsingException() {
+        for (String word : new String[]{"", "-", ".", "abc", "+1", "-.e5"}) {
+            try {
+                FloatParser.parse(word, 3);
+                Assertions.fail(word);
+            } catch (ParsingException exception) {
+                String expectedMessage = "Error parsing OBJ file on line: 3. Failed to parse float value.";
+                Assertions.assertEquals(expectedMessage, exception.getMessage());
+            }
+        }
+    }
+}
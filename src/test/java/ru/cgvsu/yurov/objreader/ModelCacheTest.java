@@ -0,0 +1,118 @@
+package ru.cgvsu.yurov.objreader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.objreader.exceptions.TokenException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ModelCacheTest {
+    @TempDir
+    Path tempDir;
+
+    private Path write(String name, String content) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.writeString(path, content);
+        return path;
+    }
+
+    @Test
+    public void testHitsAndMisses() throws IOException {
+        Path path = write("model.obj", "v 1 2 3\nv 4 5 6\nv 7 8 9\nf 1 2 3\n");
+        ModelCache cache = new ModelCache(1 << 20);
+
+        Model model = cache.get(path);
+        Assertions.assertSame(model, cache.get(path));
+        Assertions.assertSame(model, cache.get(tempDir.resolve(".").resolve("model.obj")));
+
+        Assertions.assertEquals(1, cache.getMissCount());
+        Assertions.assertEquals(2, cache.getHitCount());
+        Assertions.assertEquals(model.getEstimatedSize(), cache.getSize());
+    }
+
+    @Test
+    public void testModifiedFileIsReloaded() throws IOException {
+        Path path = write("model.obj", "v 1 2 3\n");
+        ModelCache cache = new ModelCache(1 << 20);
+        Assertions.assertEquals(1, cache.get(path).getVerticesSize());
+
+        Files.writeString(path, "v 1 2 3\nv 4 5 6\n");
+        Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 1000));
+        Assertions.assertEquals(2, cache.get(path).getVerticesSize());
+        Assertions.assertEquals(2, cache.getMissCount());
+        Assertions.assertEquals(1, cache.getEntriesCount());
+    }
+
+    @Test
+    public void testEvictionBySize() throws IOException {
+        Path small = write("small.obj", "v 1 2 3\n");
+        Path large = write("large.obj", "v 1 2 3\n".repeat(1000));
+        long smallSize = ObjReader.read(small).getEstimatedSize();
+        ModelCache cache = new ModelCache(3 * smallSize);
+
+        Model first = cache.get(small);
+        cache.get(write("second.obj", "v 4 5 6\n"));
+        Assertions.assertEquals(0, cache.getEvictionCount());
+
+        // Большая модель не помещается в кэш и вытесняет все, в том числе саму себя
+        Assertions.assertEquals(1000, cache.get(large).getVerticesSize());
+        Assertions.assertEquals(3, cache.getEvictionCount());
+        Assertions.assertEquals(0, cache.getEntriesCount());
+        Assertions.assertEquals(0, cache.getSize());
+
+        Assertions.assertNotSame(first, cache.get(small));
+        Assertions.assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void testConcurrentRequestsShareLoad() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append("v ").append(i).append(" 1 2\n");
+        }
+        Path path = write("model.obj", content.toString());
+        ModelCache cache = new ModelCache(Long.MAX_VALUE);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Model>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(() -> cache.get(path)));
+            }
+            Model model = futures.get(0).get();
+            for (Future<Model> future : futures) {
+                Assertions.assertSame(model, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(1, cache.getMissCount());
+        Assertions.assertEquals(31, cache.getHitCount());
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() throws IOException {
+        Path path = write("model.obj", "vv 1 2 3\n");
+        ModelCache cache = new ModelCache(1 << 20, false);
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get(path);
+                Assertions.fail();
+            } catch (TokenException exception) {
+                Assertions.assertEquals(new TokenException(1), exception);
+            }
+        }
+        Assertions.assertEquals(2, cache.getMissCount());
+        Assertions.assertEquals(0, cache.getEntriesCount());
+    }
+}
@@ -0,0 +1,86 @@
+package ru.cgvsu.yurov.objreader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.cgvsu.yurov.model.Model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ModelProbeTest {
+    @TempDir
+    Path tempDir;
+
+    private Path write(String content) throws IOException {
+        Path path = tempDir.resolve("model.obj");
+        Files.writeString(path, content);
+        return path;
+    }
+
+    @Test
+    public void testProbe() throws IOException {
+        String content = "# comment\r\n"
+                + "v 1 2 3\r\n"
+                + "v 4 5 6 # v 1 2 3\n"
+                + "v 7 8 9\r"
+                + "v 1 1 1\n"
+                + " v 1 1 1\n"
+                + "vt 0 1\n"
+                + "vn 0 0 1\n"
+                + "vp 0 0 1\n"
+                + "\n"
+                + "   \n"
+                + "g group\n"
+                + "f 1/1/1 2/1/1\t3/1/1   4/1/1 # 5/1/1\n"
+                + "g second\n"
+                + "f 1/1/1 2/1/1 3/1/1";
+        Path path = write(content);
+
+        ModelSummary summary = ObjReader.probe(path);
+        Model model = ObjReader.read(path);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(content.getBytes(StandardCharsets.UTF_8).length, summary.getBytes()),
+                () -> Assertions.assertEquals(15, summary.getLines()),
+                () -> Assertions.assertEquals(model.getVerticesSize(), summary.getVertices()),
+                () -> Assertions.assertEquals(model.getTextureVerticesSize(), summary.getTextureVertices()),
+                () -> Assertions.assertEquals(model.getNormalsSize(), summary.getNormals()),
+                () -> Assertions.assertEquals(model.getPolygonsSize(), summary.getFaces()),
+                () -> Assertions.assertEquals(model.getPolygonStore().getIndicesSize(), summary.getFaceCorners()),
+                () -> Assertions.assertEquals(model.getGroups().size(), summary.getGroups()),
+                () -> Assertions.assertEquals(4, summary.getVertices()),
+                () -> Assertions.assertEquals(7, summary.getFaceCorners())
+        );
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        ModelSummary summary = ObjReader.probe(write(""));
+        Assertions.assertEquals(0, summary.getLines());
+        Assertions.assertEquals(0, summary.getVertices());
+    }
+
+    @Test
+    public void testReadPresized() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append("v ").append(i).append(" 0 1\nvt 0.5 0.5\n");
+            if (i >= 2) {
+                content.append("f ").append(i - 1).append("/1 ").append(i).append("/2 ").append(i + 1).append("/3\n");
+            }
+        }
+        Path path = write(content.toString());
+
+        Model presized = ObjReader.readPresized(path);
+        Model model = ObjReader.read(path);
+        Assertions.assertEquals(model.getVertices(), presized.getVertices());
+        Assertions.assertEquals(model.getPolygons(), presized.getPolygons());
+
+        // Память выделена ровно под элементы файла, запаса после чтения нет
+        long size = presized.getEstimatedSize();
+        presized.trimToSize();
+        Assertions.assertEquals(size, presized.getEstimatedSize());
+    }
+}
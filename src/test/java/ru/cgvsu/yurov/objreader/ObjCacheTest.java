@@ -0,0 +1,63 @@
+package ru.cgvsu.yurov.objreader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.cgvsu.yurov.model.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+public class ObjCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReadCached() throws IOException {
+        Path path = tempDir.resolve("model.obj");
+        Files.writeString(path, "v 1 2 3\nv 4 5 6\nv 7 8 9\ng group\nf 1 2 3\n");
+        Path cachePath = tempDir.resolve("model.obj.objcache");
+
+        Model parsed = ObjReader.readCached(path);
+        Assertions.assertTrue(Files.exists(cachePath));
+
+        Model cached = ObjReader.readCached(path);
+        Assertions.assertEquals(parsed.getVertices(), cached.getVertices());
+        Assertions.assertEquals(parsed.getPolygons(), cached.getPolygons());
+        Assertions.assertEquals(1, cached.getGroups().size());
+        Assertions.assertEquals(5, cached.getPolygons().get(0).getLineIndex());
+    }
+
+    @Test
+    public void testChangedSourceInvalidatesCache() throws IOException {
+        Path path = tempDir.resolve("model.obj");
+        Files.writeString(path, "v 1 2 3\n");
+        FileTime lastModified = Files.getLastModifiedTime(path);
+        ObjReader.readCached(path);
+
+        // Тот же размер и время изменения, но другое содержимое - отличается только хеш
+        Files.writeString(path, "v 7 8 9\n");
+        Files.setLastModifiedTime(path, lastModified);
+        Assertions.assertEquals(7, ObjReader.readCached(path).getVertexX(0));
+
+        Files.writeString(path, "v 1 2 3\nv 4 5 6\n");
+        Assertions.assertEquals(2, ObjReader.readCached(path).getVerticesSize());
+        Assertions.assertEquals(2, ObjReader.readCached(path).getVerticesSize());
+    }
+
+    @Test
+    public void testCorruptedCache() throws IOException {
+        Path path = tempDir.resolve("model.obj");
+        Files.writeString(path, "v 1 2 3\n");
+        ObjReader.readCached(path);
+
+        Path cachePath = tempDir.resolve("model.obj.objcache");
+        byte[] cache = Files.readAllBytes(cachePath);
+        Files.write(cachePath, Arrays.copyOf(cache, cache.length - 4));
+        Assertions.assertEquals(1, ObjReader.readCached(path).getVerticesSize());
+        Assertions.assertEquals(cache.length, Files.size(cachePath));
+    }
+}
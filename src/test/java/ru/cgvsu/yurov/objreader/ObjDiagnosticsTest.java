@@ -0,0 +1,134 @@
+package ru.cgvsu.yurov.objreader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.objreader.exceptions.ArgumentsErrorType;
+import ru.cgvsu.yurov.objreader.exceptions.ArgumentsSizeException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class ObjDiagnosticsTest {
+    private static final String CONTENT = """
+            v 1.0 2 3
+            v 1 2
+            v 1 a 3
+            v 4 5 6
+            v 7 8 9
+            xyz
+            f 1 2
+            f 1 2 9
+            f 1/1 2 3
+            g
+            usemtl
+            s on
+            f 1 2 3
+            f 1/1 2/1 3/1
+            v 1,5 2 3
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private static void assertDiagnostics(ObjDiagnostics diagnostics) {
+        List<ObjDiagnostic> list = diagnostics.getDiagnostics();
+        Assertions.assertEquals(11, diagnostics.getErrorsCount());
+        Assertions.assertEquals(11, list.size());
+        Assertions.assertFalse(diagnostics.isTruncated());
+
+        Assertions.assertEquals(List.of(
+                "Error parsing OBJ file on line: 2. Too few arguments.",
+                "Error parsing OBJ file on line: 3. Failed to parse float value.",
+                "Error parsing OBJ file on line: 6. Invalid line beginning.",
+                "Error parsing OBJ file on line: 7. Too few face arguments.",
+                "Error parsing OBJ file on line: 8. Exception in face argument 3: vertex index out of bounds.",
+                "Error parsing OBJ file on line: 9. Several argument types in one polygon.",
+                "Error parsing OBJ file on line: 10. Group must have a name.",
+                "Error parsing OBJ file on line: 11. Material must have a name.",
+                "Error parsing OBJ file on line: 12. Failed to parse smoothing group value.",
+                "Error parsing OBJ file on line: 14. Texture presence mismatch.",
+                "Two different decimal separators used in one file."
+        ), list.stream().map(ObjDiagnostic::getMessage).toList());
+
+        for (ObjDiagnostic diagnostic : list) {
+            Assertions.assertEquals(diagnostic.getKind().getExceptionType(), diagnostic.toException().getClass());
+        }
+        Assertions.assertEquals(ArgumentsErrorType.FEW, list.get(0).getArgumentsErrorType());
+        Assertions.assertEquals(DiagnosticKind.FACE_WORD_INDEX, list.get(4).getKind());
+        Assertions.assertEquals("vertex", list.get(4).getDetail());
+        Assertions.assertEquals(3, list.get(4).getWordIndex());
+    }
+
+    @Test
+    public void testValidateString() {
+        assertDiagnostics(ObjReader.validate(CONTENT, 100));
+    }
+
+    @Test
+    public void testValidateFile() throws IOException {
+        Path path = tempDir.resolve("model.obj");
+        Files.writeString(path, CONTENT);
+        assertDiagnostics(ObjReader.validate(path, 100));
+    }
+
+    @Test
+    public void testFirstDiagnosticMatchesException() {
+        ObjDiagnostic first = ObjReader.validate(CONTENT, 1).getDiagnostics().get(0);
+        try {
+            ObjReader.read(CONTENT, false);
+            Assertions.fail();
+        } catch (ArgumentsSizeException exception) {
+            Assertions.assertEquals(exception.getMessage(), first.getMessage());
+        }
+    }
+
+    @Test
+    public void testTruncated() {
+        ObjDiagnostics diagnostics = ObjReader.validate(CONTENT, 2);
+        Assertions.assertEquals(11, diagnostics.getErrorsCount());
+        Assertions.assertEquals(2, diagnostics.getDiagnostics().size());
+        Assertions.assertTrue(diagnostics.isTruncated());
+        Assertions.assertEquals(2, diagnostics.getDiagnostics().get(0).getLineIndex());
+        Assertions.assertEquals(3, diagnostics.getDiagnostics().get(1).getLineIndex());
+    }
+
+    @Test
+    public void testSoftMode() {
+        ObjDiagnostics diagnostics = ObjReader.validate("v 1 2 3 4\nxyz\nv 1 2\n", true, 10);
+        Assertions.assertEquals(1, diagnostics.getErrorsCount());
+        Assertions.assertEquals(3, diagnostics.getDiagnostics().get(0).getLineIndex());
+    }
+
+    @Test
+    public void testValidFile() {
+        ObjDiagnostics diagnostics = ObjReader.validate("v 1 2 3\nv 4 5 6\nf 1 2 -1\n", 10);
+        Assertions.assertFalse(diagnostics.hasErrors());
+        Assertions.assertTrue(diagnostics.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testReadingContinuesAfterBadLines() {
+        ObjDiagnostics diagnostics = new ObjDiagnostics(10);
+        ModelBuilder modelBuilder = new ModelBuilder();
+        ObjReader.readWithDiagnostics("v 1 2 3\nv 1 x 2\nv 4 5 6\nf 1 2\nv 7 8 9\nf 1 2 3\n", false,
+                modelBuilder, diagnostics);
+
+        Model model = modelBuilder.getModel();
+        Assertions.assertEquals(2, diagnostics.getErrorsCount());
+        Assertions.assertEquals(3, model.getVerticesSize());
+        Assertions.assertEquals(1, model.getPolygonsSize());
+    }
+
+    @Test
+    public void testForwardReferencesAreValid() {
+        ObjDiagnostics diagnostics = ObjReader.validate("f 1 2 3\nf 1 2 4\nv 1 2 3\nv 4 5 6\nv 7 8 9\n", 10);
+        Assertions.assertEquals(1, diagnostics.getErrorsCount());
+        ObjDiagnostic diagnostic = diagnostics.getDiagnostics().get(0);
+        Assertions.assertEquals(2, diagnostic.getLineIndex());
+        Assertions.assertEquals(3, diagnostic.getWordIndex());
+    }
+}
@@ -9,6 +9,11 @@ import ru.cgvsu.yurov.model.Polygon;
 import ru.cgvsu.yurov.objreader.exceptions.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 public class ObjReaderFileParsingTest {
@@ -126,4 +131,42 @@ public class ObjReaderFileParsingTest {
             Assertions.assertEquals(expectedMessage, exception.getMessage());
         }
     }
+
+    @Test
+    void testReadPath() {
+        Model expected = ObjReader.read(new File("src/test/resources/ObjFiles/TestComments.obj"));
+        Model actual = ObjReader.read(Path.of("src/test/resources/ObjFiles/TestComments.obj"));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(expected.getVertices(), actual.getVertices()),
+                () -> Assertions.assertEquals(expected.getNormals(), actual.getNormals()),
+                () -> Assertions.assertEquals(expected.getPolygons(), actual.getPolygons())
+        );
+    }
+
+    @Test
+    void testReadInputStream() throws IOException {
+        Model model;
+        try (InputStream inputStream = Files.newInputStream(Path.of("src/test/resources/ObjFiles/GroupTest.obj"))) {
+            model = ObjReader.read(inputStream);
+        }
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(4, model.getVerticesSize()),
+                () -> Assertions.assertEquals(6, model.getTextureVerticesSize()),
+                () -> Assertions.assertEquals(2, model.getPolygonsSize()),
+                () -> Assertions.assertEquals(2, model.getGroups().size())
+        );
+    }
+
+    @Test
+    void testReadChannelLineIndex() throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of("src/test/resources/ObjFiles/TextureMismatch.obj"))) {
+            ObjReader.read(channel);
+            Assertions.fail();
+        } catch (TextureException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 12. Texture presence mismatch.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+    }
 }
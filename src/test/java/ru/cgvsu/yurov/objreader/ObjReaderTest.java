@@ -4,9 +4,18 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import ru.cgvsu.yurov.math.Vector2f;
 import ru.cgvsu.yurov.math.Vector3f;
+import ru.cgvsu.yurov.model.BoundingBox;
+import ru.cgvsu.yurov.model.Group;
 import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.model.Submesh;
 import ru.cgvsu.yurov.objreader.exceptions.ArgumentsSizeException;
+import ru.cgvsu.yurov.objreader.exceptions.FaceWordIndexException;
 import ru.cgvsu.yurov.objreader.exceptions.FaceWordTypeException;
+import ru.cgvsu.yurov.objreader.exceptions.NameException;
+import ru.cgvsu.yurov.objreader.exceptions.ParsingException;
+import ru.cgvsu.yurov.objreader.exceptions.TokenException;
+
+import java.util.List;
 
 public class ObjReaderTest {
     @Test
@@ -205,4 +214,278 @@ public class ObjReaderTest {
                 () -> Assertions.assertEquals(0, model.getNormalsSize())
         );
     }
+
+    @Test
+    void testLineEndings() {
+        try {
+            ObjReader.read("v 0 0 0\r\nv 1 0 0\rv 0 1 0\n\r\nf 1 2 4");
+            Assertions.fail();
+        } catch (FaceWordIndexException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 5. Exception in face argument 3: vertex index out of bounds.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+    }
+
+    @Test
+    void testLeadingWhitespace() {
+        Model model = ObjReader.read("v 0 0 0\n  v 1 0 0\n\t \n");
+        Assertions.assertEquals(1, model.getVerticesSize());
+
+        try {
+            ObjReader.read("v 0 0 0\n  v 1 0 0", false);
+            Assertions.fail();
+        } catch (TokenException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 2. Invalid line beginning.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+    }
+
+    @Test
+    void testForwardReferences() {
+        Model model = ObjReader.read("f 1 2 3\nv 0 0 0\nv 1 0 0\nv 0 1 0");
+        Assertions.assertEquals(1, model.getPolygonsSize());
+
+        try {
+            ObjReader.read("f 1 2 3\nv 0 0 0\nv 1 0 0\nf 1 2 0\nv 0 1 0");
+            Assertions.fail();
+        } catch (FaceWordIndexException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 4. Exception in face argument 3: vertex index out of bounds.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+
+        // Ссылка вперед в первом полигоне оказалась неверной - ошибка для него, а не для второго полигона
+        try {
+            ObjReader.read("v 0 0 0\nv 1 0 0\nvn 0 0 1\nf 1//1 2//1 4//1\nf 1//1 2//1 3//0\nv 0 1 0");
+            Assertions.fail();
+        } catch (FaceWordIndexException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 4. Exception in face argument 3: vertex index out of bounds.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+    }
+
+    @Test
+    void testIndicesCheckOnLargeModel() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 40000; i++) {
+            sb.append("f 1 2 ").append(i + 3).append('\n');
+        }
+        for (int i = 0; i < 40002; i++) {
+            sb.append("v 0 0 ").append(i).append('\n');
+        }
+        Assertions.assertEquals(40000, ObjReader.read(sb.toString()).getPolygonsSize());
+
+        sb.append("v 0 0 0\n".repeat(2));
+        sb.insert(0, "f 1 2 40003\n");
+        Assertions.assertEquals(40001, ObjReader.read(sb.toString()).getPolygonsSize());
+
+        try {
+            ObjReader.read(sb.toString().replace("f 1 2 30003\n", "f 1 2 90000\n"));
+            Assertions.fail();
+        } catch (FaceWordIndexException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 30002. Exception in face argument 3: vertex index out of bounds.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+    }
+
+    @Test
+    void testRelativeIndices() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 0 1 0
+                vt 0 0
+                vt 1 1
+                vn 0 0 1
+                f -3/-2/-1 -2/-1/-1 -1/-1/1
+                v 1 1 0
+                vn 0 1 0
+                f -4/1/-2 2/-2/-1 -1/2/-1
+                """);
+
+        Assertions.assertEquals(List.of(0, 1, 2), model.getPolygons().get(0).getVertexIndices());
+        Assertions.assertEquals(List.of(0, 1, 1), model.getPolygons().get(0).getTextureVertexIndices());
+        Assertions.assertEquals(List.of(0, 0, 0), model.getPolygons().get(0).getNormalIndices());
+        Assertions.assertEquals(List.of(0, 1, 3), model.getPolygons().get(1).getVertexIndices());
+        Assertions.assertEquals(List.of(0, 0, 1), model.getPolygons().get(1).getTextureVertexIndices());
+        Assertions.assertEquals(List.of(0, 1, 1), model.getPolygons().get(1).getNormalIndices());
+
+        try {
+            ObjReader.read("v 0 0 0\nv 1 0 0\nv 0 1 0\nf -1 -2 -4");
+            Assertions.fail();
+        } catch (FaceWordIndexException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 4. Exception in face argument 3: vertex index out of bounds.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+    }
+
+    @Test
+    void testBounds() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 2 3
+                g first
+                f 1 2 3
+                g second
+                f 2 3 4
+                v -1 5 0.5
+                v 4 -2 1
+                """);
+
+        Assertions.assertEquals(new BoundingBox(-1, -2, 0, 4, 5, 3), model.getBounds());
+        Assertions.assertEquals(new BoundingBox(-1, 0, 0, 1, 5, 3), model.getGroups().get(0).getBounds());
+        Assertions.assertEquals(new BoundingBox(-1, -2, 0.5f, 4, 5, 3), model.getGroups().get(1).getBounds());
+
+        model.getVertices().set(3, new Vector3f(0, 0, 0));
+        Assertions.assertEquals(new BoundingBox(-1, 0, 0, 1, 5, 3), model.getBounds());
+        Assertions.assertTrue(new Model().getBounds().isEmpty());
+    }
+
+    @Test
+    void testGroupRanges() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 0 1 0
+                f 1 2 3
+                g body
+                f 1 2 3
+                f 2 3 1
+                g empty
+                g head
+                f 3 1 2
+                g body
+                f 1 3 2
+                """);
+
+        Assertions.assertEquals(4, model.getGroups().size());
+        Group body = model.getGroups().get(0);
+        Assertions.assertEquals(1, body.getRangesSize());
+        Assertions.assertEquals(1, body.getRangeStart(0));
+        Assertions.assertEquals(3, body.getRangeEnd(0));
+        Assertions.assertEquals(List.of(model.getPolygons().get(1), model.getPolygons().get(2)), body.getPolygons());
+        Assertions.assertEquals(0, model.getGroups().get(1).getRangesSize());
+
+        Assertions.assertEquals(2, model.getGroups("body").size());
+        Assertions.assertEquals(List.of(), model.getGroups("missing"));
+        Assertions.assertNull(model.getGroup("missing"));
+        Assertions.assertSame(model.getGroups().get(2), model.getGroup("head"));
+
+        Group allBody = model.getGroup("body");
+        Assertions.assertEquals(2, allBody.getRangesSize());
+        Assertions.assertEquals(3, allBody.getPolygonsSize());
+        Assertions.assertEquals(1, allBody.getPolygonIndex(0));
+        Assertions.assertEquals(2, allBody.getPolygonIndex(1));
+        Assertions.assertEquals(4, allBody.getPolygonIndex(2));
+        Assertions.assertEquals(model.getPolygons().get(4), allBody.getPolygons().get(2));
+        Assertions.assertEquals(new BoundingBox(0, 0, 0, 1, 1, 0), allBody.getBounds());
+    }
+
+    @Test
+    void testMaterialsAndObjects() {
+        Model model = ObjReader.read("""
+                mtllib scene.mtl extra.mtl
+                v 0 0 0
+                v 1 0 0
+                v 0 1 0
+                f 1 2 3
+                o cube
+                usemtl red
+                s 1
+                f 1 2 3
+                f 2 3 1
+                usemtl red
+                f 3 1 2
+                usemtl blue
+                s off
+                f 1 3 2
+                o sphere
+                usemtl red
+                f 1 2 3
+                mtllib scene.mtl
+                """, false);
+
+        Assertions.assertEquals(List.of("scene.mtl", "extra.mtl"), model.getMaterialLibraries());
+        Assertions.assertEquals(List.of(new Submesh("red", 1, 4), new Submesh("blue", 4, 5), new Submesh("red", 5, 6)),
+                model.getSubmeshes());
+        Assertions.assertEquals(List.of("red", "blue"), model.getMaterials());
+        Assertions.assertEquals(List.of(new Submesh("red", 1, 4), new Submesh("red", 5, 6)),
+                model.getSubmeshes("red"));
+        Assertions.assertEquals(List.of(), model.getSubmeshes("green"));
+
+        Assertions.assertEquals(2, model.getObjects().size());
+        Group cube = model.getObjects().get(0);
+        Assertions.assertEquals("cube", cube.getName());
+        Assertions.assertEquals(1, cube.getRangeStart(0));
+        Assertions.assertEquals(5, cube.getRangeEnd(0));
+        Assertions.assertEquals(new BoundingBox(0, 0, 0, 1, 1, 0), cube.getBounds());
+        Assertions.assertEquals(1, model.getObjects().get(1).getPolygonsSize());
+
+        Assertions.assertEquals(0, model.getSmoothingGroup(0));
+        Assertions.assertEquals(1, model.getSmoothingGroup(1));
+        Assertions.assertEquals(1, model.getSmoothingGroup(3));
+        Assertions.assertEquals(0, model.getSmoothingGroup(4));
+        Assertions.assertEquals(0, model.getSmoothingGroup(5));
+        Assertions.assertEquals(2, model.getSmoothingRunsSize());
+    }
+
+    @Test
+    void testMaterialErrors() {
+        try {
+            ObjReader.read("v 0 0 0\nusemtl\n", false);
+            Assertions.fail();
+        } catch (NameException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 2. Material must have a name.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+
+        try {
+            ObjReader.read("o\n", false);
+            Assertions.fail();
+        } catch (NameException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 1. Object must have a name.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+
+        try {
+            ObjReader.read("s on\n", false);
+            Assertions.fail();
+        } catch (ParsingException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 1. Failed to parse smoothing group value.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+
+        try {
+            ObjReader.read("s\n", false);
+            Assertions.fail();
+        } catch (ArgumentsSizeException exception) {
+            String expectedMessage = "Error parsing OBJ file on line: 1. Too few arguments.";
+            Assertions.assertEquals(expectedMessage, exception.getMessage());
+        }
+    }
+
+    @Test
+    void testInvalidStateLinesAreSkippedInSoftMode() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 0 1 0
+                s 2
+                usemtl
+                o
+                mtllib
+                s
+                s 1.5
+                s -1
+                s on
+                f 1 2 3
+                """);
+        Assertions.assertEquals(1, model.getPolygonsSize());
+        Assertions.assertEquals(2, model.getSmoothingGroup(0));
+        Assertions.assertTrue(model.getSubmeshes().isEmpty());
+        Assertions.assertTrue(model.getObjects().isEmpty());
+        Assertions.assertTrue(model.getMaterialLibraries().isEmpty());
+
+        Assertions.assertEquals(7, ObjReader.read("s +7 extra\nv 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3\n")
+                .getSmoothingGroup(0));
+    }
 }
@@ -0,0 +1,109 @@
+package ru.cgvsu.yurov.objreader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.cgvsu.yurov.objreader.exceptions.ObjReaderException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ObjVisitorTest {
+    // Записывает события парсера в виде строк
+    private static class RecordingVisitor implements ObjVisitor {
+        private final List<String> events = new ArrayList<>();
+        private ObjLocator locator;
+
+        @Override
+        public void setLocator(ObjLocator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public void vertex(float x, float y, float z) {
+            events.add("v " + x + " " + y + " " + z);
+        }
+
+        @Override
+        public void texture(float u, float v) {
+            events.add("vt " + u + " " + v);
+        }
+
+        @Override
+        public void normal(float x, float y, float z) {
+            events.add("vn " + x + " " + y + " " + z);
+        }
+
+        @Override
+        public void face(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int count) {
+            events.add("f " + locator.getLineIndex() + " "
+                    + Arrays.toString(Arrays.copyOf(vertexIndices, count)) + " "
+                    + (textureVertexIndices == null ? null : Arrays.toString(Arrays.copyOf(textureVertexIndices, count))) + " "
+                    + (normalIndices == null ? null : Arrays.toString(Arrays.copyOf(normalIndices, count))));
+        }
+
+        @Override
+        public void group(String name) {
+            events.add("g " + name);
+        }
+
+        @Override
+        public void end() {
+            events.add("end");
+        }
+    }
+
+    @Test
+    public void testEvents() {
+        RecordingVisitor visitor = new RecordingVisitor();
+        ObjReader.read("""
+                v 1 2 3
+                vt 0.5 1
+                vn 0 0 1
+                # comment
+                g first group
+                f 1//1 1//1 1//1
+                f 1 1 1 1
+                """, visitor);
+
+        List<String> expected = List.of(
+                "v 1.0 2.0 3.0",
+                "vt 0.5 1.0",
+                "vn 0.0 0.0 1.0",
+                "g first group",
+                "f 6 [0, 0, 0] null [0, 0, 0]",
+                "f 7 [0, 0, 0, 0] null null",
+                "end");
+        Assertions.assertEquals(expected, visitor.events);
+    }
+
+    @Test
+    public void testIndicesAreNotChecked() {
+        RecordingVisitor visitor = new RecordingVisitor();
+        ObjReader.read("f 1/2 3/4 10/20", visitor);
+
+        Assertions.assertEquals(List.of("f 1 [0, 2, 9] [1, 3, 19] null", "end"), visitor.events);
+    }
+
+    @Test
+    public void testEndIsNotCalledAfterError() {
+        RecordingVisitor visitor = new RecordingVisitor();
+        try {
+            ObjReader.read("v 1 2 3\nvt 1", false, visitor);
+            Assertions.fail();
+        } catch (ObjReaderException exception) {
+            Assertions.assertEquals(List.of("v 1.0 2.0 3.0"), visitor.events);
+        }
+    }
+
+    @Test
+    public void testModelBuilder() {
+        String content = "v 1 2 3\nv 4 5 6\nv 7 8 9\ng group\nf 1 2 3\n";
+        ModelBuilder modelBuilder = new ModelBuilder();
+        ObjReader.read(content, modelBuilder);
+
+        Assertions.assertEquals(ObjReader.read(content).getPolygons(), modelBuilder.getModel().getPolygons());
+        Assertions.assertEquals(1, modelBuilder.getModel().getGroups().size());
+        Assertions.assertEquals(5, modelBuilder.getModel().getPolygons().get(0).getLineIndex());
+    }
+}
@@ -0,0 +1,143 @@
+package ru.cgvsu.yurov.objreader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.cgvsu.yurov.model.Group;
+import ru.cgvsu.yurov.model.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelObjReaderTest {
+    @TempDir
+    Path tempDir;
+
+    private Path write(String content) throws IOException {
+        Path path = tempDir.resolve("model.obj");
+        Files.writeString(path, content);
+        return path;
+    }
+
+    private static String generateModel() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("mtllib first.mtl\n");
+        for (int i = 0; i < 200; i++) {
+            if (i % 30 == 5) {
+                sb.append("usemtl material ").append(i % 4).append('\n');
+            }
+            if (i % 45 == 7) {
+                sb.append("o object ").append(i / 45).append('\n');
+            }
+            if (i % 20 == 11) {
+                sb.append("s ").append(i % 3 == 0 ? "off" : String.valueOf(i % 3)).append('\n');
+            }
+            if (i == 150) {
+                sb.append("mtllib second.mtl first.mtl\n");
+            }
+            sb.append("v ").append(i).append(".5 ").append(-i).append(" 0.25\r\n");
+            sb.append("vt 0.").append(i).append(" 1\n");
+            if (i % 50 == 0) {
+                sb.append("# group ").append(i).append('\n');
+                sb.append("g group ").append(i / 50).append('\n');
+            }
+            if (i >= 2) {
+                sb.append("f ").append(i - 1).append('/').append(i).append(' ')
+                        .append(i).append('/').append(i - 1).append(' ')
+                        .append(i + 1).append('/').append(i + 1).append('\n');
+            }
+            if (i % 7 == 3) {
+                sb.append("f -3/-1 -2/-").append(i % 3 + 1).append(" 1/-4\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void assertSameModel(Model expected, Model actual) {
+        Assertions.assertEquals(expected.getVertices(), actual.getVertices());
+        Assertions.assertEquals(expected.getTextureVertices(), actual.getTextureVertices());
+        Assertions.assertEquals(expected.getNormals(), actual.getNormals());
+        Assertions.assertEquals(expected.getPolygons(), actual.getPolygons());
+        Assertions.assertEquals(expected.getGroups().size(), actual.getGroups().size());
+        for (int i = 0; i < expected.getGroups().size(); i++) {
+            Group expectedGroup = expected.getGroups().get(i);
+            Group actualGroup = actual.getGroups().get(i);
+            Assertions.assertEquals(expectedGroup.getName(), actualGroup.getName());
+            Assertions.assertEquals(expectedGroup.getPolygons(), actualGroup.getPolygons());
+            Assertions.assertEquals(expectedGroup.getBounds(), actualGroup.getBounds());
+        }
+        Assertions.assertEquals(expected.getBounds(), actual.getBounds());
+        Assertions.assertEquals(expected.getObjects().size(), actual.getObjects().size());
+        for (int i = 0; i < expected.getObjects().size(); i++) {
+            Group expectedObject = expected.getObjects().get(i);
+            Group actualObject = actual.getObjects().get(i);
+            Assertions.assertEquals(expectedObject.getName(), actualObject.getName());
+            Assertions.assertEquals(expectedObject.getPolygons(), actualObject.getPolygons());
+            Assertions.assertEquals(expectedObject.getBounds(), actualObject.getBounds());
+        }
+        Assertions.assertEquals(expected.getSubmeshes(), actual.getSubmeshes());
+        Assertions.assertEquals(expected.getMaterialLibraries(), actual.getMaterialLibraries());
+        for (int i = 0; i < expected.getPolygonsSize(); i++) {
+            Assertions.assertEquals(expected.getSmoothingGroup(i), actual.getSmoothingGroup(i));
+        }
+        for (int i = 0; i < expected.getPolygonsSize(); i++) {
+            Assertions.assertEquals(
+                    expected.getPolygons().get(i).getLineIndex(), actual.getPolygons().get(i).getLineIndex());
+        }
+    }
+
+    @Test
+    void testSameAsSequential() throws IOException {
+        Path path = write(generateModel());
+        Model expected = ObjReader.read(path);
+        Assertions.assertFalse(expected.getSubmeshes().isEmpty());
+
+        for (int chunkSize : new int[]{1, 17, 64, 1000, 1 << 20}) {
+            Model actual = ParallelObjReader.read(path, true, ForkJoinPool.commonPool(), chunkSize);
+            assertSameModel(expected, actual);
+        }
+        assertSameModel(expected, ObjReader.readParallel(path));
+    }
+
+    @Test
+    void testSameExceptions() throws IOException {
+        String model = generateModel();
+        String[] brokenModels = {
+                model + "f 1 2 3\n",
+                model.replace("v 150.5", "v 150,5"),
+                model + "f 1/1 2/2 300/3\n",
+                model + "f 1/1 -2/-2 -300/-3\n",
+                model.replace("v 100.5", "v 100.5 x"),
+                model.replace("g group 3", "g"),
+                model.replace("usemtl material 3", "usemtl"),
+                model.replace("s 2", "s on")
+        };
+
+        for (String brokenModel : brokenModels) {
+            Path path = write(brokenModel);
+            RuntimeException expected = Assertions.assertThrows(RuntimeException.class, () -> ObjReader.read(path, false));
+            RuntimeException actual = Assertions.assertThrows(RuntimeException.class,
+                    () -> ParallelObjReader.read(path, false, ForkJoinPool.commonPool(), 64));
+            Assertions.assertEquals(expected.getClass(), actual.getClass());
+            Assertions.assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    @Test
+    void testInvalidStateLinesInSoftMode() throws IOException {
+        String model = generateModel();
+        String[] modelsWithInvalidLines = {
+                model.replace("usemtl material 3", "usemtl"),
+                model.replace("s 2", "s on"),
+                model.replace("s 2", "s")
+        };
+
+        for (String modelWithInvalidLines : modelsWithInvalidLines) {
+            Path path = write(modelWithInvalidLines);
+            Model expected = ObjReader.read(path, true);
+            assertSameModel(expected, ParallelObjReader.read(path, true, ForkJoinPool.commonPool(), 64));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package ru.cgvsu.yurov.objreader;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.objreader.exceptions.TokenException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class ParseStatsTest {
+    private static final String CONTENT = """
+            # comment
+            v 1 2 3
+            v 4 5 6
+            v 7 8 9
+            v 1 1 1
+            vt 0 1
+            vn 0 0 1
+            cstype bspline
+
+            g group
+            f 1 2 3 4
+            f 1 2 3
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private static void assertCounts(ParseStats stats) {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(CONTENT.length(), stats.getBytesRead()),
+                () -> Assertions.assertEquals(12, stats.getLines()),
+                () -> Assertions.assertEquals(4, stats.getVertices()),
+                () -> Assertions.assertEquals(1, stats.getTextureVertices()),
+                () -> Assertions.assertEquals(1, stats.getNormals()),
+                () -> Assertions.assertEquals(2, stats.getFaces()),
+                () -> Assertions.assertEquals(1, stats.getGroups()),
+                () -> Assertions.assertEquals(1, stats.getUnknownTokens()),
+                () -> Assertions.assertEquals(4, stats.getPeakFaceSize()),
+                () -> Assertions.assertEquals("cstype bspline".length(), stats.getPeakLineLength()),
+                () -> Assertions.assertTrue(stats.getTotalNanos() >= stats.getTokenizeNanos() + stats.getFacesNanos())
+        );
+    }
+
+    @Test
+    public void testFileStats() throws IOException {
+        Path path = tempDir.resolve("model.obj");
+        Files.writeString(path, CONTENT);
+
+        ParseStats stats = new ParseStats();
+        Model model = ObjReader.read(path, true, stats);
+        Assertions.assertEquals(2, model.getPolygonsSize());
+        assertCounts(stats);
+        Assertions.assertEquals(CONTENT.length(), stats.getPeakBufferSize());
+    }
+
+    @Test
+    public void testStringAndChannelStats() {
+        ParseStats stringStats = new ParseStats();
+        ObjReader.read(CONTENT, true, new ModelBuilder(), stringStats);
+        assertCounts(stringStats);
+
+        ParseStats channelStats = new ParseStats();
+        ObjReader.read(Channels.newChannel(new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8))),
+                true, new ModelBuilder(), channelStats);
+        assertCounts(channelStats);
+    }
+
+    @Test
+    public void testStatsOnError() {
+        ParseStats stats = new ParseStats();
+        try {
+            ObjReader.read(CONTENT, false, new ModelBuilder(), stats);
+            Assertions.fail();
+        } catch (TokenException exception) {
+            Assertions.assertEquals(new TokenException(8), exception);
+        }
+        Assertions.assertEquals(8, stats.getLines());
+        Assertions.assertEquals(1, stats.getUnknownTokens());
+        Assertions.assertEquals(0, stats.getFaces());
+    }
+
+    @Test
+    public void testFlightRecorderEvent() throws IOException {
+        Path path = tempDir.resolve("model.obj");
+        Files.writeString(path, CONTENT);
+        Path recordingPath = tempDir.resolve("recording.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("ru.cgvsu.yurov.objreader.ObjRead");
+            recording.start();
+            ObjReader.read(path);
+            recording.stop();
+            recording.dump(recordingPath);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingPath);
+        Assertions.assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        Assertions.assertEquals(path.toString(), event.getString("path"));
+        Assertions.assertEquals(CONTENT.length(), event.getLong("bytesRead"));
+        Assertions.assertEquals(2, event.getInt("faces"));
+        Assertions.assertTrue(event.getBoolean("succeeded"));
+    }
+}
@@ -0,0 +1,171 @@
+package ru.cgvsu.yurov.objwriter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.cgvsu.yurov.model.Group;
+import ru.cgvsu.yurov.model.Model;
+import ru.cgvsu.yurov.objreader.ObjReader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class ObjWriterTest {
+    @TempDir
+    Path tempDir;
+
+    private static String format(float value) {
+        byte[] buffer = new byte[FloatFormatter.MAX_LENGTH];
+        int length = FloatFormatter.format(value, buffer, 0);
+        return new String(buffer, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private static void assertSameModel(Model expected, Model actual) {
+        Assertions.assertEquals(expected.getVertices(), actual.getVertices());
+        Assertions.assertEquals(expected.getTextureVertices(), actual.getTextureVertices());
+        Assertions.assertEquals(expected.getNormals(), actual.getNormals());
+        Assertions.assertEquals(expected.getPolygons(), actual.getPolygons());
+        Assertions.assertEquals(expected.getGroups().size(), actual.getGroups().size());
+        for (int i = 0; i < expected.getGroups().size(); i++) {
+            Group expectedGroup = expected.getGroups().get(i);
+            Group actualGroup = actual.getGroups().get(i);
+            Assertions.assertEquals(expectedGroup.getName(), actualGroup.getName());
+            Assertions.assertEquals(expectedGroup.getPolygons(), actualGroup.getPolygons());
+        }
+    }
+
+    @Test
+    void testShortestFloats() {
+        Assertions.assertEquals("0", format(0));
+        Assertions.assertEquals("-0", format(-0.0f));
+        Assertions.assertEquals("1", format(1));
+        Assertions.assertEquals("0.1", format(0.1f));
+        Assertions.assertEquals("-2.5", format(-2.5f));
+        Assertions.assertEquals("100", format(100));
+        Assertions.assertEquals("123.456", format(123.456f));
+        Assertions.assertEquals("0.01", format(0.01f));
+        Assertions.assertEquals("1e-3", format(1e-3f));
+        Assertions.assertEquals("2e3", format(2000));
+        Assertions.assertEquals("1e-5", format(1e-5f));
+        Assertions.assertEquals("-2.3841858e-5", format(-2.3841858E-5f));
+        Assertions.assertEquals("2.5e10", format(2.5e10f));
+        Assertions.assertEquals("16777216", format(16777216f));
+        Assertions.assertEquals("3.4028235E38", format(Float.MAX_VALUE));
+        Assertions.assertEquals("1.4E-45", format(Float.MIN_VALUE));
+    }
+
+    @Test
+    void testFloatsRoundTrip() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            float value = Float.intBitsToFloat(random.nextInt());
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                continue;
+            }
+            String text = format(value);
+            Assertions.assertEquals(value, Float.parseFloat(text), text);
+            // Запись не длиннее, чем у Float.toString
+            Assertions.assertTrue(text.length() <= Float.toString(value).length(), text);
+        }
+        for (int i = 0; i < 100000; i++) {
+            float value = (random.nextFloat() - 0.5f) * 200;
+            String text = format(value);
+            Assertions.assertEquals(value, Float.parseFloat(text), text);
+            Assertions.assertTrue(text.length() <= Float.toString(value).length(), text);
+        }
+    }
+
+    @Test
+    void testModelRoundTrip() {
+        Model model = ObjReader.read("""
+                v 0.1 -2 3.25
+                v 1e-7 123456.78 -0
+                v 0 1 0
+                v 5 5 5
+                vt 0.5 1
+                vt 0.25 0.75
+                vn 0 0 1
+                f 1/1 2/2 3/1
+                g first
+                f 1/2 2/2 3/1
+                f 1/1/1 2/1/1 4/2/1
+                g second
+                f 4/2/1 3/1/1 2/2/1 1/1/1
+                """);
+        String text = ObjWriter.write(model);
+        Assertions.assertTrue(text.startsWith("v 0.1 -2 3.25\nv 1e-7 123456.78 -0\n"), text);
+        Assertions.assertTrue(text.contains("\nf 1/1 2/2 3/1\ng first\nf 1/2 2/2 3/1\nf 1/1/1 2/1/1 4/2/1\n"), text);
+        Assertions.assertTrue(text.endsWith("g second\nf 4/2/1 3/1/1 2/2/1 1/1/1\n"), text);
+        assertSameModel(model, ObjReader.read(text));
+    }
+
+    @Test
+    void testGroupsRoundTrip() {
+        Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 0 1 0
+                g empty
+                g body
+                f 1 2 3
+                g head
+                f 2 3 1
+                g body
+                f 3 1 2
+                g last
+                """);
+        String text = ObjWriter.write(model);
+        Assertions.assertTrue(text.endsWith("g empty\ng body\nf 1 2 3\ng head\nf 2 3 1\ng body\nf 3 1 2\ng last\n"),
+                text);
+        assertSameModel(model, ObjReader.read(text));
+    }
+
+    @Test
+    void testMaterialsRoundTrip() {
+        Model model = ObjReader.read("""
+                mtllib scene.mtl
+                v 0 0 0
+                v 1 0 0
+                v 0 1 0
+                f 1 2 3
+                o cube
+                g body
+                usemtl red
+                s 1
+                f 1 2 3
+                usemtl blue
+                s off
+                f 2 3 1
+                """);
+        String text = ObjWriter.write(model);
+        Assertions.assertTrue(text.startsWith("mtllib scene.mtl\nv 0 0 0\n"), text);
+        Assertions.assertTrue(text.endsWith(
+                "f 1 2 3\no cube\ng body\nusemtl red\ns 1\nf 1 2 3\nusemtl blue\ns off\nf 2 3 1\n"), text);
+
+        Model read = ObjReader.read(text);
+        assertSameModel(model, read);
+        Assertions.assertEquals(model.getSubmeshes(), read.getSubmeshes());
+        Assertions.assertEquals(model.getObjects().get(0).getPolygons(), read.getObjects().get(0).getPolygons());
+        Assertions.assertEquals(model.getMaterialLibraries(), read.getMaterialLibraries());
+        Assertions.assertEquals(1, read.getSmoothingGroup(1));
+        Assertions.assertEquals(0, read.getSmoothingGroup(2));
+    }
+
+    @Test
+    void testLargeModelRoundTrip() {
+        Random random = new Random(3);
+        Model model = new Model();
+        for (int i = 0; i < 30000; i++) {
+            model.addVertex(random.nextFloat() * 1000 - 500, random.nextFloat(), (float) random.nextGaussian());
+            model.addNormal(random.nextFloat(), random.nextFloat(), random.nextFloat());
+        }
+        for (int i = 0; i + 2 < 30000; i++) {
+            model.addPolygon(new int[]{i, i + 1, i + 2}, null, new int[]{i + 2, i, i + 1}, 3, 0);
+        }
+
+        Path path = tempDir.resolve("model.obj");
+        ObjWriter.write(model, path);
+        assertSameModel(model, ObjReader.read(path));
+    }
+}